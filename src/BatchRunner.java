@@ -0,0 +1,298 @@
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Plays scripted games without prompts or boards, for regression scripts and bulk replays. A script is a
+ * stream of lines: a game line starts a game ("quoridor", "dots R C" or "puzzle R C" followed by the
+ * R*C starting tiles in row-major order, 0 for the blank) and every line after it is one move in the
+ * terminal's syntax ("M U", "H 1 2", "7"), handed to {@link Game#makeMoveFromInput} until the next game
+ * line. Blank lines and lines starting with '#' are skipped, and so are "p" and "hint", which only mean
+ * something to a player at the terminal.
+ *
+ * The games write to a Menu that discards everything, and nothing is rendered. Small scripts and
+ * standard input are read through a BufferedReader; larger files are memory-mapped and split into lines
+ * without a charset decoder. Files are played in parallel, one per core. Only each game's result (moves
+ * played, moves rejected, winner and score) and the overall rate are printed.
+ *
+ * Usage: java BatchRunner [script ...]   (no script, or "-", reads standard input)
+ */
+public class BatchRunner {
+    // Files at least this large are memory-mapped instead of read through a Reader
+    private static final long MAP_THRESHOLD = 1 << 20;
+
+    /** Lines of a script, or null at its end. */
+    private interface LineSource {
+        String next() throws IOException;
+    }
+
+    /** Lines of a memory-mapped file; moves are ASCII, so each byte is one char. */
+    private static class MappedLines implements LineSource {
+        private final MappedByteBuffer data;
+        private byte[] line = new byte[256];
+
+        MappedLines(MappedByteBuffer data) {
+            this.data = data;
+        }
+
+        @Override
+        public String next() {
+            if (!data.hasRemaining()) return null;
+            int length = 0;
+            while (data.hasRemaining()) {
+                byte b = data.get();
+                if (b == '\n') break;
+                if (length == line.length) line = Arrays.copyOf(line, length * 2);
+                line[length++] = b;
+            }
+            if (length > 0 && line[length - 1] == '\r') length--;
+            return new String(line, 0, length, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    /** A stream that drops text before encoding it; the games print a message for most moves. */
+    private static PrintStream discard() {
+        return new PrintStream(OutputStream.nullOutputStream()) {
+            @Override
+            public void print(String s) {
+            }
+
+            @Override
+            public void println(String s) {
+            }
+
+            @Override
+            public void println() {
+            }
+
+            @Override
+            public void write(byte[] buf, int off, int len) {
+            }
+        };
+    }
+
+    /** What one script did: a line per game and the totals. */
+    private static class Result {
+        final StringBuilder report = new StringBuilder();
+        long moves;
+        long rejected;
+        int games;
+    }
+
+    private final String source;
+    private final Result result = new Result();
+    private final Menu quiet = new Menu(discard());
+    private final InputHandler noInput = new InputHandler(new ByteArrayInputStream(new byte[0]), discard());
+
+    // The game being played, its name and size, where its game line was, and its counts
+    private Game game;
+    private String name;
+    private int headerLine;
+    private int flag;
+    private long moves;
+    private long rejected;
+
+    private BatchRunner(String source) {
+        this.source = source;
+    }
+
+    /** Plays every game in a script. */
+    private Result play(LineSource lines) throws IOException {
+        int lineNumber = 0;
+        boolean skipping = false;
+        for (String line; (line = lines.next()) != null; ) {
+            lineNumber++;
+            String text = line.trim();
+            if (text.isEmpty() || text.charAt(0) == '#') continue;
+
+            if (isGameLine(text)) {
+                finishGame();
+                game = startGame(text);
+                skipping = game == null;
+                if (skipping) {
+                    result.report.append(source).append(':').append(lineNumber).append(" invalid game line: ")
+                            .append(text).append('\n');
+                    continue;
+                }
+                headerLine = lineNumber;
+                flag = 1;
+                moves = 0;
+                rejected = 0;
+                continue;
+            }
+            if (skipping) continue;
+            if (game == null) {
+                result.report.append(source).append(':').append(lineNumber).append(" move before any game line\n");
+                skipping = true;
+                continue;
+            }
+            play(text);
+        }
+        finishGame();
+        return result;
+    }
+
+    /** Applies one move as the terminal would; it counts as rejected if the rules did not accept it. */
+    private void play(String text) {
+        if (text.equalsIgnoreCase("p") || text.equalsIgnoreCase("pause") || text.equalsIgnoreCase("hint")) return;
+        if (!game.isActive(flag) || game.isGameWon()) {
+            rejected++;
+            return;
+        }
+        GameRules rules = game.getRules();
+        int before = rules.getMoveCount();
+        flag = game.makeMoveFromInput(text);
+        if (rules.getMoveCount() > before) {
+            moves++;
+        } else if (game.isActive(flag)) {
+            rejected++;
+        }
+    }
+
+    private static boolean isGameLine(String text) {
+        // Most lines are moves, which never start with these letters
+        char first = Character.toLowerCase(text.charAt(0));
+        if (first != 'q' && first != 'd' && first != 'p') return false;
+        return startsWithWord(text, "quoridor") || startsWithWord(text, "dots") || startsWithWord(text, "puzzle");
+    }
+
+    private static boolean startsWithWord(String text, String word) {
+        return text.regionMatches(true, 0, word, 0, word.length())
+                && (text.length() == word.length() || Character.isWhitespace(text.charAt(word.length())));
+    }
+
+    /** A game set up from its game line without prompting, or null if the line is not valid. */
+    private Game startGame(String text) {
+        String[] parts = text.toLowerCase().split("\\s+");
+        name = String.join(" ", Arrays.copyOf(parts, Math.min(parts.length, 3)));
+        GameState start = new GameState();
+        start.gameActive = true;
+        try {
+            switch (parts[0]) {
+                case "quoridor" -> {
+                    if (parts.length != 1) return null;
+                    Quoridor quoridor = new Quoridor(quiet, noInput);
+                    quoridor.setPlayer(new Player("Player 1"), new Player("Player 2"));
+                    start.boardData = new QuoridorState();
+                    quoridor.loadState(start);
+                    return quoridor;
+                }
+                case "dots" -> {
+                    if (parts.length != 3) return null;
+                    DotsAndBoxes dots = new DotsAndBoxes(quiet, noInput);
+                    dots.setPlayer(new Player("Player 1"), new Player("Player 2"));
+                    start.boardData = new DotsAndBoxesState(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+                    dots.loadState(start);
+                    return dots;
+                }
+                default -> {
+                    if (parts.length < 3) return null;
+                    int rows = Integer.parseInt(parts[1]);
+                    int columns = Integer.parseInt(parts[2]);
+                    if (parts.length != 3 + rows * columns) return null;
+                    int[] tiles = new int[rows * columns];
+                    for (int i = 0; i < tiles.length; i++) tiles[i] = Integer.parseInt(parts[3 + i]);
+                    SlidingPuzzleState position = new SlidingPuzzleState(rows, columns);
+                    position.load(tiles);
+                    SlidingPuzzle puzzle = new SlidingPuzzle(quiet, noInput);
+                    puzzle.setPlayer(new Player("Player"));
+                    start.boardData = position;
+                    puzzle.loadState(start);
+                    return puzzle;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // A size or tile that is not a number, or a board the state rejects
+            return null;
+        }
+    }
+
+    private void finishGame() {
+        if (game == null) return;
+        GameRules rules = game.getRules();
+        StringBuilder report = result.report;
+        report.append(source).append(':').append(headerLine).append(' ').append(name);
+        report.append(": ").append(moves).append(" moves, ").append(rejected).append(" rejected, ");
+        if (rules.getPlayerCount() == 1) {
+            report.append(game.isGameWon() ? "solved" : "not solved");
+        } else if (!game.isGameWon()) {
+            report.append(game.isActive(flag) ? "in progress" : "quit");
+        } else {
+            int winner = rules.getWinner();
+            report.append(winner < 0 ? "tie" : "Player " + (winner + 1) + " wins");
+        }
+        if (game instanceof DotsAndBoxes) {
+            report.append(' ').append(rules.getScore(0)).append('-').append(rules.getScore(1));
+        }
+        report.append('\n');
+        result.moves += moves;
+        result.rejected += rejected;
+        result.games++;
+        game = null;
+    }
+
+    private static Result run(String script) throws IOException {
+        BatchRunner runner = new BatchRunner(script.equals("-") ? "stdin" : script);
+        if (script.equals("-")) {
+            return runner.play(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))::readLine);
+        }
+        Path file = Path.of(script);
+        long size = Files.size(file);
+        if (size < MAP_THRESHOLD || size > Integer.MAX_VALUE) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                return runner.play(reader::readLine);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file)) {
+            return runner.play(new MappedLines(channel.map(FileChannel.MapMode.READ_ONLY, 0, size)));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> scripts = args.length > 0 ? Arrays.asList(args) : List.of("-");
+        ExecutorService pool = Executors.newFixedThreadPool(
+                Math.min(scripts.size(), Runtime.getRuntime().availableProcessors()));
+        long started = System.nanoTime();
+        List<Future<Result>> results = new ArrayList<>();
+        for (String script : scripts) results.add(pool.submit(() -> run(script)));
+
+        long moves = 0;
+        long rejected = 0;
+        int games = 0;
+        int failed = 0;
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < scripts.size(); i++) {
+            try {
+                Result result = results.get(i).get();
+                out.append(result.report);
+                moves += result.moves;
+                rejected += result.rejected;
+                games += result.games;
+            } catch (java.util.concurrent.ExecutionException e) {
+                out.append(scripts.get(i)).append(": ").append(e.getCause()).append('\n');
+                failed++;
+            }
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        pool.shutdown();
+
+        System.out.print(out);
+        System.out.printf("%d games from %d scripts: %d moves played, %d rejected in %.3f s (%.0f moves/s)%n",
+                games, scripts.size() - failed, moves, rejected, seconds, moves / seconds);
+        if (failed > 0) System.exit(1);
+    }
+}
@@ -8,6 +8,8 @@ public class Board {
     private final int MAX_SIZE = 10;
     
     private Tile[][] pieces; 
+    // Reused for every frame drawn by the games; created on first use
+    private BoardFrame frame;
 
     public Board(int var1, int var2) {
         this.validateDimensions(var1, var2);
@@ -38,6 +40,12 @@ public class Board {
         return var1 >= 0 && var1 < this.rows && var2 >= 0 && var2 < this.columns;
     }
    
+    /** The reusable frame the games render this board into. */
+    public BoardFrame getFrame() {
+        if (frame == null) frame = new BoardFrame(rows, columns);
+        return frame;
+    }
+
     public Tile[][] getPieces() {
         return this.pieces;
     }
@@ -0,0 +1,280 @@
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reusable frame for drawing a rectangular board in the same layout as {@link Board#getBoardDisplay}:
+ * "+---+" borders, "|" sides and the cell's label in the middle. A game describes each cell with a set of
+ * edge flags and a label (one of its own preallocated strings), then {@link #render()} writes the whole
+ * board into one byte array that is reused from frame to frame, copying the edge segments from
+ * preallocated arrays. Every glyph on a board is ASCII, so the frame goes to a stream as it is, without a
+ * charset encoder, and rendering allocates nothing once the frame exists.
+ *
+ * The bytes returned by {@link #getBytes()} stay valid until the next call to {@link #render()}.
+ *
+ * For terminals that understand ANSI escapes, {@link #computeUpdate()} turns a render into the bytes that
+ * bring the screen up to date instead. The first update pins the board to the top of the screen and makes
+ * the lines below it a scrolling region for messages and prompts; after that only what changed is sent,
+ * as cursor-addressed runs of characters. {@link #setCell} marks the rows whose cells changed, so only
+ * their lines are compared. A move changes a cell or two, so an update is a few dozen bytes where the
+ * whole board is several hundred.
+ */
+public class BoardFrame {
+    // Edge flags of a cell
+    public static final int TOP = 1;
+    public static final int BOTTOM = 2;
+    public static final int LEFT = 4;
+    public static final int RIGHT = 8;
+    public static final int ALL_EDGES = TOP | BOTTOM | LEFT | RIGHT;
+
+    private static final byte[] EDGE = "---".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NO_EDGE = "   ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NEWLINE = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    /** Gives the whole screen back to ordinary scrolling output (save cursor, reset region, restore cursor). */
+    public static final String RELEASE_SCREEN = "\u001b7\u001b[r\u001b8";
+
+    private static final byte ESC = 0x1b;
+    private static final byte[] SAVE_CURSOR = {ESC, '7'};
+    private static final byte[] RESTORE_CURSOR = {ESC, '8'};
+    private static final byte[] HOME = {ESC, '[', 'H'};
+    private static final byte[] ERASE_LINE_END = {ESC, '[', 'K'};
+    // Row past any real screen; cursor moves clamp it to the last row
+    private static final int BOTTOM_ROW = 999;
+
+    private final int rows;
+    private final int columns;
+    private final byte[] edges;
+    private final String[] labels;
+    private byte[] bytes;
+    private int length;
+    private final int[] lineStart;
+    private final int[] lineLength;  // without the line separator
+
+    // Rows with a changed cell since the last update, and the lines last sent to the screen
+    private final boolean[] dirtyRows;
+    private boolean shown;
+    private byte[] shownBytes;
+    private final int[] shownStart;
+    private final int[] shownLength;
+    private byte[] update;
+    private int updateLength;
+
+    public BoardFrame(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        this.edges = new byte[rows * columns];
+        this.labels = new String[rows * columns];
+        java.util.Arrays.fill(labels, " ");
+        this.bytes = new byte[capacity()];
+        this.lineStart = new int[2 * rows + 1];
+        this.lineLength = new int[2 * rows + 1];
+        this.dirtyRows = new boolean[rows];
+        this.shownBytes = new byte[bytes.length];
+        this.shownStart = new int[2 * rows + 1];
+        this.shownLength = new int[2 * rows + 1];
+        this.update = new byte[2 * bytes.length + 64];
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /** Sets a cell's edges ({@link #TOP}, {@link #BOTTOM}, {@link #LEFT}, {@link #RIGHT}) and label. */
+    public void setCell(int r, int c, int edgeFlags, String label) {
+        int cell = r * columns + c;
+        if (edges[cell] != edgeFlags || !labels[cell].equals(label)) {
+            edges[cell] = (byte) edgeFlags;
+            labels[cell] = label;
+            dirtyRows[r] = true;
+        }
+    }
+
+    /**
+     * Draws the board from the cells' edges and labels. Each border line takes a cell's top edge (the last
+     * one the bottom edges of the last row); each content line takes the cells' left edges and the right
+     * edge of the last cell.
+     */
+    public BoardFrame render() {
+        int needed = capacity();
+        if (bytes.length < needed) bytes = new byte[needed];
+        int at = 0;
+        for (int r = 0; r < rows; r++) {
+            at = border(at, 2 * r, r, TOP);
+            lineStart[2 * r + 1] = at;
+            int row = r * columns;
+            for (int c = 0; c < columns; c++) {
+                bytes[at++] = (byte) ((edges[row + c] & LEFT) != 0 ? '|' : ' ');
+                bytes[at++] = ' ';
+                String label = labels[row + c];
+                for (int i = 0; i < label.length(); i++) {
+                    char ch = label.charAt(i);
+                    bytes[at++] = (byte) (ch < 0x80 ? ch : '?');
+                }
+                bytes[at++] = ' ';
+            }
+            bytes[at++] = (byte) ((edges[row + columns - 1] & RIGHT) != 0 ? '|' : ' ');
+            lineLength[2 * r + 1] = at - lineStart[2 * r + 1];
+            at = newline(at);
+        }
+        at = border(at, 2 * rows, rows - 1, BOTTOM);
+        length = at;
+        return this;
+    }
+
+    private int border(int at, int line, int r, int edge) {
+        lineStart[line] = at;
+        bytes[at++] = '+';
+        for (int c = 0; c < columns; c++) {
+            byte[] segment = (edges[r * columns + c] & edge) != 0 ? EDGE : NO_EDGE;
+            System.arraycopy(segment, 0, bytes, at, segment.length);
+            at += segment.length;
+            bytes[at++] = '+';
+        }
+        lineLength[line] = at - lineStart[line];
+        return newline(at);
+    }
+
+    private int newline(int at) {
+        System.arraycopy(NEWLINE, 0, bytes, at, NEWLINE.length);
+        return at + NEWLINE.length;
+    }
+
+    /** Bytes needed for the frame with the current labels. */
+    private int capacity() {
+        int labelChars = 0;
+        for (String label : labels) labelChars += label.length();
+        int borderLine = 1 + columns * (EDGE.length + 1) + NEWLINE.length;
+        int contentLine = columns * 3 + 1 + NEWLINE.length;
+        return (rows + 1) * borderLine + rows * contentLine + labelChars;
+    }
+
+    /** The rendered board, one line per row of text, each ending in a line separator. */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /** Makes the next {@link #computeUpdate()} draw the whole board again, e.g. after the screen was cleared. */
+    public void invalidate() {
+        shown = false;
+    }
+
+    /**
+     * Compares the last {@link #render()} with what the previous update put on the screen and builds the
+     * ANSI bytes that turn one into the other ({@link #getUpdateBytes()}); nothing if the board is unchanged.
+     * The first update scrolls the screen up by the board's height, draws the board over the top lines and
+     * confines scrolling to the lines below it, leaving the cursor on the last line.
+     */
+    public BoardFrame computeUpdate() {
+        updateLength = 0;
+        int lines = 2 * rows + 1;
+        ensureUpdate(2 * length + 16 * lines + 64);
+        if (!shown) {
+            for (int line = 0; line < lines; line++) append(NEWLINE);
+            append(HOME);
+            for (int line = 0; line < lines; line++) {
+                append(bytes, lineStart[line], lineLength[line]);
+                append(ERASE_LINE_END);
+                if (line < lines - 1) append(NEWLINE);
+            }
+            escape(lines + 1, -1, 'r');
+            escape(BOTTOM_ROW, 1, 'H');
+        } else {
+            append(SAVE_CURSOR);
+            int start = updateLength;
+            for (int r = 0; r < rows; r++) {
+                if (!dirtyRows[r]) continue;
+                // A row's cells show on its top border, its content line and (for the last row) the bottom border
+                diffLine(2 * r);
+                diffLine(2 * r + 1);
+                if (r == rows - 1 || !dirtyRows[r + 1]) diffLine(2 * r + 2);
+            }
+            if (updateLength == start) {
+                updateLength = 0;
+            } else {
+                append(RESTORE_CURSOR);
+            }
+        }
+
+        if (shownBytes.length < length) shownBytes = new byte[bytes.length];
+        System.arraycopy(bytes, 0, shownBytes, 0, length);
+        System.arraycopy(lineStart, 0, shownStart, 0, lines);
+        System.arraycopy(lineLength, 0, shownLength, 0, lines);
+        java.util.Arrays.fill(dirtyRows, false);
+        shown = true;
+        return this;
+    }
+
+    /** Appends the changed span of one line, addressed by screen row and column (both from 1). */
+    private void diffLine(int line) {
+        int now = lineLength[line];
+        int before = shownLength[line];
+        int from = lineStart[line];
+        int was = shownStart[line];
+        int common = Math.min(now, before);
+        int first = 0;
+        while (first < common && bytes[from + first] == shownBytes[was + first]) first++;
+        if (first == now && now == before) return;
+        int last = now - 1;
+        if (now == before) {
+            while (last > first && bytes[from + last] == shownBytes[was + last]) last--;
+        }
+        escape(line + 1, first + 1, 'H');
+        append(bytes, from + first, last + 1 - first);
+        if (now < before) append(ERASE_LINE_END);
+    }
+
+    /** Appends ESC [ a ; b final, or ESC [ a final when b is negative. */
+    private void escape(int a, int b, char command) {
+        update[updateLength++] = ESC;
+        update[updateLength++] = '[';
+        number(a);
+        if (b >= 0) {
+            update[updateLength++] = ';';
+            number(b);
+        }
+        update[updateLength++] = (byte) command;
+    }
+
+    private void number(int value) {
+        if (value >= 10) number(value / 10);
+        update[updateLength++] = (byte) ('0' + value % 10);
+    }
+
+    private void append(byte[] source) {
+        append(source, 0, source.length);
+    }
+
+    private void append(byte[] source, int offset, int count) {
+        System.arraycopy(source, offset, update, updateLength, count);
+        updateLength += count;
+    }
+
+    private void ensureUpdate(int size) {
+        if (update.length < size) update = new byte[size];
+    }
+
+    /** The escape sequences built by {@link #computeUpdate()}, valid until it is called again. */
+    public byte[] getUpdateBytes() {
+        return update;
+    }
+
+    public int getUpdateLength() {
+        return updateLength;
+    }
+
+    /** The rendered board as the line array of {@link Board#getBoardDisplay}, for callers that want strings. */
+    public String[][] toLines() {
+        String text = new String(bytes, 0, length, StandardCharsets.US_ASCII);
+        String[] lines = text.split(System.lineSeparator());
+        String[][] display = new String[lines.length][1];
+        for (int i = 0; i < lines.length; i++) display[i][0] = lines[i];
+        return display;
+    }
+}
@@ -0,0 +1,10 @@
+/**
+ * A computer player that works on the headless {@link GameRules} API, for tournaments and analysis.
+ * Bots may keep search buffers between moves, so one instance must not be shared between threads.
+ */
+public interface Bot {
+    String getName();
+
+    /** Picks a legal move for the player to move, or -1 if there is none. Must not change the position. */
+    int chooseMove(GameRules rules);
+}
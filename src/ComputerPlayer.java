@@ -0,0 +1,17 @@
+/**
+ * This java class represents a computer-controlled player.
+ * Instead of reading moves from the terminal, the game engine asks the game for a move
+ * and gives it a fixed thinking time per move.
+ */
+public class ComputerPlayer extends Player {
+    private final long timeLimitMillis;
+
+    public ComputerPlayer(String name, long timeLimitMillis) {
+        super(name);
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    public long getTimeLimitMillis() {
+        return timeLimitMillis;
+    }
+}
@@ -3,17 +3,19 @@ import java.util.*;
 public class DotsAndBoxes extends Game {
     private Player player1;
     private Player player2;
-    private int current = 0;
 
     // Board dimensions
     private int rows;
     private int columns;
 
-    private int[][] hOwner;
-    private int[][] vOwner;
+    // Edges, box owners, scores and the side to move, and the rules that change them
+    private DotsAndBoxesRules rules;
+    private DotsAndBoxesState state;
+    private String[] labels;  // each player's initial, drawn in the boxes they close
 
-    // boxOwner is now stored in Tile.boxOwner
-    private char[] labels;
+    // Time the solver may spend on a hint or a computer move; it usually needs a few milliseconds
+    private static final long HINT_TIME_LIMIT_MS = 1000;
+    private DotsAndBoxesSolver solver;
 
     public DotsAndBoxes(Menu menu, InputHandler inputHandler) {
         super(menu, inputHandler);
@@ -26,95 +28,89 @@ public class DotsAndBoxes extends Game {
             dimensions = inputHandler.getBoardDimensions();
         }
 
-        rows = dimensions[0];
-        columns = dimensions[1];
-
-        board = new Board(rows, columns);
-        
-        // Initialize the Tile array for the Board (using the Box constructor)
-        Tile[][] tiles = new Tile[rows][columns];
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < columns; c++) {
-                tiles[r][c] = new Tile(); 
-            }
-        }
-        board.setPieces(tiles);
-
-        // Initialize edge-specific arrays
-        hOwner = new int[rows + 1][columns]; 
-        vOwner = new int[rows][columns + 1];
-        initializeOwnerArrays(tiles); // Pass tiles for boxOwner initialization
-
-        labels = new char[]{initial(player1.getName()), initial(player2.getName())};
+        setUp(dimensions[0], dimensions[1]);
         setGameActive(true);
 
         String[] instructions = {
                 "\nInput format (1-indexed):",
                 "H r c   → horizontal edge at row r, col c   (r∈[1," + (rows + 1) + "], c∈[1," + columns + "])",
                 "V r c   → vertical edge   at row r, col c   (r∈[1," + rows + "], c∈[1," + (columns + 1) + "])",
+                "Type 'hint' for a suggested move.",
         };
 
         menu.displayMessages(instructions);
     }
 
-    /** Fill all owner arrays with -1 and initialize Tile.boxOwner. */
-    private void initializeOwnerArrays(Tile[][] tiles) {
-        for (int i = 0; i < rows + 1; i++) {
-            for (int j = 0; j < columns; j++) {
-                hOwner[i][j] = -1;
-            }
-        }
+    private void setUp(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
 
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < columns + 1; j++) {
-                vOwner[i][j] = -1;
-            }
-        }
+        board = new Board(rows, columns);
+        rules = new DotsAndBoxesRules(rows, columns);
+        state = rules.getState();
 
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < columns; j++) {
-                tiles[i][j].boxOwner = -1; // Initialize the Tile's boxOwner
-            }
+        labels = new String[]{String.valueOf(initial(player1.getName())), String.valueOf(initial(player2.getName()))};
+    }
+
+    /**
+     * Full snapshot of the game: a private copy of the position (claimed edges, box owners, scores and the
+     * side to move) that later moves never touch, so it can be kept, encoded or loaded any number of times.
+     */
+    @Override
+    public GameState saveState() {
+        DotsAndBoxesState snapshot = new DotsAndBoxesState(rows, columns);
+        snapshot.copyFrom(state);
+        GameState saved = new GameState();
+        saved.boardData = snapshot;
+        saved.currentTurn = state.getCurrent();
+        saved.player1Score = state.getScore(0);
+        saved.player2Score = state.getScore(1);
+        saved.gameActive = gameActive;
+        return saved;
+    }
+
+    /**
+     * Continues a game from {@link #saveState()} in place of {@link #initializeGame()}, on the saved board
+     * size and with the players' scores brought up to the saved ones.
+     */
+    @Override
+    public void loadState(GameState saved) {
+        if (saved.boardData instanceof DotsAndBoxesState position) {
+            setUp(position.getRows(), position.getColumns());
+            rules.load(position);
+            player1.addScore(state.getScore(0) - player1.getScore());
+            player2.addScore(state.getScore(1) - player2.getScore());
         }
+        this.gameActive = saved.gameActive;
     }
-    
-    /** Builds the DisplayInfo grid for the Board's printer. */
-    public Tile.DisplayInfo[][] getDisplayGrid() {
-        Tile.DisplayInfo[][] grid = new Tile.DisplayInfo[rows][columns];
-        Tile[][] tiles = board.getPieces(); 
 
+    /** Draws the claimed edges and the initial of each box's owner into the board's frame. */
+    public BoardFrame renderBoard() {
+        BoardFrame frame = board.getFrame();
         for (int r = 0; r < rows; r++) {
             for (int c = 0; c < columns; c++) {
-                // Start with the Tile's basic display info (center content)
-                Tile.DisplayInfo info = tiles[r][c].getDisplayInfo(labels);
-                
-                // Overlay the edge state from the game's external arrays
-                info.topEdge = hOwner[r][c] != -1;
-                info.bottomEdge = hOwner[r + 1][c] != -1;
-                info.leftEdge = vOwner[r][c] != -1;
-                info.rightEdge = vOwner[r][c + 1] != -1;
-                
-                grid[r][c] = info;
+                int box = r * columns + c;
+                int edges = 0;
+                if (state.isClaimed(state.boxEdge(box, DotsAndBoxesState.TOP))) edges |= BoardFrame.TOP;
+                if (state.isClaimed(state.boxEdge(box, DotsAndBoxesState.BOTTOM))) edges |= BoardFrame.BOTTOM;
+                if (state.isClaimed(state.boxEdge(box, DotsAndBoxesState.LEFT))) edges |= BoardFrame.LEFT;
+                if (state.isClaimed(state.boxEdge(box, DotsAndBoxesState.RIGHT))) edges |= BoardFrame.RIGHT;
+
+                // Center content is the initial of the player who closed the box
+                int owner = state.getOwner(box);
+                frame.setCell(r, c, edges, owner == DotsAndBoxesState.NO_OWNER ? " " : labels[owner]);
             }
         }
-        return grid;
+        return frame.render();
     }
-    
+
     /** Build a String[][] snapshot of the current board for printing/rendering it.*/
     public String[][] getBoardDisplay() {
-        return board.getBoardDisplay(getDisplayGrid());
+        return renderBoard().toLines();
     }
 
     public boolean isGameWon() {
-        Tile[][] tiles = board.getPieces();
-        for (int x = 0; x < rows; x++) {
-            for (int y = 0; y < columns; y++) {
-                if (tiles[x][y].boxOwner == -1) { // Check Tile's boxOwner
-                    return false;
-                }
-            }
-        }
-        return true;
+        return state.isGameOver();
     }
     
     /**
@@ -123,91 +119,15 @@ public class DotsAndBoxes extends Game {
      * it gives the point to the player who closes the square and also allows the user to keep track of the scores
      */
     public int makeMove() {
-        Player player = current == 0 ? player1 : player2;
-        String input = inputHandler.getMove(player, " to move. Edge (H r c | V r c | q): ");
-
-        if (input.equals("q")) {
-            return -1;
-        }
-
-        Move mv = parseOneIndexed(input, rows, columns);
-
-        if (mv == null) {
-            menu.displayMessage("Could not parse/out of range.");
-            return 1;
-        }
-
-        if (!canClaim(mv.orient, mv.r0, mv.c0)) {
-            menu.displayMessage("Illegal move (off board or already claimed).");
-            return 1;
-        }
-
-        int made = claim(mv.orient, mv.r0, mv.c0, current);
-
-        if (made > 0) {
-            if (current == 0) player1.addScore(made);
-            else player2.addScore(made);
-            menu.displayMessage(player.getName() + " closed " + made + " box" + (made == 1 ? "" : "es") + " and goes again!");
-        } else {
-            current = 1 - current;
-        }
-
-        displayScore();
-
-        return 1;
+        Player player = state.getCurrent() == 0 ? player1 : player2;
+        return makeMoveFromInput(inputHandler.getMove(player, " to move. Edge (H r c | V r c | q): "));
     }
     
-    /** Checks if the user can claim an edge , if it is in-range and still unclaimed. */
-    private boolean canClaim(char orient, int r, int c) {
-        orient = Character.toUpperCase(orient);
-        if (orient == 'H') {
-            if (r < 0 || r > rows || c < 0 || c >= columns) return false;
-            return hOwner[r][c] == -1;
-        } else if (orient == 'V') {
-            if (r < 0 || r >= rows || c < 0 || c > columns) return false;
-            return vOwner[r][c] == -1;
-        }
-        return false;
+    /** Zobrist hash of the claimed edges and the side to move. */
+    public long getHash() {
+        return state.getHash();
     }
 
-    /** Allows the user to claim an edge and try to close a box */
-    private int claim(char orient, int r, int c, int playerId) {
-        orient = Character.toUpperCase(orient);
-        int closed = 0;
-
-        if (orient == 'H') {
-            hOwner[r][c] = playerId;
-
-            if (r > 0) closed += tryCloseBox(r - 1, c, playerId);
-            if (r < rows) closed += tryCloseBox(r, c, playerId);
-
-        } else {
-            vOwner[r][c] = playerId;
-
-            if (c > 0) closed += tryCloseBox(r, c - 1, playerId);
-            if (c < columns) closed += tryCloseBox(r, c, playerId);
-        }
-        return closed;
-    }
-
-    private int tryCloseBox(int br, int bc, int playerId) {
-        Tile[][] tiles = board.getPieces();
-
-        if (br < 0 || br >= rows || bc < 0 || bc >= columns) return 0;
-        if (tiles[br][bc].boxOwner != -1) return 0; // Check Tile's boxOwner
-
-        boolean top = hOwner[br][bc] != -1;
-        boolean bottom = hOwner[br + 1][bc] != -1;
-        boolean left = vOwner[br][bc] != -1;
-        boolean right = vOwner[br][bc + 1] != -1;
-
-        if (top && bottom && left && right) {
-            tiles[br][bc].boxOwner = playerId; // SET Tile's boxOwner
-            return 1;
-        }
-        return 0;
-    }
-    
     /** Keeps track of the score for the users to know the score at each stage of their game */
     private void displayScore() {
         String[] messages = {
@@ -244,6 +164,26 @@ public class DotsAndBoxes extends Game {
         this.player2 = player2;
     }
 
+    @Override
+    public GameRules getRules() {
+        return rules;
+    }
+
+    @Override
+    public Player getCurrentPlayer() {
+        return state.getCurrent() == 0 ? player1 : player2;
+    }
+
+    @Override
+    public String suggestMove(long timeLimitMillis) {
+        if (solver == null) solver = new DotsAndBoxesSolver();
+        int edge = solver.chooseMove(state, timeLimitMillis);
+        if (edge < 0) return null;
+        menu.displayMessage("Found by " + solver.getMethod() + ": " + solver.getNodes() + " nodes in "
+                + solver.getElapsedMillis() + " ms");
+        return state.toCommand(edge);
+    }
+
     public boolean isActive(int flag) {
         return flag == 1;
     }
@@ -263,72 +203,39 @@ public class DotsAndBoxes extends Game {
         return '?';
     }
 
-    private static final class Move {
-        final char orient;
-        final int r0;
-        final int c0;
-
-        Move(char o, int r0, int c0) {
-            this.orient = o;
-            this.r0 = r0;
-            this.c0 = c0;
-        }
-    }
-    
-    /** Parse the user input to get the move the user is trying to play. */
-    private Move parseOneIndexed(String input, int rowsBoxes, int colsBoxes) {
-        String[] toks = input.trim().split("\\s+");
-        if (toks.length != 3) return null;
-        char o = Character.toUpperCase(toks[0].charAt(0));
-        try {
-            int r1 = Integer.parseInt(toks[1]);
-            int c1 = Integer.parseInt(toks[2]);
-
-            if (o == 'H') {
-                if (r1 < 1 || r1 > rowsBoxes + 1 || c1 < 1 || c1 > colsBoxes) return null;
-                return new Move('H', r1 - 1, c1 - 1);
-            } else if (o == 'V') {
-                if (r1 < 1 || r1 > rowsBoxes || c1 < 1 || c1 > colsBoxes + 1) return null;
-                return new Move('V', r1 - 1, c1 - 1);
-            }
-            return null;
-        } catch (Exception e) {
-            return null;
-        }
-    }
     @Override
     public int makeMoveFromInput(String command) {
         if (command.equalsIgnoreCase("p") || command.equalsIgnoreCase("pause")) {
             return 1; // Pause handled in engine
         }
 
-        Player player = current == 0 ? player1 : player2;
+        Player player = state.getCurrent() == 0 ? player1 : player2;
         String input = command.trim(); // use the already-entered input, not scanner
 
         if (input.equalsIgnoreCase("q")) {
             return -1;
         }
+        if (input.equalsIgnoreCase("hint")) {
+            String move = suggestMove(HINT_TIME_LIMIT_MS);
+            if (move != null) menu.displayMessage("Hint: " + move);
+            return 1;
+        }
 
-        Move mv = parseOneIndexed(input, rows, columns);
-
-        if (mv == null) {
+        int edge = rules.parseMove(input);
+        if (edge < 0) {
             menu.displayMessage("Could not parse/out of range.");
             return 1;
         }
-
-        if (!canClaim(mv.orient, mv.r0, mv.c0)) {
+        if (rules.apply(edge) != GameRules.OK) {
             menu.displayMessage("Illegal move (off board or already claimed).");
             return 1;
         }
 
-        int made = claim(mv.orient, mv.r0, mv.c0, current);
+        int made = rules.getLastClosed();
 
         if (made > 0) {
-            if (current == 0) player1.addScore(made);
-            else player2.addScore(made);
+            player.addScore(made);
             menu.displayMessage(player.getName() + " closed " + made + " box" + (made == 1 ? "" : "es") + " and goes again!");
-        } else {
-            current = 1 - current;
         }
 
         displayScore();
@@ -0,0 +1,19 @@
+/** {@link DotsAndBoxesSolver} with a fixed thinking time per move, as a {@link Bot}. */
+public class DotsAndBoxesBot implements Bot {
+    private final DotsAndBoxesSolver solver = new DotsAndBoxesSolver();
+    private final long timeLimitMillis;
+
+    public DotsAndBoxesBot(long timeLimitMillis) {
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    @Override
+    public String getName() {
+        return "solver-" + timeLimitMillis + "ms";
+    }
+
+    @Override
+    public int chooseMove(GameRules rules) {
+        return solver.chooseMove(((DotsAndBoxesRules) rules).getState(), timeLimitMillis);
+    }
+}
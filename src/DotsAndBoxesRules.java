@@ -0,0 +1,156 @@
+import java.util.regex.Pattern;
+
+/**
+ * Headless Dots and Boxes rules on top of {@link DotsAndBoxesState}. A move is an edge index as numbered
+ * by the state; closing a box scores it and the same player moves again.
+ *
+ * Error codes: {@link #INVALID_FORMAT}, {@link #OUT_OF_BOUNDS}, {@link #OCCUPIED} (edge already claimed)
+ * and {@link #GAME_OVER}.
+ */
+public class DotsAndBoxesRules implements GameRules {
+    // Compiled once; String.split would compile the pattern again for every move parsed
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final DotsAndBoxesState state;
+    // Each applied edge with the number of boxes it closed in the low two bits
+    private final int[] history;
+    private int moveCount;
+
+    public DotsAndBoxesRules(int rows, int columns) {
+        this.state = new DotsAndBoxesState(rows, columns);
+        this.history = new int[state.getEdgeCount()];
+    }
+
+    /** The position itself, for rendering and search; change it only through these rules. */
+    public DotsAndBoxesState getState() {
+        return state;
+    }
+
+    @Override
+    public void reset() {
+        state.reset();
+        moveCount = 0;
+    }
+
+    /**
+     * Continues from a copy of the given position (e.g. a saved game), which must have this board's size,
+     * with an empty undo history.
+     */
+    public void load(DotsAndBoxesState position) {
+        state.copyFrom(position);
+        moveCount = 0;
+    }
+
+    @Override
+    public int getPlayerCount() {
+        return 2;
+    }
+
+    @Override
+    public int getCurrentPlayer() {
+        return state.getCurrent();
+    }
+
+    @Override
+    public int getMaxMoves() {
+        return state.getEdgeCount();
+    }
+
+    @Override
+    public int generateMoves(int[] moves) {
+        int count = 0;
+        for (int edge = 0; edge < state.getEdgeCount(); edge++) {
+            if (!state.isClaimed(edge)) moves[count++] = edge;
+        }
+        return count;
+    }
+
+    @Override
+    public int validate(int move) {
+        if (state.isGameOver()) return GAME_OVER;
+        if (move < 0 || move >= state.getEdgeCount()) return OUT_OF_BOUNDS;
+        if (state.isClaimed(move)) return OCCUPIED;
+        return OK;
+    }
+
+    @Override
+    public int apply(int move) {
+        int result = validate(move);
+        if (result != OK) return result;
+        int closed = state.claim(move);
+        history[moveCount++] = (move << 2) | closed;
+        return OK;
+    }
+
+    @Override
+    public int undo() {
+        if (moveCount == 0) return NOTHING_TO_UNDO;
+        int entry = history[--moveCount];
+        state.unclaim(entry >>> 2, entry & 3);
+        return OK;
+    }
+
+    @Override
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /** Boxes closed by the last applied move (0 to 2), or 0 if nothing has been played. */
+    public int getLastClosed() {
+        return moveCount == 0 ? 0 : history[moveCount - 1] & 3;
+    }
+
+    @Override
+    public boolean isTerminal() {
+        return state.isGameOver();
+    }
+
+    /** Boxes the player has closed. */
+    @Override
+    public int getScore(int player) {
+        return state.getScore(player);
+    }
+
+    @Override
+    public int getWinner() {
+        if (!state.isGameOver() || state.getScore(0) == state.getScore(1)) return -1;
+        return state.getScore(0) > state.getScore(1) ? 0 : 1;
+    }
+
+    @Override
+    public long getHash() {
+        return state.getHash();
+    }
+
+    /** "H r c" is the horizontal edge above box row r (r up to rows + 1), "V r c" the vertical one, 1-indexed. */
+    @Override
+    public int parseMove(String text) {
+        String[] parts = WHITESPACE.split(text.trim());
+        if (parts.length != 3 || parts[0].isEmpty()) return INVALID_FORMAT;
+        char type = Character.toUpperCase(parts[0].charAt(0));
+        int r;
+        int c;
+        try {
+            r = Integer.parseInt(parts[1]) - 1;
+            c = Integer.parseInt(parts[2]) - 1;
+        } catch (NumberFormatException e) {
+            return INVALID_FORMAT;
+        }
+
+        int rows = state.getRows();
+        int columns = state.getColumns();
+        if (type == 'H') {
+            if (r < 0 || r > rows || c < 0 || c >= columns) return OUT_OF_BOUNDS;
+            return state.horizontalEdge(r, c);
+        } else if (type == 'V') {
+            if (r < 0 || r >= rows || c < 0 || c > columns) return OUT_OF_BOUNDS;
+            return state.verticalEdge(r, c);
+        }
+        return INVALID_FORMAT;
+    }
+
+    @Override
+    public String formatMove(int move) {
+        return state.toCommand(move);
+    }
+}
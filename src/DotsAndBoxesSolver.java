@@ -0,0 +1,610 @@
+import java.util.SplittableRandom;
+
+/**
+ * Move finder for Dots and Boxes built on the classic chain and loop theory.
+ *
+ * Once no safe move is left (every free edge would hand the opponent a box), the board falls apart into
+ * chains and loops of boxes with exactly two claimed sides. The net value of such a "loony" endgame for
+ * the player who has to open the next component follows from a recursion over the multiset of chain and
+ * loop lengths: the opponent either takes a whole opened component and moves on, or takes all but the
+ * last two boxes of a chain (four of a loop) and double-deals the rest to keep control. The recursion is
+ * memoized on a hash of the multiset, so sacrifices and double-dealing are chosen in polynomial time.
+ *
+ * Small boards are played perfectly from a {@link DotsAndBoxesTablebase} when one is available.
+ * Full alpha-beta search is only used for small residual positions (few free edges), and to play out the
+ * last few safe moves, where the leaves are scored by the chain recursion. Both searches key their
+ * transposition tables on the canonical hash, so mirror images and rotations share entries.
+ * Positions where chains meet at junction boxes are scored by treating each junction as a chain end,
+ * which is an approximation; they are solved exactly once they are small enough for the full search.
+ */
+public class DotsAndBoxesSolver {
+    private static final int MAX_LENGTH = DotsAndBoxesState.MAX_SIZE * DotsAndBoxesState.MAX_SIZE;
+    private static final int EXACT_EDGES = 16;
+    private static final int SAFE_SEARCH_MOVES = 12;
+    private static final long SAFE_SEARCH_NODES = 2_000;
+    private static final int TABLE_BITS = 18;
+    private static final int MEMO_BITS = 18;
+    private static final int INFINITY = 1_000_000;
+
+    // Order-independent keys for a multiset of components: the sum of one key per chain or loop
+    private static final long[] CHAIN_KEYS = Zobrist.keys(MAX_LENGTH + 1, 0xC4A1L);
+    private static final long[] LOOP_KEYS = Zobrist.keys(MAX_LENGTH + 1, 0x1009L);
+
+    private DotsAndBoxesState state;
+    private DotsAndBoxesState scratch;
+    private DotsAndBoxesTablebase tablebase;
+    private final TranspositionTable exactTable = new TranspositionTable(TABLE_BITS);
+    private final TranspositionTable safeTable = new TranspositionTable(TABLE_BITS);
+    // Endgame values by multiset key, open addressing without boxing; 0 marks an empty slot
+    private final long[] memoKeys = new long[1 << MEMO_BITS];
+    private final int[] memoValues = new int[1 << MEMO_BITS];
+    private int memoSize;
+    private final SplittableRandom random = new SplittableRandom();
+
+    // Decomposition of the last position passed to decompose()
+    private final int[] chainCounts = new int[MAX_LENGTH + 1];
+    private final int[] loopCounts = new int[MAX_LENGTH + 1];
+    private final int[] chainOpening = new int[MAX_LENGTH + 1];
+    private final int[] loopOpening = new int[MAX_LENGTH + 1];
+    private long componentKey;
+    private int longest;
+    private int[] marks;
+    private int epoch;
+
+    private int[][] moves;
+    private final int[] free = new int[EXACT_EDGES];
+    private int freeCount;
+    private long deadline;
+    private long nodeLimit;
+    private boolean aborted;
+    private long nodes;
+    private long elapsedNanos;
+    private String method;
+
+    /**
+     * Picks a move for the side to move within the time limit (normally only a few milliseconds are used).
+     * Returns the edge to claim, or -1 if the game is over.
+     */
+    public int chooseMove(DotsAndBoxesState position, long timeLimitMillis) {
+        prepare(position);
+        long start = System.nanoTime();
+        deadline = start + timeLimitMillis * 1_000_000L;
+        aborted = false;
+        nodes = 0;
+        exactTable.newSearch();
+        safeTable.newSearch();
+        if (memoSize > memoKeys.length / 2) {
+            java.util.Arrays.fill(memoKeys, 0L);
+            memoSize = 0;
+        }
+
+        int move = pick();
+        elapsedNanos = System.nanoTime() - start;
+        return move;
+    }
+
+    private void prepare(DotsAndBoxesState position) {
+        if (state == null || state.getRows() != position.getRows() || state.getColumns() != position.getColumns()) {
+            state = new DotsAndBoxesState(position.getRows(), position.getColumns());
+            scratch = new DotsAndBoxesState(position.getRows(), position.getColumns());
+            marks = new int[state.getBoxCount()];
+            tablebase = DotsAndBoxesTablebase.forBoard(position.getRows(), position.getColumns());
+            moves = new int[Math.max(EXACT_EDGES, SAFE_SEARCH_MOVES) + 1][state.getEdgeCount()];
+            exactTable.clear();
+            safeTable.clear();
+        }
+        state.copyFrom(position);
+    }
+
+    private int pick() {
+        if (state.isGameOver()) return -1;
+
+        if (tablebase != null) {
+            method = "tablebase";
+            return tablebase.bestMove(state);
+        }
+
+        if (state.getEdgeCount() - state.getClaimedEdges() <= EXACT_EDGES) {
+            method = "full search";
+            int move = exactRoot();
+            if (!aborted) return move;
+            aborted = false;
+        }
+
+        int capture = captureMove();
+        if (capture >= 0) {
+            method = "captures";
+            return capture;
+        }
+        if (hasSafeMove(state)) {
+            return safeMove();
+        }
+        method = "chain analysis";
+        return openingMove();
+    }
+
+    // ---- Captures and double-dealing ----
+
+    /**
+     * Returns a capturing move or a double-dealing move, or -1 if nothing can be captured. Boxes whose
+     * capture involves no decision are taken first; the choice between taking the last two boxes of a
+     * chain (four of a loop) and declining them is made on the last such segment, by comparing the value
+     * of moving next in the remaining endgame with handing that move to the opponent.
+     */
+    private int captureMove() {
+        int segments = 0;
+        int segmentBox = -1;
+        int segmentEdge = -1;
+        int segmentHandout = 0;
+        for (int box = 0; box < state.getBoxCount(); box++) {
+            if (state.getSides(box) != 3) continue;
+            int[] segment = decisionSegment(box);
+            if (segment == null) return freeEdge(state, box);
+            if (segment[0] != segmentEdge) {
+                segments++;
+                segmentBox = box;
+                segmentEdge = segment[0];
+                segmentHandout = segment[1];
+            }
+        }
+        if (segments == 0) return -1;
+        int take = freeEdge(state, segmentBox);
+        if (segments > 1) return take;
+
+        // Take everything on a scratch board to see what is left afterwards
+        scratch.copyFrom(state);
+        int taken = 0;
+        for (boolean found = true; found; ) {
+            found = false;
+            for (int box = 0; box < scratch.getBoxCount(); box++) {
+                if (scratch.getSides(box) == 3) {
+                    taken += scratch.claim(freeEdge(scratch, box));
+                    found = true;
+                }
+            }
+        }
+        if (scratch.isGameOver() || hasSafeMove(scratch)) return take;
+
+        decompose(scratch);
+        int rest = value(componentKey);
+        int takeAll = taken + rest;
+        int decline = taken - 2 * segmentHandout - rest;
+        return decline > takeAll ? segmentEdge : take;
+    }
+
+    /**
+     * For a box with three sides, recognises the end of a chain (this box and one more, then the border or
+     * a box that stays open) or the last four boxes of an opened loop (both ends capturable).
+     * Returns {double-dealing edge, boxes handed out}, or null if taking the box involves no decision.
+     */
+    private int[] decisionSegment(int box) {
+        int edge = freeEdge(state, box);
+        int second = across(state, box, edge);
+        if (second < 0 || state.getSides(second) != 2) return null;
+        int secondEdge = otherFreeEdge(state, second, edge);
+        int third = across(state, second, secondEdge);
+        if (third < 0 || state.getSides(third) < 2) return new int[]{secondEdge, 2};
+        if (state.getSides(third) != 2) return null;
+        int thirdEdge = otherFreeEdge(state, third, secondEdge);
+        int fourth = across(state, third, thirdEdge);
+        if (fourth >= 0 && state.getSides(fourth) == 3 && freeEdge(state, fourth) == thirdEdge) {
+            return new int[]{secondEdge, 4};
+        }
+        return null;
+    }
+
+    // ---- Safe moves ----
+
+    private boolean isSafe(DotsAndBoxesState s, int edge) {
+        for (int slot = 0; slot < 2; slot++) {
+            int box = s.edgeBox(edge, slot);
+            if (box >= 0 && s.getSides(box) >= 2) return false;
+        }
+        return true;
+    }
+
+    private boolean hasSafeMove(DotsAndBoxesState s) {
+        for (int edge = 0; edge < s.getEdgeCount(); edge++) {
+            if (!s.isClaimed(edge) && isSafe(s, edge)) return true;
+        }
+        return false;
+    }
+
+    private int collectSafe(int[] list) {
+        int count = 0;
+        for (int edge = 0; edge < state.getEdgeCount(); edge++) {
+            if (!state.isClaimed(edge) && isSafe(state, edge)) list[count++] = edge;
+        }
+        return count;
+    }
+
+    // Claiming edges never makes another edge safe, so each ply only filters its parent's list
+    private int filterSafe(int[] parent, int parentCount, int[] list) {
+        int count = 0;
+        for (int i = 0; i < parentCount; i++) {
+            int edge = parent[i];
+            if (!state.isClaimed(edge) && isSafe(state, edge)) list[count++] = edge;
+        }
+        return count;
+    }
+
+    /**
+     * With few safe moves left, searches them all (scoring the resulting endgames by chain analysis) to
+     * decide who has to open the first chain, within a small node budget. Otherwise keeps the board open:
+     * a random safe edge among those touching the fewest claimed sides.
+     */
+    private int safeMove() {
+        int[] list = moves[0];
+        int count = collectSafe(list);
+        if (count <= SAFE_SEARCH_MOVES) {
+            method = "safe move search";
+            nodeLimit = nodes + SAFE_SEARCH_NODES;
+            int best = -1;
+            int alpha = -INFINITY;
+            for (int i = 0; i < count; i++) {
+                state.claim(list[i]);
+                int score = -safeSearch(1, count, -INFINITY, -alpha);
+                state.unclaim(list[i], 0);
+                if (aborted) break;
+                if (score > alpha) {
+                    alpha = score;
+                    best = list[i];
+                }
+            }
+            if (!aborted && best >= 0) return best;
+            aborted = false;
+        }
+
+        method = "safe move";
+        int fewest = Integer.MAX_VALUE;
+        int choices = 0;
+        int choice = list[0];
+        for (int i = 0; i < count; i++) {
+            int sides = 0;
+            for (int slot = 0; slot < 2; slot++) {
+                int box = state.edgeBox(list[i], slot);
+                if (box >= 0) sides += state.getSides(box);
+            }
+            if (sides < fewest) {
+                fewest = sides;
+                choices = 0;
+            }
+            if (sides == fewest && random.nextInt(++choices) == 0) choice = list[i];
+        }
+        return choice;
+    }
+
+    /** Value for the side to move when both players only play safe moves until none are left. */
+    private int safeSearch(int ply, int parentCount, int alpha, int beta) {
+        if (++nodes > nodeLimit || ((nodes & 1023) == 0 && System.nanoTime() > deadline)) aborted = true;
+        if (aborted) return 0;
+
+        int[] list = moves[ply];
+        int count = filterSafe(moves[ply - 1], parentCount, list);
+        if (count == 0) {
+            decompose(state);
+            return value(componentKey);
+        }
+
+        long key = state.getCanonicalHash();
+        long entry = safeTable.probe(key);
+        if (entry != TranspositionTable.MISS) {
+            int score = TranspositionTable.score(entry);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT
+                    || (bound == TranspositionTable.LOWER && score >= beta)
+                    || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                return score;
+            }
+        }
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = -1;
+        for (int i = 0; i < count; i++) {
+            int edge = list[i];
+            state.claim(edge);
+            int score = -safeSearch(ply + 1, count, -beta, -alpha);
+            state.unclaim(edge, 0);
+            if (aborted) return 0;
+            if (score > best) {
+                best = score;
+                bestMove = edge;
+                if (score > alpha) alpha = score;
+                if (alpha >= beta) break;
+            }
+        }
+        safeTable.store(key, best, -1, count, boundOf(best, originalAlpha, beta));
+        return best;
+    }
+
+    // ---- Loony endgame ----
+
+    /** No safe move and nothing to capture: opens the component that costs the least (same candidates as value). */
+    private int openingMove() {
+        decompose(state);
+        int best = -INFINITY;
+        int move = -1;
+        boolean longChainSeen = false;
+        boolean loopSeen = false;
+        for (int length = 1; length <= longest; length++) {
+            if (chainCounts[length] > 0 && !longChainSeen) {
+                longChainSeen = length >= 3;
+                chainCounts[length]--;
+                int score = openedChain(length, value(componentKey - CHAIN_KEYS[length]));
+                chainCounts[length]++;
+                if (score > best) {
+                    best = score;
+                    move = chainOpening[length];
+                }
+            }
+            if (loopCounts[length] > 0 && !loopSeen) {
+                loopSeen = true;
+                loopCounts[length]--;
+                int score = openedLoop(length, value(componentKey - LOOP_KEYS[length]));
+                loopCounts[length]++;
+                if (score > best) {
+                    best = score;
+                    move = loopOpening[length];
+                }
+            }
+        }
+        if (move >= 0) return move;
+        for (int edge = 0; edge < state.getEdgeCount(); edge++) {
+            if (!state.isClaimed(edge)) return edge;
+        }
+        return -1;
+    }
+
+    /**
+     * Splits the position into chains and loops of two-sided boxes, filling the counts, the opening edge
+     * for each kind and length, and the multiset key. Chains are opened at an end, except that two-box
+     * chains are opened in the middle so the opponent cannot double-deal them.
+     */
+    private void decompose(DotsAndBoxesState s) {
+        java.util.Arrays.fill(chainCounts, 0, longest + 1, 0);
+        java.util.Arrays.fill(loopCounts, 0, longest + 1, 0);
+        componentKey = 0L;
+        longest = 0;
+        epoch++;
+
+        for (int box = 0; box < s.getBoxCount(); box++) {
+            if (s.getSides(box) != 2 || marks[box] == epoch) continue;
+            marks[box] = epoch;
+
+            int first = freeEdge(s, box);
+            int second = otherFreeEdge(s, box, first);
+            int length = 1;
+            int inner = -1;
+            int end = -1;
+            boolean loop = false;
+
+            for (int direction = 0; direction < 2 && !loop; direction++) {
+                int from = box;
+                int edge = direction == 0 ? first : second;
+                while (true) {
+                    int next = across(s, from, edge);
+                    if (next == box) {
+                        loop = true;
+                        break;
+                    }
+                    if (next < 0 || s.getSides(next) != 2) {
+                        if (end < 0) end = edge;
+                        break;
+                    }
+                    if (inner < 0) inner = edge;
+                    marks[next] = epoch;
+                    length++;
+                    edge = otherFreeEdge(s, next, edge);
+                    from = next;
+                }
+            }
+
+            if (length > longest) longest = length;
+            if (loop) {
+                loopCounts[length]++;
+                loopOpening[length] = first;
+                componentKey += LOOP_KEYS[length];
+            } else {
+                chainCounts[length]++;
+                chainOpening[length] = length == 2 ? inner : end;
+                componentKey += CHAIN_KEYS[length];
+            }
+        }
+    }
+
+    /**
+     * Net score for the player who must open a component of the current multiset (keyed by key).
+     * Only a chain of one or two boxes, the shortest longer chain and the shortest loop need to be tried:
+     * opening a longer chain or loop than the shortest of its kind is never better. That keeps the number
+     * of sub-multisets visited polynomial in the number of components.
+     */
+    private int value(long key) {
+        if (key == 0L) return 0;
+        int mask = memoKeys.length - 1;
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        while (memoKeys[slot] != 0L) {
+            if (memoKeys[slot] == key) return memoValues[slot];
+            slot = (slot + 1) & mask;
+        }
+
+        int best = -INFINITY;
+        boolean longChainSeen = false;
+        boolean loopSeen = false;
+        for (int length = 1; length <= longest; length++) {
+            if (chainCounts[length] > 0 && !longChainSeen) {
+                longChainSeen = length >= 3;
+                chainCounts[length]--;
+                best = Math.max(best, openedChain(length, value(key - CHAIN_KEYS[length])));
+                chainCounts[length]++;
+            }
+            if (loopCounts[length] > 0 && !loopSeen) {
+                loopSeen = true;
+                loopCounts[length]--;
+                best = Math.max(best, openedLoop(length, value(key - LOOP_KEYS[length])));
+                loopCounts[length]++;
+            }
+        }
+        // The recursion may have filled slots on the way; find a free one again
+        if (memoSize < mask) {
+            slot = (int) (key ^ (key >>> 32)) & mask;
+            while (memoKeys[slot] != 0L) slot = (slot + 1) & mask;
+            memoKeys[slot] = key;
+            memoValues[slot] = best;
+            memoSize++;
+        }
+        return best;
+    }
+
+    // The opponent takes everything and moves on, or (chains of 3+) declines the last two boxes
+    private static int openedChain(int length, int rest) {
+        if (length <= 2) return -(length + rest);
+        return Math.min(-(length + rest), 4 - length + rest);
+    }
+
+    // The opponent takes everything and moves on, or declines the last four boxes
+    private static int openedLoop(int length, int rest) {
+        return Math.min(-(length + rest), 8 - length + rest);
+    }
+
+    // ---- Full search on small positions ----
+
+    private int exactRoot() {
+        freeCount = 0;
+        for (int edge = 0; edge < state.getEdgeCount(); edge++) {
+            if (!state.isClaimed(edge)) free[freeCount++] = edge;
+        }
+        int[] list = moves[0];
+        int count = orderedMoves(list);
+        int alpha = -INFINITY;
+        int best = count > 0 ? list[0] : -1;
+        for (int i = 0; i < count; i++) {
+            int edge = list[i];
+            int closed = state.claim(edge);
+            int score = closed > 0 ? closed + exactSearch(1, alpha - closed, INFINITY)
+                    : -exactSearch(1, -INFINITY, -alpha);
+            state.unclaim(edge, closed);
+            if (aborted) break;
+            if (score > alpha) {
+                alpha = score;
+                best = edge;
+            }
+        }
+        return best;
+    }
+
+    /** Exact net score of the rest of the game for the side to move. */
+    private int exactSearch(int ply, int alpha, int beta) {
+        if (state.isGameOver()) return 0;
+        if ((++nodes & 1023) == 0 && System.nanoTime() > deadline) aborted = true;
+        if (aborted) return 0;
+
+        // Mirror images share one entry; its move is stored as it is on the canonical board
+        int transform = state.getCanonicalTransform();
+        long key = state.getCanonicalHash();
+        long entry = exactTable.probe(key);
+        int tableMove = -1;
+        if (entry != TranspositionTable.MISS) {
+            int stored = TranspositionTable.move(entry);
+            if (stored >= 0) tableMove = state.getSymmetry().map(stored, DotsAndBoxesSymmetry.inverse(transform));
+            int score = TranspositionTable.score(entry);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT
+                    || (bound == TranspositionTable.LOWER && score >= beta)
+                    || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                return score;
+            }
+        }
+
+        int[] list = moves[ply];
+        int count = orderedMoves(list);
+        if (tableMove >= 0) {
+            for (int i = 1; i < count; i++) {
+                if (list[i] == tableMove) {
+                    list[i] = list[0];
+                    list[0] = tableMove;
+                    break;
+                }
+            }
+        }
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = -1;
+        for (int i = 0; i < count; i++) {
+            int edge = list[i];
+            int closed = state.claim(edge);
+            int score = closed > 0 ? closed + exactSearch(ply + 1, alpha - closed, beta - closed)
+                    : -exactSearch(ply + 1, -beta, -alpha);
+            state.unclaim(edge, closed);
+            if (aborted) return 0;
+            if (score > best) {
+                best = score;
+                bestMove = edge;
+                if (score > alpha) alpha = score;
+                if (alpha >= beta) break;
+            }
+        }
+        exactTable.store(key, best, state.getSymmetry().map(bestMove, transform), count, boundOf(best, originalAlpha, beta));
+        return best;
+    }
+
+    /** Free edges (of those free at the root) ordered captures first, then safe edges, then the rest. */
+    private int orderedMoves(int[] list) {
+        int count = 0;
+        for (int pass = 0; pass < 3; pass++) {
+            for (int i = 0; i < freeCount; i++) {
+                int edge = free[i];
+                if (state.isClaimed(edge)) continue;
+                int category = capturesBox(edge) ? 0 : isSafe(state, edge) ? 1 : 2;
+                if (category == pass) list[count++] = edge;
+            }
+        }
+        return count;
+    }
+
+    private boolean capturesBox(int edge) {
+        for (int slot = 0; slot < 2; slot++) {
+            int box = state.edgeBox(edge, slot);
+            if (box >= 0 && state.getSides(box) == 3) return true;
+        }
+        return false;
+    }
+
+    private static int boundOf(int best, int alpha, int beta) {
+        return best <= alpha ? TranspositionTable.UPPER
+                : best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+    }
+
+    // ---- Board helpers ----
+
+    private static int across(DotsAndBoxesState s, int box, int edge) {
+        int first = s.edgeBox(edge, 0);
+        return first == box ? s.edgeBox(edge, 1) : first;
+    }
+
+    private static int freeEdge(DotsAndBoxesState s, int box) {
+        return otherFreeEdge(s, box, -1);
+    }
+
+    private static int otherFreeEdge(DotsAndBoxesState s, int box, int excluded) {
+        for (int side = 0; side < 4; side++) {
+            int edge = s.boxEdge(box, side);
+            if (edge != excluded && !s.isClaimed(edge)) return edge;
+        }
+        return -1;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedNanos / 1_000_000L;
+    }
+
+    /** How the last move was found, e.g. "chain analysis" or "full search". */
+    public String getMethod() {
+        return method;
+    }
+}
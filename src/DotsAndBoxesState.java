@@ -0,0 +1,320 @@
+/**
+ * Compact Dots and Boxes position.
+ * Edges are numbered horizontal edges first (row by row, r * columns + c), then vertical edges
+ * ((rows + 1) * columns + r * (columns + 1) + c), and the claimed ones are bits of a long[] bitset.
+ * Each box's four edges and each edge's (up to) two boxes are precomputed, and every box keeps a count
+ * of its claimed sides, so claiming an edge is a few array and bit operations, and the number of closed
+ * boxes is a running count that makes the game-over check O(1).
+ * Alongside the Zobrist hash, the hash of every mirror image and rotation of the position is kept up to
+ * date, so the canonical hash shared by all of them ({@link #getCanonicalHash()}) costs a few comparisons.
+ */
+public class DotsAndBoxesState {
+    public static final int MAX_SIZE = 10;
+    public static final int MAX_EDGES = 2 * (MAX_SIZE + 1) * MAX_SIZE;
+    public static final int NO_OWNER = -1;
+
+    // Box sides in the order they are listed for each box
+    public static final int TOP = 0, BOTTOM = 1, LEFT = 2, RIGHT = 3;
+
+    // Zobrist keys for every edge of the largest allowed board, plus the side to move
+    private static final long[] EDGE_KEYS = Zobrist.keys(MAX_EDGES, 0xED6E5L);
+    private static final long SIDE_KEY = Zobrist.keys(1, 0x51DEL)[0];
+
+    private final int rows;
+    private final int columns;
+    private final int boxCount;
+    private final int edgeCount;
+    private final int[] boxEdges;  // 4 edges per box
+    private final int[] edgeBoxes;  // 2 boxes per edge, -1 past the border
+    private final DotsAndBoxesSymmetry symmetry;
+
+    private final long[] edges;
+    private final byte[] sides;
+    private final byte[] owner;
+    private final int[] scores = new int[2];
+    private int claimedEdges;
+    private int claimedBoxes;
+    private int current;
+    private final long[] hashes;  // Zobrist hash of the position's image under each symmetry; 0 is the identity
+
+    public DotsAndBoxesState(int rows, int columns) {
+        if (rows <= 0 || columns <= 0 || rows > MAX_SIZE || columns > MAX_SIZE) {
+            throw new IllegalArgumentException("Rows and columns must be between 1 and " + MAX_SIZE + ".");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.boxCount = rows * columns;
+        this.edgeCount = (rows + 1) * columns + rows * (columns + 1);
+        this.boxEdges = new int[boxCount * 4];
+        this.edgeBoxes = new int[edgeCount * 2];
+        this.edges = new long[(edgeCount + 63) >>> 6];
+        this.sides = new byte[boxCount];
+        this.owner = new byte[boxCount];
+        this.symmetry = DotsAndBoxesSymmetry.forBoard(rows, columns);
+        this.hashes = new long[symmetry.getTransformCount()];
+
+        java.util.Arrays.fill(edgeBoxes, -1);
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                int box = r * columns + c;
+                link(box, TOP, horizontalEdge(r, c), 1);
+                link(box, BOTTOM, horizontalEdge(r + 1, c), 0);
+                link(box, LEFT, verticalEdge(r, c), 1);
+                link(box, RIGHT, verticalEdge(r, c + 1), 0);
+            }
+        }
+        reset();
+    }
+
+    // An edge's first box is above or left of it, its second box below or right of it
+    private void link(int box, int side, int edge, int slot) {
+        boxEdges[box * 4 + side] = edge;
+        edgeBoxes[edge * 2 + slot] = box;
+    }
+
+    /** Empty board, first player to move. */
+    public void reset() {
+        java.util.Arrays.fill(edges, 0L);
+        java.util.Arrays.fill(sides, (byte) 0);
+        java.util.Arrays.fill(owner, (byte) NO_OWNER);
+        scores[0] = 0;
+        scores[1] = 0;
+        claimedEdges = 0;
+        claimedBoxes = 0;
+        current = 0;
+        java.util.Arrays.fill(hashes, 0L);
+    }
+
+    /** Copies another position of the same size into this one. */
+    public void copyFrom(DotsAndBoxesState other) {
+        if (other.rows != rows || other.columns != columns) {
+            throw new IllegalArgumentException("Board sizes differ.");
+        }
+        System.arraycopy(other.edges, 0, edges, 0, edges.length);
+        System.arraycopy(other.sides, 0, sides, 0, boxCount);
+        System.arraycopy(other.owner, 0, owner, 0, boxCount);
+        scores[0] = other.scores[0];
+        scores[1] = other.scores[1];
+        claimedEdges = other.claimedEdges;
+        claimedBoxes = other.claimedBoxes;
+        current = other.current;
+        System.arraycopy(other.hashes, 0, hashes, 0, hashes.length);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getBoxCount() {
+        return boxCount;
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    public int horizontalEdge(int r, int c) {
+        return r * columns + c;
+    }
+
+    public int verticalEdge(int r, int c) {
+        return (rows + 1) * columns + r * (columns + 1) + c;
+    }
+
+    public boolean isHorizontal(int edge) {
+        return edge < (rows + 1) * columns;
+    }
+
+    /** Row of the edge, 0-indexed as in {@link #horizontalEdge} and {@link #verticalEdge}. */
+    public int edgeRow(int edge) {
+        if (isHorizontal(edge)) return edge / columns;
+        return (edge - (rows + 1) * columns) / (columns + 1);
+    }
+
+    public int edgeColumn(int edge) {
+        if (isHorizontal(edge)) return edge % columns;
+        return (edge - (rows + 1) * columns) % (columns + 1);
+    }
+
+    /** Edge on the given side of a box. */
+    public int boxEdge(int box, int side) {
+        return boxEdges[box * 4 + side];
+    }
+
+    /** The box above/left of an edge (slot 0) or below/right of it (slot 1), or -1 past the border. */
+    public int edgeBox(int edge, int slot) {
+        return edgeBoxes[edge * 2 + slot];
+    }
+
+    /** One 64-edge word of the claimed-edge bitset; word 0 holds the whole board when it has at most 64 edges. */
+    public long getEdgeWord(int index) {
+        return edges[index];
+    }
+
+    public boolean isClaimed(int edge) {
+        return (edges[edge >>> 6] & (1L << edge)) != 0;
+    }
+
+    /** True if the edge exists and has not been claimed yet. */
+    public boolean canClaim(int edge) {
+        return edge >= 0 && edge < edgeCount && !isClaimed(edge);
+    }
+
+    /** Number of claimed sides of a box, 0 to 4. */
+    public int getSides(int box) {
+        return sides[box];
+    }
+
+    /** Player who closed the box, or {@link #NO_OWNER}. */
+    public int getOwner(int box) {
+        return owner[box];
+    }
+
+    public int getScore(int player) {
+        return scores[player];
+    }
+
+    public int getCurrent() {
+        return current;
+    }
+
+    public int getClaimedEdges() {
+        return claimedEdges;
+    }
+
+    public int getClaimedBoxes() {
+        return claimedBoxes;
+    }
+
+    public boolean isGameOver() {
+        return claimedBoxes == boxCount;
+    }
+
+    /** Zobrist hash of the claimed edges and the side to move. */
+    public long getHash() {
+        return hashes[0];
+    }
+
+    /** Hash shared by the position and all of its mirror images and rotations: the smallest image hash. */
+    public long getCanonicalHash() {
+        return hashes[getCanonicalTransform()];
+    }
+
+    /**
+     * Symmetry that takes this position to its canonical image. Moves stored under the canonical hash are
+     * mapped to the canonical board with {@link DotsAndBoxesSymmetry#map(int, int)} and back with the inverse.
+     */
+    public int getCanonicalTransform() {
+        int best = 0;
+        for (int t = 1; t < hashes.length; t++) {
+            if (hashes[t] < hashes[best]) best = t;
+        }
+        return best;
+    }
+
+    public DotsAndBoxesSymmetry getSymmetry() {
+        return symmetry;
+    }
+
+    /**
+     * Claims an unclaimed edge for the player to move and returns the number of boxes it closed (0 to 2).
+     * The turn passes to the other player only if no box was closed.
+     */
+    public int claim(int edge) {
+        edges[edge >>> 6] |= 1L << edge;
+        claimedEdges++;
+        toggleHashes(edge);
+
+        int closed = 0;
+        for (int slot = 0; slot < 2; slot++) {
+            int box = edgeBoxes[edge * 2 + slot];
+            if (box >= 0 && ++sides[box] == 4) {
+                owner[box] = (byte) current;
+                closed++;
+            }
+        }
+        if (closed == 0) {
+            current ^= 1;
+            toggleSide();
+        } else {
+            claimedBoxes += closed;
+            scores[current] += closed;
+        }
+        return closed;
+    }
+
+    /** Undoes {@link #claim(int)}, given the number of boxes it closed. */
+    public void unclaim(int edge, int closed) {
+        if (closed == 0) {
+            current ^= 1;
+            toggleSide();
+        } else {
+            claimedBoxes -= closed;
+            scores[current] -= closed;
+        }
+        for (int slot = 0; slot < 2; slot++) {
+            int box = edgeBoxes[edge * 2 + slot];
+            if (box >= 0 && sides[box]-- == 4) {
+                owner[box] = (byte) NO_OWNER;
+            }
+        }
+        edges[edge >>> 6] &= ~(1L << edge);
+        claimedEdges--;
+        toggleHashes(edge);
+    }
+
+    /**
+     * Decoding support for {@link GameStateCodec}: marks the claimed edges of one 64-edge word of a freshly
+     * {@link #reset()} board without scoring anything. Owners and the side to move are restored afterwards.
+     */
+    void restoreEdgeWord(int index, long word) {
+        for (long bits = word; bits != 0; bits &= bits - 1) {
+            int edge = (index << 6) + Long.numberOfTrailingZeros(bits);
+            if (edge >= edgeCount) throw new IllegalArgumentException("Edge " + edge + " is off the board.");
+            edges[index] |= 1L << edge;
+            claimedEdges++;
+            toggleHashes(edge);
+            for (int slot = 0; slot < 2; slot++) {
+                int box = edgeBoxes[edge * 2 + slot];
+                if (box >= 0) sides[box]++;
+            }
+        }
+    }
+
+    /** Gives a box whose four sides are restored to the player who closed it. */
+    void restoreOwner(int box, int player) {
+        if (sides[box] != 4 || owner[box] != NO_OWNER) return;
+        owner[box] = (byte) player;
+        claimedBoxes++;
+        scores[player]++;
+    }
+
+    void restoreCurrent(int player) {
+        if (player != current) {
+            current = player;
+            toggleSide();
+        }
+    }
+
+    private void toggleHashes(int edge) {
+        for (int t = 0; t < hashes.length; t++) {
+            hashes[t] ^= EDGE_KEYS[symmetry.map(edge, t)];
+        }
+    }
+
+    // The side to move is the same in every image
+    private void toggleSide() {
+        for (int t = 0; t < hashes.length; t++) {
+            hashes[t] ^= SIDE_KEY;
+        }
+    }
+
+    /** Move in the game's input syntax, e.g. "H 1 2" (1-indexed). */
+    public String toCommand(int edge) {
+        return (isHorizontal(edge) ? "H " : "V ") + (edgeRow(edge) + 1) + " " + (edgeColumn(edge) + 1);
+    }
+}
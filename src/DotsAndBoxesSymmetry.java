@@ -0,0 +1,141 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Symmetries of a Dots and Boxes board as permutations of its edges: the four mirror images and
+ * half-turn of a rectangle, plus the quarter turns and diagonal reflections of a square board.
+ * Edge sets (bitsets numbered as in {@link DotsAndBoxesState}) of boards whose edges fit in one long are
+ * transformed through one lookup table per byte, so an image costs one table read and OR per byte instead
+ * of a branch per edge. Larger boards only get the edge permutations, which {@link DotsAndBoxesState}
+ * uses to keep a Zobrist hash of every image up to date.
+ *
+ * The canonical form of a position is its smallest image; searches and tables key on it and map moves
+ * back to the real board with {@link #map(int, int)} and {@link #inverse(int)}.
+ */
+public class DotsAndBoxesSymmetry {
+    // Inverse of each transform: only the two quarter turns (5 and 6) are not their own inverse
+    private static final int[] INVERSE = {0, 1, 2, 3, 4, 6, 5, 7};
+
+    private static final Map<String, DotsAndBoxesSymmetry> CACHE = new ConcurrentHashMap<>();
+
+    private final int rows;
+    private final int columns;
+    private final int edgeCount;
+    private final int transformCount;
+    private final int[][] permutation;
+    private final long[][] byteImages;
+
+    public DotsAndBoxesSymmetry(int rows, int columns) {
+        if (rows <= 0 || columns <= 0 || rows > DotsAndBoxesState.MAX_SIZE || columns > DotsAndBoxesState.MAX_SIZE) {
+            throw new IllegalArgumentException("Rows and columns must be between 1 and " + DotsAndBoxesState.MAX_SIZE + ".");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        int horizontal = (rows + 1) * columns;
+        this.edgeCount = horizontal + rows * (columns + 1);
+        this.transformCount = rows == columns ? 8 : 4;
+        this.permutation = new int[transformCount][edgeCount];
+
+        // Edges as midpoints on a doubled grid: horizontal edges sit at (even, odd), vertical at (odd, even)
+        int height = 2 * rows;
+        int width = 2 * columns;
+        for (int t = 0; t < transformCount; t++) {
+            for (int edge = 0; edge < edgeCount; edge++) {
+                int x = edge < horizontal ? 2 * (edge / columns) : 2 * ((edge - horizontal) / (columns + 1)) + 1;
+                int y = edge < horizontal ? 2 * (edge % columns) + 1 : 2 * ((edge - horizontal) % (columns + 1));
+                int tx;
+                int ty;
+                switch (t) {
+                    case 0 -> { tx = x; ty = y; }
+                    case 1 -> { tx = x; ty = width - y; }
+                    case 2 -> { tx = height - x; ty = y; }
+                    case 3 -> { tx = height - x; ty = width - y; }
+                    case 4 -> { tx = y; ty = x; }
+                    case 5 -> { tx = y; ty = height - x; }
+                    case 6 -> { tx = width - y; ty = x; }
+                    default -> { tx = width - y; ty = height - x; }
+                }
+                permutation[t][edge] = tx % 2 == 0
+                        ? (tx / 2) * columns + (ty - 1) / 2
+                        : horizontal + ((tx - 1) / 2) * (columns + 1) + ty / 2;
+            }
+        }
+
+        int bytes = edgeCount <= 64 ? (edgeCount + 7) / 8 : 0;
+        this.byteImages = new long[transformCount][bytes * 256];
+        for (int t = 0; t < transformCount; t++) {
+            for (int b = 0; b < bytes; b++) {
+                for (int value = 0; value < 256; value++) {
+                    long image = 0L;
+                    for (int bit = 0; bit < 8; bit++) {
+                        int edge = b * 8 + bit;
+                        if ((value & (1 << bit)) != 0 && edge < edgeCount) {
+                            image |= 1L << permutation[t][edge];
+                        }
+                    }
+                    byteImages[t][b * 256 + value] = image;
+                }
+            }
+        }
+    }
+
+    /** Shared symmetry tables for a board size. */
+    public static DotsAndBoxesSymmetry forBoard(int rows, int columns) {
+        return CACHE.computeIfAbsent(rows + "x" + columns, key -> new DotsAndBoxesSymmetry(rows, columns));
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /** Number of symmetries, including the identity (transform 0). */
+    public int getTransformCount() {
+        return transformCount;
+    }
+
+    /** Transform that undoes the given one. */
+    public static int inverse(int transform) {
+        return INVERSE[transform];
+    }
+
+    /** Image of a single edge under a transform. */
+    public int map(int edge, int transform) {
+        return permutation[transform][edge];
+    }
+
+    /** Image of an edge set under a transform; only for boards with at most 64 edges. */
+    public long apply(long edges, int transform) {
+        if (edgeCount > 64) {
+            throw new IllegalStateException("Edge sets of boards with more than 64 edges do not fit in a long.");
+        }
+        long[] images = byteImages[transform];
+        long image = 0L;
+        for (int b = 0, offset = 0; offset < edgeCount; b++, offset += 8) {
+            image |= images[b * 256 + (int) ((edges >>> offset) & 0xFF)];
+        }
+        return image;
+    }
+
+    /** Transform that takes an edge set to its canonical form (the smallest image, compared unsigned). */
+    public int canonicalTransform(long edges) {
+        int best = 0;
+        long smallest = edges;
+        for (int t = 1; t < transformCount; t++) {
+            long image = apply(edges, t);
+            if (Long.compareUnsigned(image, smallest) < 0) {
+                smallest = image;
+                best = t;
+            }
+        }
+        return best;
+    }
+
+    /** Canonical form of an edge set: the same for every mirror image and rotation of it. */
+    public long canonical(long edges) {
+        return apply(edges, canonicalTransform(edges));
+    }
+}
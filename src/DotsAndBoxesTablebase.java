@@ -0,0 +1,214 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Perfect-play tablebase for small Dots and Boxes boards (at most {@link #MAX_EDGES} edges, which covers
+ * everything up to 3x3 boxes). There is one signed byte per set of claimed edges, indexed directly by the
+ * edge bitset of {@link DotsAndBoxesState}: the net number of boxes the player to move will still win
+ * (their future boxes minus the opponent's). Who is to move does not matter, since the rules are the same
+ * for both players, so the whole game is 2^edges entries.
+ *
+ * The table is built by retrograde analysis: every successor of an edge set is numerically larger, so a
+ * single descending pass sees each position after all of its successors. Only one position of each class
+ * of mirror images and rotations is searched; its value is copied to the rest of the class.
+ * {@link DotsAndBoxesTablebaseGenerator} writes tables to files that are memory-mapped at startup.
+ */
+public class DotsAndBoxesTablebase {
+    public static final int MAX_EDGES = 24;
+
+    // Boards with at most this many edges (a million positions) are built on demand when no file exists
+    private static final int MAX_RUNTIME_EDGES = 20;
+
+    // File layout: magic, version, rows, columns, then one byte per edge set
+    private static final int MAGIC = 0x44425442; // "DBTB"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+
+    /** Directory searched for pregenerated files; override with -Ddotsandboxes.tablebase.dir=... */
+    public static final String DIRECTORY_PROPERTY = "dotsandboxes.tablebase.dir";
+
+    private static final Map<String, Optional<DotsAndBoxesTablebase>> CACHE = new ConcurrentHashMap<>();
+
+    private final int rows;
+    private final int columns;
+    private final int edgeCount;
+    private final ByteBuffer table;
+    private final int[] boxMasks;
+
+    private DotsAndBoxesTablebase(int rows, int columns, ByteBuffer table) {
+        this.rows = rows;
+        this.columns = columns;
+        this.edgeCount = (rows + 1) * columns + rows * (columns + 1);
+        this.table = table;
+        this.boxMasks = boxMasks(rows, columns);
+    }
+
+    /**
+     * Returns the shared tablebase for a board size, or null if the board is too large. A pregenerated file
+     * is mapped if one exists; otherwise boards of up to {@link #MAX_RUNTIME_EDGES} edges are built in memory.
+     */
+    public static DotsAndBoxesTablebase forBoard(int rows, int columns) {
+        if (edgeCount(rows, columns) > MAX_EDGES) return null;
+        return CACHE.computeIfAbsent(rows + "x" + columns, key -> {
+            Path file = Paths.get(System.getProperty(DIRECTORY_PROPERTY, "tablebase"), fileName(rows, columns));
+            if (Files.isRegularFile(file)) {
+                try {
+                    DotsAndBoxesTablebase mapped = load(file);
+                    if (mapped.rows == rows && mapped.columns == columns) return Optional.of(mapped);
+                } catch (IOException ignored) {
+                    // Unreadable or foreign file: fall back to building the table if it is small enough
+                }
+            }
+            if (edgeCount(rows, columns) > MAX_RUNTIME_EDGES) return Optional.empty();
+            return Optional.of(build(rows, columns));
+        }).orElse(null);
+    }
+
+    /** Standard file name for a board size, e.g. "dab-3x3.bin". */
+    public static String fileName(int rows, int columns) {
+        return "dab-" + rows + "x" + columns + ".bin";
+    }
+
+    private static int edgeCount(int rows, int columns) {
+        return (rows + 1) * columns + rows * (columns + 1);
+    }
+
+    /** Maps a file written by {@link #write(Path)}; entries are read straight from the page cache. */
+    public static DotsAndBoxesTablebase load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (map.remaining() < HEADER_SIZE || map.getInt() != MAGIC || map.getInt() != VERSION) {
+                throw new IOException("Not a tablebase file: " + file);
+            }
+            int rows = map.getInt();
+            int columns = map.getInt();
+            if (rows <= 0 || columns <= 0 || edgeCount(rows, columns) > MAX_EDGES) {
+                throw new IOException("Unsupported board size in tablebase file: " + file);
+            }
+            int entries = 1 << edgeCount(rows, columns);
+            if (map.limit() < HEADER_SIZE + entries) {
+                throw new IOException("Truncated tablebase file: " + file);
+            }
+            return new DotsAndBoxesTablebase(rows, columns, map.slice(HEADER_SIZE, entries));
+        }
+    }
+
+    /** Writes the header and table to a file that {@link #load(Path)} can map. */
+    public void write(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(columns);
+        header.flip();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) channel.write(header);
+            ByteBuffer data = table.duplicate();
+            data.clear();
+            while (data.hasRemaining()) channel.write(data);
+        }
+    }
+
+    /** Builds the full table by retrograde analysis, searching one position per symmetry class. */
+    public static DotsAndBoxesTablebase build(int rows, int columns) {
+        int edges = edgeCount(rows, columns);
+        if (rows <= 0 || columns <= 0 || edges > MAX_EDGES) {
+            throw new IllegalArgumentException("Tablebases are limited to boards with at most " + MAX_EDGES + " edges.");
+        }
+        int size = 1 << edges;
+        int full = size - 1;
+        byte[] values = new byte[size];
+        long[] done = new long[(size + 63) >>> 6];
+        int[] masks = boxMasks(rows, columns);
+        DotsAndBoxesSymmetry symmetry = DotsAndBoxesSymmetry.forBoard(rows, columns);
+
+        for (int set = full; set >= 0; set--) {
+            if ((done[set >>> 6] & (1L << set)) != 0) continue;
+
+            int best = 0;
+            if (set != full) {
+                best = Integer.MIN_VALUE;
+                for (int free = ~set & full; free != 0; free &= free - 1) {
+                    int bit = free & -free;
+                    int next = set | bit;
+                    int closed = closes(masks, next, Integer.numberOfTrailingZeros(bit));
+                    int value = closed > 0 ? closed + values[next] : -values[next];
+                    if (value > best) best = value;
+                }
+            }
+
+            for (int t = 0; t < symmetry.getTransformCount(); t++) {
+                int image = (int) symmetry.apply(set, t);
+                values[image] = (byte) best;
+                done[image >>> 6] |= 1L << image;
+            }
+        }
+        return new DotsAndBoxesTablebase(rows, columns, ByteBuffer.wrap(values));
+    }
+
+    // For each edge, the edge masks of the (up to) two boxes it borders; 0 where there is no box
+    private static int[] boxMasks(int rows, int columns) {
+        DotsAndBoxesState layout = new DotsAndBoxesState(rows, columns);
+        int[] masks = new int[layout.getEdgeCount() * 2];
+        for (int edge = 0; edge < layout.getEdgeCount(); edge++) {
+            for (int slot = 0; slot < 2; slot++) {
+                int box = layout.edgeBox(edge, slot);
+                if (box < 0) continue;
+                for (int side = 0; side < 4; side++) {
+                    masks[edge * 2 + slot] |= 1 << layout.boxEdge(box, side);
+                }
+            }
+        }
+        return masks;
+    }
+
+    /** Boxes completed by the edge just added to the set. */
+    private static int closes(int[] masks, int set, int edge) {
+        int first = masks[edge * 2];
+        int second = masks[edge * 2 + 1];
+        return (first != 0 && (set & first) == first ? 1 : 0) + (second != 0 && (set & second) == second ? 1 : 0);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /** Net boxes still to be won by the player to move, for a set of claimed edges. */
+    public int value(long edges) {
+        return table.get((int) edges);
+    }
+
+    /** Net boxes still to be won by the player to move in the given position. */
+    public int value(DotsAndBoxesState position) {
+        return value(position.getEdgeWord(0));
+    }
+
+    /** A best edge for the player to move, or -1 if the game is over. */
+    public int bestMove(DotsAndBoxesState position) {
+        int set = (int) position.getEdgeWord(0);
+        int best = Integer.MIN_VALUE;
+        int move = -1;
+        for (int edge = 0; edge < edgeCount; edge++) {
+            if ((set & (1 << edge)) != 0) continue;
+            int next = set | (1 << edge);
+            int closed = closes(boxMasks, next, edge);
+            int value = closed > 0 ? closed + value(next) : -value(next);
+            if (value > best) {
+                best = value;
+                move = edge;
+            }
+        }
+        return move;
+    }
+}
@@ -0,0 +1,33 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Offline generator for Dots and Boxes tablebase files.
+ * Usage: java DotsAndBoxesTablebaseGenerator rows columns [output directory]
+ * The file is named after the board size and is picked up automatically by the solver when it sits in
+ * the directory named by the dotsandboxes.tablebase.dir property (default "tablebase").
+ */
+public class DotsAndBoxesTablebaseGenerator {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java DotsAndBoxesTablebaseGenerator rows columns [output directory]");
+            return;
+        }
+        int rows = Integer.parseInt(args[0]);
+        int columns = Integer.parseInt(args[1]);
+        Path directory = Paths.get(args.length > 2 ? args[2] : System.getProperty(DotsAndBoxesTablebase.DIRECTORY_PROPERTY, "tablebase"));
+
+        long start = System.nanoTime();
+        DotsAndBoxesTablebase tablebase = DotsAndBoxesTablebase.build(rows, columns);
+        Files.createDirectories(directory);
+        Path file = directory.resolve(DotsAndBoxesTablebase.fileName(rows, columns));
+        tablebase.write(file);
+
+        int margin = tablebase.value(0L);
+        System.out.println("Wrote " + file + " (" + Files.size(file) + " bytes) in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms; with perfect play the first player "
+                + (margin > 0 ? "wins by " + margin : margin < 0 ? "loses by " + -margin : "draws"));
+    }
+}
@@ -25,10 +25,44 @@ abstract class Game implements Saveable{
 
     public abstract String[][] getBoardDisplay();
 
+    /**
+     * Draws the board into the board's reusable {@link BoardFrame} and returns it; this is what the engine
+     * prints every turn, so it allocates nothing once the game is running.
+     */
+    public abstract BoardFrame renderBoard();
+
+    /**
+     * Prints what goes above the board each turn besides the board itself (Quoridor: walls left and whose
+     * turn it is). Kept out of {@link #renderBoard()} so that drawing the board stays allocation-free.
+     */
+    public void displayStatus(){
+    }
+
     public void setPlayer(Player player){
         this.player = player;
     }
 
+    /** The player whose turn it is; single-player games always return their only player. */
+    public Player getCurrentPlayer(){
+        return player;
+    }
+
+    /**
+     * Asks the game for a move in its own input syntax for the player to move, thinking for at most
+     * the given time. Returns null if the game has no computer opponent or no legal move exists.
+     */
+    public String suggestMove(long timeLimitMillis){
+        return null;
+    }
+
+    /**
+     * The headless rules the game plays through, so the engine can journal accepted moves in the rules'
+     * encoding; null for a game without them.
+     */
+    public GameRules getRules(){
+        return null;
+    }
+
     public boolean isActive(int flag){
         return gameActive;
     }
@@ -1,3 +1,7 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.HashMap;
 import java.util.Map;
@@ -15,39 +19,76 @@ public class GameEngine {
     private Player player1;
     private Player player2;
     private boolean multiplayer = false;
+    private boolean quitRequested = false;
 
-    /** In-memory saved games session only*/
-    private final Map<String, Game> savedGames = new HashMap<>();
+    /** Thinking time given to computer players for each move */
+    private static final long COMPUTER_TIME_LIMIT_MS = 1000;
 
+    /**
+     * Paused games of this session by save key, each as its encoded snapshot ({@link GameStateCodec}) rather
+     * than the live game, so a paused session holds a few dozen bytes instead of boards, rules and solvers.
+     * Every snapshot is also written to the save store.
+     */
+    private final Map<String, byte[]> savedGames = new HashMap<>();
+    // Shared durable store for snapshots of saved games, or null if it could not be opened
+    private final SaveStore saveStore;
+    // Reused for encoding every snapshot
+    private final ByteBuffer snapshotBuffer = ByteBuffer.allocate(GameStateCodec.MAX_ENCODED_SIZE);
+    // Write-ahead journal of the game being played; games are only journaled when saves go to disk
+    private MoveJournal journal;
+
+    /** Runs the arcade on the terminal; the Menu and the prompts share one buffer, flushed once per turn. */
     public GameEngine() {
-        this.menu = new Menu();
-        this.inputHandler = new InputHandler();
+        this(new Menu(), new InputHandler());
+    }
+
+    /** Runs the arcade over the given output and input, e.g. for one client of {@link GameServer}. */
+    public GameEngine(Menu menu, InputHandler inputHandler) {
+        this(menu, inputHandler, SaveStore.getDefault());
+    }
+
+    /** Runs the arcade with a specific save store, or none (null) to keep saves in memory only. */
+    public GameEngine(Menu menu, InputHandler inputHandler, SaveStore saveStore) {
+        this.menu = menu;
+        this.inputHandler = inputHandler;
+        this.saveStore = saveStore;
     }
 
     /** Entry point for the arcade */
     public void start() {
-        String[] gameChoices = {"SlidingPuzzle", "DotsAndBoxes", "Quoridor"};
-        menu.displayWelcome();
+        try {
+            String[] gameChoices = {"SlidingPuzzle", "DotsAndBoxes", "Quoridor"};
+            menu.displayWelcome();
 
-        while (true) {
-            int gameChoice = getGameChoice();
-            multiplayer = (gameChoice == 1) || (gameChoice == 2);
-            String currentGameName = gameChoices[gameChoice];
-            boolean playingSameGame = true;
-
-            while (playingSameGame) {
-                setupPlayer(multiplayer);
-                playGame(currentGameName);
-
-                int nextAction = promptNextAction();
-                if (nextAction == 3) {
-                    System.out.println("\nThank you for playing!");
-                    inputHandler.close();
-                    return;
-                } else if (nextAction == 2) {
-                    playingSameGame = false;
+            while (true) {
+                int gameChoice = getGameChoice();
+                multiplayer = (gameChoice == 1) || (gameChoice == 2);
+                String currentGameName = gameChoices[gameChoice];
+                boolean playingSameGame = true;
+
+                while (playingSameGame) {
+                    setupPlayer(multiplayer, gameChoice == 1 || gameChoice == 2);
+                    playGame(currentGameName);
+                    if (quitRequested) {
+                        inputHandler.close();
+                        return;
+                    }
+
+                    int nextAction = promptNextAction();
+                    if (nextAction == 3) {
+                        menu.displayMessage("\nThank you for playing!");
+                        inputHandler.close();
+                        return;
+                    } else if (nextAction == 2) {
+                        playingSameGame = false;
+                    }
                 }
             }
+        } finally {
+            // Still open only if the session ended mid-game, e.g. a client hung up; keep it for recovery
+            endJournal(true);
+            menu.releaseBoard();
+            menu.flush();
         }
     }
 
@@ -79,11 +120,15 @@ public class GameEngine {
         }
     }
 
-    /** Sets up players */
-    private void setupPlayer(boolean multiplayer) {
+    /** Sets up players, offering a computer opponent for games that have one */
+    private void setupPlayer(boolean multiplayer, boolean computerAvailable) {
         if (multiplayer) {
             player1 = new Player(inputHandler.getPlayerName(true, "Player 1"));
-            player2 = new Player(inputHandler.getPlayerName(true, "Player 2"));
+            if (computerAvailable && inputHandler.askYesNo("Play against the computer?")) {
+                player2 = new ComputerPlayer("Computer", COMPUTER_TIME_LIMIT_MS);
+            } else {
+                player2 = new Player(inputHandler.getPlayerName(true, "Player 2"));
+            }
         } else {
             player1 = new Player(inputHandler.getPlayerName(false, "Player 1"));
         }
@@ -91,74 +136,107 @@ public class GameEngine {
 
     /** Runs the selected game, with support for pause/resume */
     private void playGame(String name) {
-        Game game;
+        String key = saveKey(name);
+        Game game = recoverJournal(name, key);
 
-        // Resume existing saved game if available
-        if (savedGames.containsKey(name)) {
+        // Otherwise resume existing saved game if available, from this session or from an earlier one on disk.
+        // Snapshots never change, so a resumed save stays until it is replaced, declined or the game is won.
+        byte[] snapshot = game == null ? findSave(key) : null;
+        if (snapshot != null) {
             boolean resume = inputHandler.askYesNo(
                     "\nA saved " + name + " game was found. Resume it?");
             if (resume) {
-                game = savedGames.remove(name);
-                System.out.println("Resuming your previous game...\n");
-            } else {
-                savedGames.remove(name);
-                game = createNewGame(name);
-                game.initializeGame();
+                game = restoreGame(name, snapshot);
+                if (game != null) menu.displayMessage("Resuming your previous game...\n");
             }
-        } else {
+            if (game == null) {
+                savedGames.remove(key);
+                deleteSave(key);
+            }
+        }
+        if (game == null) {
             game = createNewGame(name);
             game.initializeGame();
         }
+        startJournal(key, game);
 
         int flag = 1;
         while (game.isActive(flag) && !game.isGameWon()) {
-            menu.printBoard(game.getBoardDisplay());
+            game.displayStatus();
+            menu.printBoard(game.renderBoard());
 
-            String command = inputHandler.getInput(
-                    "(Enter move or 'p' to pause): ").trim();
+            String command = nextCommand(game);
 
             if (command.equalsIgnoreCase("p") || command.equalsIgnoreCase("pause")) {
                 handlePauseMenu(name, game);
                 return; // exit back to main menu
             }
 
-            flag = game.makeMoveFromInput(command);
+            flag = playMove(game, command);
         }
 
-        menu.printBoard(game.getBoardDisplay());
+        game.displayStatus();
+        menu.printBoard(game.renderBoard());
+        menu.releaseBoard();
+        endJournal(false);
         if (game.isGameWon()) {
             game.displayVictory();
-            savedGames.remove(name); // clear any saved copy
+            savedGames.remove(key); // clear any saved copy
+            deleteSave(key);
         } else {
             game.displaySummary();
         }
     }
 
+    /** Reads the next command from the terminal, or asks the game when a computer player is to move */
+    private String nextCommand(Game game) {
+        if (game.getCurrentPlayer() instanceof ComputerPlayer computer) {
+            menu.flush(); // show the board while the computer thinks
+            String move = game.suggestMove(computer.getTimeLimitMillis());
+            if (move == null) {
+                menu.displayMessage(computer.getName() + " has no legal move.");
+                return "q";
+            }
+            menu.displayMessage(computer.getName() + " plays: " + move);
+            return move;
+        }
+        return inputHandler.getInput("(Enter move or 'p' to pause): ").trim();
+    }
+
     /** Handles pause menu options */
     private void handlePauseMenu(String gameName, Game game) {
-        System.out.println("\n=== Game Paused ===");
-        System.out.println("1. Resume");
-        System.out.println("2. Save and return to main menu");
-        System.out.println("3. Quit game");
+        menu.displayMessage("\n=== Game Paused ===");
+        menu.displayMessage("1. Resume");
+        menu.displayMessage("2. Save and return to main menu");
+        menu.displayMessage("3. Quit game");
 
         while (true) {
             String input = inputHandler.getInput("Choice: ").trim();
             switch (input) {
                 case "1" -> {
-                    System.out.println("Resuming game...\n");
+                    menu.displayMessage("Resuming game...\n");
                     runGameLoop(gameName, game);
                     return;
                 }
                 case "2" -> {
-                    savedGames.put(gameName, game);
-                    System.out.println("Game saved. Returning to main menu...");
+                    String key = saveKey(gameName);
+                    byte[] snapshot = encodeSnapshot(game);
+                    savedGames.put(key, snapshot);
+                    writeSave(key, snapshot);
+                    endJournal(false);
+                    menu.releaseBoard();
+                    menu.displayMessage("Game saved. Returning to main menu...");
                     return;
                 }
                 case "3" -> {
-                    System.out.println("Exiting game. Goodbye!");
-                    System.exit(0);
+                    // Ends this arcade session only; the game loops unwind and start() returns
+                    menu.displayMessage("Exiting game. Goodbye!");
+                    endJournal(false);
+                    menu.releaseBoard();
+                    quitRequested = true;
+                    return;
                 }
-                default -> System.out.println("Please enter 1, 2, or 3.");
+                default -> menu.displayMessage("Please enter 1, 2, or 3.");
             }
         }
     }
@@ -167,27 +245,179 @@ public class GameEngine {
     private void runGameLoop(String name, Game game) {
         int flag = 1;
         while (game.isActive(flag) && !game.isGameWon()) {
-            menu.printBoard(game.getBoardDisplay());
-            String command = inputHandler.getInput(
-                    "(Enter move or 'p' to pause): ").trim();
+            game.displayStatus();
+            menu.printBoard(game.renderBoard());
+            String command = nextCommand(game);
 
             if (command.equalsIgnoreCase("p") || command.equalsIgnoreCase("pause")) {
                 handlePauseMenu(name, game);
                 return;
             }
 
-            flag = game.makeMoveFromInput(command);
+            flag = playMove(game, command);
         }
 
-        menu.printBoard(game.getBoardDisplay());
+        game.displayStatus();
+        menu.printBoard(game.renderBoard());
+        menu.releaseBoard();
+        endJournal(false);
         if (game.isGameWon()) {
             game.displayVictory();
-            savedGames.remove(name);
+            String key = saveKey(name);
+            savedGames.remove(key);
+            deleteSave(key);
         } else {
             game.displaySummary();
         }
     }
 
+    /** Plays a command and, if the rules accepted it as a move, appends the move to the journal. */
+    private int playMove(Game game, String command) {
+        GameRules rules = game.getRules();
+        if (journal == null || rules == null) return game.makeMoveFromInput(command);
+        int before = rules.getMoveCount();
+        int move = rules.parseMove(command);
+        int flag = game.makeMoveFromInput(command);
+        if (rules.getMoveCount() > before) {
+            try {
+                journal.append(move);
+            } catch (IOException e) {
+                menu.displayError("Could not journal the move, the game is no longer protected against a crash: "
+                        + e.getMessage());
+                endJournal(true);
+            }
+        }
+        return flag;
+    }
+
+    /**
+     * A game rebuilt by replaying the journal a session left behind when it ended mid-game, if the players
+     * want it back; otherwise (or if it cannot be read) the journal is removed and null is returned. A
+     * journal another session is still writing (the same players connected twice) is not offered or touched.
+     */
+    private Game recoverJournal(String name, String key) {
+        if (saveStore == null) return null;
+        Path file = MoveJournal.forKey(key);
+        if (!Files.isRegularFile(file) || MoveJournal.isOpen(file)) return null;
+
+        Game game = null;
+        if (inputHandler.askYesNo("\nAn unfinished " + name + " game from an earlier session was found. Recover it?")) {
+            try {
+                GameState state = MoveJournal.replay(file);
+                if (state != null && GameStateCodec.tagOf(state.boardData) == gameTag(name)) {
+                    game = createNewGame(name);
+                    game.loadState(state);
+                    menu.displayMessage("Recovering your unfinished game...\n");
+                } else {
+                    menu.displayError("The unfinished game could not be read, starting a new one.");
+                }
+            } catch (IOException e) {
+                menu.displayError("Could not read the unfinished game: " + e.getMessage());
+            }
+        }
+        if (game == null) {
+            try {
+                MoveJournal.deleteIfUnused(file);
+            } catch (IOException e) {
+                menu.displayError("Could not remove the unfinished game: " + e.getMessage());
+            }
+        }
+        return game;
+    }
+
+    /** Starts journaling a game from its current position, replacing any older journal for the same key. */
+    private void startJournal(String key, Game game) {
+        if (saveStore == null || game.getRules() == null) return;
+        try {
+            journal = MoveJournal.create(MoveJournal.forKey(key), encodeSnapshot(game));
+        } catch (IOException e) {
+            menu.displayError("Moves will not be journaled: " + e.getMessage());
+        }
+    }
+
+    /** Stops journaling; the file is kept for recovery, or removed once the game is finished or saved. */
+    private void endJournal(boolean keep) {
+        if (journal == null) return;
+        MoveJournal ended = journal;
+        journal = null;
+        try {
+            if (keep) {
+                ended.close();
+            } else {
+                ended.discard();
+            }
+        } catch (IOException e) {
+            menu.displayError("Could not close the move journal: " + e.getMessage());
+        }
+    }
+
+    /** Saves belong to a game and the players in it, e.g. "Quoridor/Ann/Computer". */
+    private String saveKey(String gameName) {
+        String key = gameName + "/" + player1.getName();
+        return multiplayer && player2 != null ? key + "/" + player2.getName() : key;
+    }
+
+    private byte[] encodeSnapshot(Game game) {
+        snapshotBuffer.clear();
+        GameStateCodec.encode(game.saveState(), snapshotBuffer);
+        return Arrays.copyOf(snapshotBuffer.array(), snapshotBuffer.position());
+    }
+
+    /** The snapshot saved under a key in this session, else the one in the save store, else null. */
+    private byte[] findSave(String key) {
+        byte[] snapshot = savedGames.get(key);
+        if (snapshot != null || saveStore == null) return snapshot;
+        try {
+            return saveStore.get(key);
+        } catch (IOException e) {
+            menu.displayError("Could not read the save from disk: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** A new game continued from a snapshot, or null (after telling the player) if the snapshot is unreadable. */
+    private Game restoreGame(String name, byte[] snapshot) {
+        GameState state;
+        try {
+            state = GameStateCodec.decode(ByteBuffer.wrap(snapshot));
+        } catch (IllegalArgumentException e) {
+            menu.displayError("The saved game could not be read (" + e.getMessage() + "), starting a new one.");
+            return null;
+        }
+        if (GameStateCodec.tagOf(state.boardData) != gameTag(name)) {
+            menu.displayError("The saved game is for a different game, starting a new one.");
+            return null;
+        }
+        Game game = createNewGame(name);
+        game.loadState(state);
+        return game;
+    }
+
+    private static int gameTag(String name) {
+        if (name.equals("SlidingPuzzle")) return GameStateCodec.SLIDING_PUZZLE;
+        if (name.equals("DotsAndBoxes")) return GameStateCodec.DOTS_AND_BOXES;
+        return GameStateCodec.QUORIDOR;
+    }
+
+    /** Writes a snapshot of a paused game to the save store; the in-memory save still works if that fails. */
+    private void writeSave(String key, byte[] snapshot) {
+        if (saveStore == null) return;
+        try {
+            saveStore.put(key, snapshot);
+        } catch (IOException e) {
+            menu.displayError("Could not write the save to disk: " + e.getMessage());
+        }
+    }
+
+    private void deleteSave(String key) {
+        if (saveStore == null) return;
+        try {
+            saveStore.delete(key);
+        } catch (IOException e) {
+            menu.displayError("Could not remove the save from disk: " + e.getMessage());
+        }
+    }
+
     /** Factory method for new game creation */
     private Game createNewGame(String name) {
         if (name.equals("SlidingPuzzle")) {
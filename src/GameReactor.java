@@ -0,0 +1,466 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single-threaded, non-blocking front end for the arcade: one {@link Selector} serves every connection,
+ * as an alternative to the thread per connection of {@link GameServer}.
+ *
+ * A client picks a game with one line ("quoridor [cpu]", "dots R C [cpu]" or "puzzle R C") and then
+ * types moves exactly as in the terminal; each line is handed to {@link Game#makeMoveFromInput}. Lines are
+ * framed in place in a direct read buffer. The game's messages, the rendered board and the prompt go to
+ * separate direct buffers and are sent with one gathering write, so a move costs one read and one write
+ * system call. Computer moves and hints may search for up to a second, so they run on a small worker pool
+ * and the session stops reading until they finish; everything else runs on the selector thread.
+ *
+ * Adding "ansi" to the game line (or starting with -Darcade.ansi=true) keeps the board at the top of the
+ * client's terminal and sends only the cells each move changed, see {@link BoardFrame#computeUpdate()}.
+ *
+ * Usage: java GameReactor [port]   (then e.g. nc localhost 4001)
+ */
+public class GameReactor {
+    public static final int DEFAULT_PORT = 4001;
+
+    private static final int BACKLOG = 4096;
+    // Longest accepted input line; moves are a few bytes
+    private static final int LINE_LIMIT = 1024;
+    private static final int OUTPUT_CAPACITY = 4096;
+    private static final long COMPUTER_TIME_LIMIT_MS = 1000;
+
+    private static final ByteBuffer GAME_PROMPT =
+            promptBuffer("\nPlay: quoridor [cpu] | dots R C [cpu] | puzzle R C | q  (add 'ansi' to redraw in place)\ngame> ");
+    private static final ByteBuffer MOVE_PROMPT = promptBuffer("(Enter move, 'hint' or 'q')\nmove> ");
+    private static final ByteBuffer NO_PROMPT = promptBuffer("");
+
+    private final int port;
+    private final ExecutorService workers;
+    private final Queue<Session> finished = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger active = new AtomicInteger();
+    // Decoded lines are copied here once; only the selector thread uses it
+    private final byte[] lineBytes = new byte[LINE_LIMIT];
+
+    private volatile Selector selector;
+    private volatile boolean running;
+    private volatile int boundPort = -1;
+
+    public GameReactor(int port) {
+        this.port = port;
+        this.workers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), task -> {
+            Thread thread = new Thread(task, "reactor-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static ByteBuffer promptBuffer(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocateDirect(bytes.length).put(bytes).flip().asReadOnlyBuffer();
+    }
+
+    /** Runs the selector loop until {@link #stop()} is called. */
+    public void serve() throws IOException {
+        try (Selector selector = Selector.open(); ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(port), BACKLOG);
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+            this.selector = selector;
+            this.boundPort = server.socket().getLocalPort();
+            running = true;
+
+            while (running) {
+                selector.select(this::handle);
+                Session session;
+                while ((session = finished.poll()) != null) {
+                    session.resume();
+                }
+            }
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Session open) open.close();
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    public void stop() {
+        running = false;
+        Selector current = selector;
+        if (current != null) current.wakeup();
+    }
+
+    /** Port actually bound, once {@link #serve()} is running (useful when started on port 0). */
+    public int getLocalPort() {
+        return boundPort;
+    }
+
+    public int getActiveSessions() {
+        return active.get();
+    }
+
+    private void handle(SelectionKey key) {
+        if (key.isAcceptable()) {
+            accept((ServerSocketChannel) key.channel());
+            return;
+        }
+        Session session = (Session) key.attachment();
+        try {
+            if (key.isValid() && key.isWritable()) session.onWritable();
+            if (key.isValid() && key.isReadable()) session.onReadable();
+        } catch (IOException e) {
+            // Connection reset; drop the session
+            session.close();
+        }
+    }
+
+    private void accept(ServerSocketChannel server) {
+        try {
+            SocketChannel channel;
+            while ((channel = server.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                Session session = new Session(channel);
+                session.key = channel.register(selector, SelectionKey.OP_READ, session);
+                active.incrementAndGet();
+                session.start();
+            }
+        } catch (IOException e) {
+            // A client that disconnects before it is set up is simply not served
+        }
+    }
+
+    /** One client: its game, its buffers and where it is in the protocol. Touched by one thread at a time. */
+    private class Session {
+        private final SocketChannel channel;
+        private SelectionKey key;
+
+        private final ByteBuffer input = ByteBuffer.allocateDirect(LINE_LIMIT);
+        private final BufferOutput messages = new BufferOutput(OUTPUT_CAPACITY);
+        private final BufferOutput frame = new BufferOutput(OUTPUT_CAPACITY);
+        // A PrintStream carries tens of kilobytes of encoder buffers, so this exists only while a game runs
+        private Menu menu;
+        private final ByteBuffer gamePrompt = GAME_PROMPT.duplicate();
+        private final ByteBuffer movePrompt = MOVE_PROMPT.duplicate();
+        private final ByteBuffer noPrompt = NO_PROMPT.duplicate();
+        private final ByteBuffer[] gather = new ByteBuffer[3];
+
+        private Game game;
+        private int flag;
+        private boolean ansi;
+        // A response is still being sent, a worker owns the session, or the client said goodbye
+        private boolean writing;
+        private boolean busy;
+        private boolean closing;
+
+        Session(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void start() throws IOException {
+            menu().displayWelcome();
+            respond(gamePrompt);
+        }
+
+        void onReadable() throws IOException {
+            if (channel.read(input) < 0) {
+                close();
+                return;
+            }
+            processLines();
+        }
+
+        void onWritable() throws IOException {
+            write();
+            if (!writing) processLines();
+        }
+
+        /** Handles buffered lines one at a time, each answered before the next is looked at. */
+        private void processLines() throws IOException {
+            while (!writing && !busy && !closing) {
+                int end = -1;
+                for (int i = 0; i < input.position(); i++) {
+                    if (input.get(i) == '\n') {
+                        end = i;
+                        break;
+                    }
+                }
+                if (end < 0) {
+                    if (input.hasRemaining()) return;
+                    input.clear();
+                    menu().displayError("Line too long.");
+                    respond(game == null ? gamePrompt : movePrompt);
+                    continue;
+                }
+
+                int length = end > 0 && input.get(end - 1) == '\r' ? end - 1 : end;
+                input.get(0, lineBytes, 0, length);
+                String line = new String(lineBytes, 0, length, StandardCharsets.UTF_8).trim();
+                input.flip().position(end + 1);
+                input.compact();
+
+                if (game == null) {
+                    chooseGame(line);
+                } else {
+                    play(line);
+                }
+            }
+        }
+
+        private void chooseGame(String line) throws IOException {
+            String[] parts = line.toLowerCase().split("\\s+");
+            ansi = Boolean.getBoolean(Menu.ANSI_PROPERTY);
+            if (parts.length > 1 && parts[parts.length - 1].equals("ansi")) {
+                ansi = true;
+                parts = Arrays.copyOf(parts, parts.length - 1);
+            }
+            boolean computer = parts[parts.length - 1].equals("cpu");
+            int sizeArgs = parts.length - 1 - (computer ? 1 : 0);
+            switch (parts[0]) {
+                case "q", "quit" -> {
+                    menu().displayMessage("Goodbye!");
+                    closing = true;
+                    respond(noPrompt);
+                    return;
+                }
+                case "quoridor" -> {
+                    if (sizeArgs != 0) break;
+                    Quoridor quoridor = new Quoridor(menu(), setupInput(""));
+                    quoridor.setPlayer(new Player("Blue"), opponent(computer));
+                    startGame(quoridor);
+                    return;
+                }
+                case "dots", "puzzle" -> {
+                    if (sizeArgs != 2 || (computer && parts[0].equals("puzzle"))) break;
+                    int rows;
+                    int columns;
+                    try {
+                        rows = Integer.parseInt(parts[1]);
+                        columns = Integer.parseInt(parts[2]);
+                    } catch (NumberFormatException e) {
+                        break;
+                    }
+                    if (rows < 1 || rows > 10 || columns < 1 || columns > 10) {
+                        menu().displayError("Rows and columns must be between 1 and 10.");
+                        respond(gamePrompt);
+                        return;
+                    }
+                    // The games ask for their size on setup; answer from the command (and ask for a random puzzle)
+                    InputHandler setup = setupInput(rows + "\n" + columns + "\n\n");
+                    if (parts[0].equals("dots")) {
+                        DotsAndBoxes dots = new DotsAndBoxes(menu(), setup);
+                        dots.setPlayer(new Player("Blue"), opponent(computer));
+                        startGame(dots);
+                    } else {
+                        SlidingPuzzle puzzle = new SlidingPuzzle(menu(), setup);
+                        puzzle.setPlayer(new Player("Player"));
+                        startGame(puzzle);
+                    }
+                    return;
+                }
+                default -> { }
+            }
+            menu().displayError("Unknown game. Examples: quoridor, quoridor cpu, dots 3 3, puzzle 3 3");
+            respond(gamePrompt);
+        }
+
+        private Menu menu() {
+            if (menu == null) menu = new Menu(new PrintStream(messages, false, StandardCharsets.UTF_8));
+            return menu;
+        }
+
+        private Player opponent(boolean computer) {
+            return computer ? new ComputerPlayer("Computer", COMPUTER_TIME_LIMIT_MS) : new Player("Red");
+        }
+
+        private InputHandler setupInput(String answers) {
+            return new InputHandler(new ByteArrayInputStream(answers.getBytes(StandardCharsets.UTF_8)),
+                    new PrintStream(OutputStream.nullOutputStream()));
+        }
+
+        private void startGame(Game newGame) throws IOException {
+            game = newGame;
+            menu().setAnsiBoard(ansi);
+            game.initializeGame();
+            flag = 1;
+            endTurn();
+        }
+
+        private void play(String command) throws IOException {
+            // Not every game treats "q" as quitting, so the session does
+            if (command.equalsIgnoreCase("q")) {
+                flag = -1;
+                endTurn();
+                return;
+            }
+            if (command.equalsIgnoreCase("hint")) {
+                runOnWorker(() -> flag = game.makeMoveFromInput(command));
+                return;
+            }
+            flag = game.makeMoveFromInput(command);
+            if (isComputerTurn()) {
+                runOnWorker(this::playComputer);
+                return;
+            }
+            endTurn();
+        }
+
+        private boolean isComputerTurn() {
+            return game.isActive(flag) && !game.isGameWon() && game.getCurrentPlayer() instanceof ComputerPlayer;
+        }
+
+        /** Lets the computer move until it is the client's turn again (Dots and Boxes may give it several). */
+        private void playComputer() {
+            while (isComputerTurn()) {
+                ComputerPlayer computer = (ComputerPlayer) game.getCurrentPlayer();
+                String move = game.suggestMove(computer.getTimeLimitMillis());
+                if (move == null) {
+                    menu().displayMessage(computer.getName() + " has no legal move.");
+                    flag = -1;
+                    return;
+                }
+                menu().displayMessage(computer.getName() + " plays: " + move);
+                flag = game.makeMoveFromInput(move);
+            }
+        }
+
+        private void runOnWorker(Runnable task) {
+            busy = true;
+            key.interestOps(0);
+            workers.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    finished.add(this);
+                    selector.wakeup();
+                }
+            });
+        }
+
+        /** Back on the selector thread after a worker finished with this session. */
+        void resume() {
+            busy = false;
+            try {
+                endTurn();
+                processLines();
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        /** Renders the board and prompts for the next move, or wraps up a finished game. */
+        private void endTurn() throws IOException {
+            if (game.isActive(flag) && !game.isGameWon()) {
+                game.displayStatus();
+                BoardFrame board = game.renderBoard();
+                if (ansi) {
+                    menu().printBoard(board);
+                } else {
+                    frame.write(board.getBytes(), 0, board.getLength());
+                }
+                respond(movePrompt);
+                return;
+            }
+            game.displayStatus();
+            menu().printBoard(game.renderBoard());
+            if (game.isGameWon()) {
+                game.displayVictory();
+            } else {
+                game.displaySummary();
+            }
+            menu().releaseBoard();
+            game = null;
+            respond(gamePrompt);
+        }
+
+        private void respond(ByteBuffer prompt) throws IOException {
+            gather[0] = messages.readable();
+            gather[1] = frame.readable();
+            gather[2] = prompt.rewind();
+            if (game == null) menu = null;
+            write();
+        }
+
+        private void write() throws IOException {
+            channel.write(gather);
+            writing = gather[0].hasRemaining() || gather[1].hasRemaining() || gather[2].hasRemaining();
+            if (writing) {
+                key.interestOps(SelectionKey.OP_WRITE);
+                return;
+            }
+            messages.clear();
+            frame.clear();
+            if (closing) {
+                close();
+            } else {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        void close() {
+            if (!channel.isOpen()) return;
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException ignored) {}
+            active.decrementAndGet();
+        }
+    }
+
+    /** Growable direct buffer that a {@link PrintStream} can print into and a channel can write from. */
+    private static class BufferOutput extends OutputStream {
+        private ByteBuffer buffer;
+
+        BufferOutput(int capacity) {
+            buffer = ByteBuffer.allocateDirect(capacity);
+        }
+
+        @Override
+        public void write(int b) {
+            ensure(1);
+            buffer.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            ensure(length);
+            buffer.put(bytes, offset, length);
+        }
+
+        private void ensure(int extra) {
+            if (buffer.remaining() >= extra) return;
+            ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(buffer.capacity() * 2, buffer.position() + extra));
+            larger.put(buffer.flip());
+            buffer = larger;
+        }
+
+        /** The bytes printed so far, ready to be written; call {@link #clear()} once they are sent. */
+        ByteBuffer readable() {
+            return buffer.flip();
+        }
+
+        void clear() {
+            buffer.clear();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        GameReactor reactor = new GameReactor(port);
+        System.out.println("Game reactor listening on port " + port);
+        reactor.serve();
+    }
+}
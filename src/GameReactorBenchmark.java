@@ -0,0 +1,136 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Loopback latency benchmark for {@link GameReactor}. Starts a reactor in this JVM, then each client opens
+ * a hot-seat Quoridor game and shuffles both pawns left and right, timing every move from sending the
+ * line to receiving the whole response (messages, board and prompt). Prints the throughput and the
+ * latency percentiles over all moves.
+ *
+ * Clients send at a fixed combined rate, as players would, rather than flooding the server; a rate of 0
+ * sends each move as soon as the previous response arrives, which measures the maximum throughput.
+ *
+ * Usage: java GameReactorBenchmark [clients] [moves per client] [moves per second]
+ */
+public class GameReactorBenchmark {
+    // Both pawns step left and then right, so the game never ends and every move is legal
+    private static final byte[][] MOVES = {
+            "M L\n".getBytes(StandardCharsets.US_ASCII), "M L\n".getBytes(StandardCharsets.US_ASCII),
+            "M R\n".getBytes(StandardCharsets.US_ASCII), "M R\n".getBytes(StandardCharsets.US_ASCII),
+    };
+    private static final int WARMUP_MOVES = 100000;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int movesPerClient = args.length > 1 ? Integer.parseInt(args[1]) : 2500;
+        int rate = args.length > 2 ? Integer.parseInt(args[2]) : 5000;
+
+        GameReactor reactor = new GameReactor(0);
+        Thread server = new Thread(() -> {
+            try {
+                reactor.serve();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, "reactor");
+        server.setDaemon(true);
+        server.start();
+        while (reactor.getLocalPort() < 0) Thread.sleep(10);
+        InetSocketAddress address = new InetSocketAddress("localhost", reactor.getLocalPort());
+
+        // A full unmeasured round first, so the JIT has compiled the game and render paths
+        round(address, clients, Math.max(movesPerClient, WARMUP_MOVES / clients), 0);
+        long start = System.nanoTime();
+        long[] all = round(address, clients, movesPerClient, rate);
+        long elapsed = System.nanoTime() - start;
+        reactor.stop();
+
+        Arrays.sort(all);
+        System.out.printf("%d clients, %d moves in %.2f s: %.0f moves/s%n",
+                clients, all.length, elapsed / 1e9, all.length / (elapsed / 1e9));
+        System.out.printf("latency p50 %d us, p90 %d us, p99 %d us, p99.9 %d us, max %d us%n",
+                percentile(all, 0.50), percentile(all, 0.90), percentile(all, 0.99),
+                percentile(all, 0.999), all[all.length - 1] / 1000);
+    }
+
+    /** Plays one game per client at once and returns every move's latency in nanoseconds. */
+    private static long[] round(InetSocketAddress address, int clients, int movesPerClient, int rate)
+            throws InterruptedException {
+        long interval = rate > 0 ? clients * 1_000_000_000L / rate : 0;
+        long[][] latencies = new long[clients][];
+        Thread[] threads = new Thread[clients];
+        for (int i = 0; i < clients; i++) {
+            int client = i;
+            threads[i] = new Thread(() -> {
+                try {
+                    latencies[client] = play(address, movesPerClient, interval);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) thread.join();
+
+        long[] all = new long[clients * movesPerClient];
+        for (int i = 0; i < clients; i++) {
+            System.arraycopy(latencies[i], 0, all, i * movesPerClient, movesPerClient);
+        }
+        return all;
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        int index = (int) Math.min(sorted.length - 1, Math.round(fraction * (sorted.length - 1)));
+        return sorted[index] / 1000;
+    }
+
+    /**
+     * Plays one game for the given number of moves, one every interval nanoseconds (0 for back to back),
+     * and returns the nanoseconds each move took.
+     */
+    private static long[] play(InetSocketAddress address, int moves, long interval) throws IOException {
+        long[] latencies = new long[moves];
+        try (SocketChannel channel = SocketChannel.open(address)) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            ByteBuffer response = ByteBuffer.allocateDirect(64 * 1024);
+            readResponse(channel, response);
+            channel.write(ByteBuffer.wrap("quoridor\n".getBytes(StandardCharsets.US_ASCII)));
+            readResponse(channel, response);
+
+            ByteBuffer[] lines = new ByteBuffer[MOVES.length];
+            for (int i = 0; i < lines.length; i++) lines[i] = ByteBuffer.wrap(MOVES[i]);
+            long start = System.nanoTime();
+            for (int move = 0; move < moves; move++) {
+                long due = interval > 0 ? start + move * interval : System.nanoTime();
+                long wait = due - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+
+                ByteBuffer line = lines[move % lines.length].rewind();
+                long sent = System.nanoTime();
+                while (line.hasRemaining()) channel.write(line);
+                readResponse(channel, response);
+                latencies[move] = System.nanoTime() - sent;
+            }
+            channel.write(ByteBuffer.wrap("q\nq\n".getBytes(StandardCharsets.US_ASCII)));
+        }
+        return latencies;
+    }
+
+    /** Reads until the response ends with a prompt ("> "). */
+    private static void readResponse(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        while (true) {
+            if (channel.read(buffer) < 0) throw new IOException("Server closed the connection.");
+            int end = buffer.position();
+            if (end >= 2 && buffer.get(end - 2) == '>' && buffer.get(end - 1) == ' ') return;
+            if (!buffer.hasRemaining()) buffer.clear();
+        }
+    }
+}
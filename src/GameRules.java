@@ -0,0 +1,85 @@
+/**
+ * Headless rules of a game: legal moves, applying and undoing them, the end of the game and the score,
+ * with no console input or output. Moves are encoded as non-negative ints (see each implementation), so
+ * bots, fuzzers and analysis tools can play thousands of games per second without allocating, and the
+ * interactive games are thin layers that parse the player's text, apply it and print the outcome.
+ *
+ * Methods that can fail return {@link #OK} or one of the negative error codes below instead of printing.
+ * {@link #parseMove(String)} returns either an encoded move or an error code, so both share one space.
+ */
+public interface GameRules {
+    int OK = 0;
+
+    // Error codes shared by every game; each implementation documents which ones it uses
+    int INVALID_FORMAT = -1;   // not a move in the game's syntax
+    int OUT_OF_BOUNDS = -2;    // a coordinate or tile number outside the board
+    int OCCUPIED = -3;         // an edge already claimed, or a square held by the other pawn
+    int BLOCKED = -4;          // a wall in the way, or a tile that is not next to the blank
+    int NO_WALLS_LEFT = -5;
+    int OVERLAPS = -6;         // a wall sharing a segment with a parallel wall
+    int CROSSES = -7;          // a wall crossing a perpendicular wall on the same anchor
+    int CUTS_OFF_GOAL = -8;    // a wall leaving a player with no path to their goal
+    int GAME_OVER = -9;
+    int NOTHING_TO_UNDO = -10;
+
+    /** Back to the starting position, with an empty undo history. */
+    void reset();
+
+    int getPlayerCount();
+
+    /** Index of the player to move, 0 in single-player games. */
+    int getCurrentPlayer();
+
+    /** Size needed for the buffer passed to {@link #generateMoves(int[])}. */
+    int getMaxMoves();
+
+    /** Writes every legal move for the player to move into the buffer and returns how many there are. */
+    int generateMoves(int[] moves);
+
+    /** {@link #OK} if the move is legal in the current position, otherwise the reason it is not. */
+    int validate(int move);
+
+    /** Plays a move if it is legal; returns {@link #OK} or the error code from {@link #validate(int)}. */
+    int apply(int move);
+
+    /** Takes back the last applied move; returns {@link #OK} or {@link #NOTHING_TO_UNDO}. */
+    int undo();
+
+    /** Number of moves applied since the last reset (the depth of the undo history). */
+    int getMoveCount();
+
+    boolean isTerminal();
+
+    /** Points won so far by a player; what a point means depends on the game. */
+    int getScore(int player);
+
+    /** The winning player once the game is over, or -1 if it is not over or ended in a tie. */
+    int getWinner();
+
+    /** Zobrist hash of the position, for tables and repetition checks. */
+    long getHash();
+
+    /** Parses a move in the game's input syntax, e.g. "M U", "H 1 2" or "7", for the player to move. */
+    int parseMove(String text);
+
+    /** Formats an encoded move in the game's input syntax. */
+    String formatMove(int move);
+
+    /** Short description of an error code, for callers that have nothing more specific to say. */
+    static String describe(int code) {
+        switch (code) {
+            case OK: return "OK";
+            case INVALID_FORMAT: return "Invalid move format.";
+            case OUT_OF_BOUNDS: return "Move is out of board bounds.";
+            case OCCUPIED: return "That place is already taken.";
+            case BLOCKED: return "Move is blocked.";
+            case NO_WALLS_LEFT: return "No walls remaining.";
+            case OVERLAPS: return "Wall overlaps an existing wall.";
+            case CROSSES: return "Wall cannot cross an existing wall.";
+            case CUTS_OFF_GOAL: return "Wall would cut a player off from their goal row.";
+            case GAME_OVER: return "The game is over.";
+            case NOTHING_TO_UNDO: return "There is no move to undo.";
+            default: return "Illegal move.";
+        }
+    }
+}
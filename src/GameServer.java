@@ -0,0 +1,120 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hosts the arcade for many players over TCP. Each connection gets its own {@link GameEngine} with a
+ * {@link Menu} and {@link InputHandler} bound to the socket, so sessions share nothing but the read-only
+ * solver tables, and clients type exactly what they would in the terminal ("M U", "H 1 2", tile numbers).
+ *
+ * Every session runs on its own virtual thread when the JVM has them (Java 21+), so an idle player
+ * costs a parked continuation and a few kilobytes rather than an OS thread, and tens of thousands of
+ * connections fit in one JVM. Older JVMs fall back to platform threads with small stacks.
+ *
+ * Usage: java GameServer [port]   (then e.g. nc localhost 4000)
+ */
+public class GameServer {
+    public static final int DEFAULT_PORT = 4000;
+
+    // Pending connections the OS may queue while the accept loop catches up
+    private static final int BACKLOG = 4096;
+    // Stack size for the platform-thread fallback; the game loops are shallow
+    private static final long FALLBACK_STACK_BYTES = 256 * 1024;
+    // Room for a turn's messages and the largest board, so a turn goes out in one socket write
+    private static final int OUTPUT_BUFFER = 16 * 1024;
+
+    private final int port;
+    private final ExecutorService sessions;
+    private final AtomicInteger active = new AtomicInteger();
+    private volatile ServerSocket serverSocket;
+
+    public GameServer(int port) {
+        this.port = port;
+        this.sessions = newSessionExecutor();
+    }
+
+    /**
+     * One virtual thread per task if the running JVM supports them. Looked up reflectively so the
+     * arcade still compiles and runs on older Java versions.
+     */
+    static ExecutorService newSessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            ThreadFactory factory = task -> {
+                Thread thread = new Thread(null, task, "session-" + count.incrementAndGet(), FALLBACK_STACK_BYTES);
+                thread.setDaemon(true);
+                return thread;
+            };
+            return Executors.newCachedThreadPool(factory);
+        }
+    }
+
+    /** Accepts connections until {@link #stop()} is called, starting a session for each. */
+    public void serve() throws IOException {
+        try (ServerSocket server = new ServerSocket(port, BACKLOG)) {
+            serverSocket = server;
+            while (!server.isClosed()) {
+                Socket socket;
+                try {
+                    socket = server.accept();
+                } catch (IOException e) {
+                    if (server.isClosed()) break;
+                    throw e;
+                }
+                sessions.execute(() -> runSession(socket));
+            }
+        } finally {
+            sessions.shutdown();
+        }
+    }
+
+    public void stop() throws IOException {
+        ServerSocket server = serverSocket;
+        if (server != null) server.close();
+    }
+
+    /** Port actually bound, once {@link #serve()} is running (useful when started on port 0). */
+    public int getLocalPort() {
+        ServerSocket server = serverSocket;
+        return server == null ? -1 : server.getLocalPort();
+    }
+
+    public int getActiveSessions() {
+        return active.get();
+    }
+
+    private void runSession(Socket socket) {
+        active.incrementAndGet();
+        try (socket;
+             // Not flushed per line: the session flushes once per turn, so each frame is one socket write
+             PrintStream out = new PrintStream(new BufferedOutputStream(socket.getOutputStream(), OUTPUT_BUFFER), false,
+                     StandardCharsets.UTF_8)) {
+            socket.setTcpNoDelay(true);
+            GameEngine engine = new GameEngine(new Menu(out), new InputHandler(socket.getInputStream(), out));
+            engine.start();
+        } catch (NoSuchElementException e) {
+            // The client hung up while the session was waiting for input
+        } catch (IOException e) {
+            // Connection reset; nothing to clean up beyond closing the socket
+        } finally {
+            active.decrementAndGet();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        GameServer server = new GameServer(port);
+        System.out.println("Game server listening on port " + port);
+        server.serve();
+    }
+}
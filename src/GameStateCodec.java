@@ -0,0 +1,200 @@
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Compact, versioned binary form of a {@link GameState} whose board is one of the primitive game states.
+ * A save is an 8-byte header followed by the position in the same packed form the state keeps in memory:
+ *
+ * <pre>
+ *   header      version, game tag, flags (bit 0: game active), current turn, player 1 score, player 2 score (shorts)
+ *   Quoridor    horizontal walls, vertical walls (longs), pawn squares, walls left, side to move (bytes)
+ *   Dots        rows, columns, side to move, one bit per edge, one bit per box owner (player 2 set)
+ *   Puzzle      rows, columns, one tile number per cell in row-major order
+ * </pre>
+ *
+ * Encoding writes straight into a caller's buffer, which can be reused between saves, so nothing is
+ * allocated; every save fits in {@link #MAX_ENCODED_SIZE} bytes. Decoding checks the version and the
+ * position (squares, wall counts, edge ranges, that the tiles are a permutation) and throws
+ * IllegalArgumentException for anything malformed or truncated, so a damaged save never reaches a game.
+ */
+public final class GameStateCodec {
+    public static final int VERSION = 1;
+    public static final int MAX_ENCODED_SIZE = 128;
+
+    public static final int QUORIDOR = 1;
+    public static final int DOTS_AND_BOXES = 2;
+    public static final int SLIDING_PUZZLE = 3;
+
+    private static final int FLAG_ACTIVE = 1;
+
+    private GameStateCodec() {
+    }
+
+    /**
+     * Writes the state at the buffer's position and returns the number of bytes written.
+     * The board must be a {@link QuoridorState}, {@link DotsAndBoxesState} or {@link SlidingPuzzleState}.
+     */
+    public static int encode(GameState state, ByteBuffer out) {
+        int start = out.position();
+        int tag = tagOf(state.boardData);
+        out.put((byte) VERSION);
+        out.put((byte) tag);
+        out.put((byte) (state.gameActive ? FLAG_ACTIVE : 0));
+        out.put((byte) state.currentTurn);
+        out.putShort((short) state.player1Score);
+        out.putShort((short) state.player2Score);
+        switch (tag) {
+            case QUORIDOR -> encodeQuoridor((QuoridorState) state.boardData, out);
+            case DOTS_AND_BOXES -> encodeDotsAndBoxes((DotsAndBoxesState) state.boardData, out);
+            default -> encodeSlidingPuzzle((SlidingPuzzleState) state.boardData, out);
+        }
+        return out.position() - start;
+    }
+
+    /** Reads one save from the buffer's position into a new GameState holding a new board state. */
+    public static GameState decode(ByteBuffer in) {
+        try {
+            int version = in.get();
+            if (version != VERSION) throw new IllegalArgumentException("Unsupported save version " + version + ".");
+            int tag = in.get();
+            int flags = in.get();
+            GameState state = new GameState();
+            state.gameActive = (flags & FLAG_ACTIVE) != 0;
+            state.currentTurn = in.get();
+            state.player1Score = in.getShort();
+            state.player2Score = in.getShort();
+            switch (tag) {
+                case QUORIDOR -> {
+                    QuoridorState board = new QuoridorState();
+                    decodeQuoridor(in, board);
+                    state.boardData = board;
+                }
+                case DOTS_AND_BOXES -> {
+                    DotsAndBoxesState board = new DotsAndBoxesState(in.get(in.position()), in.get(in.position() + 1));
+                    decodeDotsAndBoxes(in, board);
+                    state.boardData = board;
+                }
+                case SLIDING_PUZZLE -> {
+                    SlidingPuzzleState board = new SlidingPuzzleState(in.get(in.position()), in.get(in.position() + 1));
+                    decodeSlidingPuzzle(in, board);
+                    state.boardData = board;
+                }
+                default -> throw new IllegalArgumentException("Unknown game tag " + tag + ".");
+            }
+            return state;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Save is truncated.", e);
+        }
+    }
+
+    /** Game tag for a board state, or IllegalArgumentException if the codec does not know it. */
+    public static int tagOf(Object board) {
+        if (board instanceof QuoridorState) return QUORIDOR;
+        if (board instanceof DotsAndBoxesState) return DOTS_AND_BOXES;
+        if (board instanceof SlidingPuzzleState) return SLIDING_PUZZLE;
+        throw new IllegalArgumentException("No binary encoding for "
+                + (board == null ? "an empty board" : board.getClass().getSimpleName()) + ".");
+    }
+
+    public static void encodeQuoridor(QuoridorState state, ByteBuffer out) {
+        out.putLong(state.getHorizontalWalls());
+        out.putLong(state.getVerticalWalls());
+        out.put((byte) state.getPawnSquare(0));
+        out.put((byte) state.getPawnSquare(1));
+        out.put((byte) state.getWallsLeft(0));
+        out.put((byte) state.getWallsLeft(1));
+        out.put((byte) state.getCurrent());
+    }
+
+    /** Overwrites the state with the position at the buffer's position. */
+    public static void decodeQuoridor(ByteBuffer in, QuoridorState state) {
+        long hWalls = in.getLong();
+        long vWalls = in.getLong();
+        int pawn1 = in.get();
+        int pawn2 = in.get();
+        int walls1 = in.get();
+        int walls2 = in.get();
+        state.restore(hWalls, vWalls, pawn1, pawn2, walls1, walls2, in.get());
+    }
+
+    public static void encodeDotsAndBoxes(DotsAndBoxesState state, ByteBuffer out) {
+        out.put((byte) state.getRows());
+        out.put((byte) state.getColumns());
+        out.put((byte) state.getCurrent());
+        int edgeBytes = (state.getEdgeCount() + 7) >>> 3;
+        for (int i = 0; i < edgeBytes; i++) {
+            out.put((byte) (state.getEdgeWord(i >>> 3) >>> ((i & 7) << 3)));
+        }
+        int boxes = state.getBoxCount();
+        for (int base = 0; base < boxes; base += 8) {
+            int bits = 0;
+            for (int box = base; box < Math.min(base + 8, boxes); box++) {
+                if (state.getOwner(box) == 1) bits |= 1 << (box - base);
+            }
+            out.put((byte) bits);
+        }
+    }
+
+    /** Overwrites the state, which must have the saved board size, with the position at the buffer's position. */
+    public static void decodeDotsAndBoxes(ByteBuffer in, DotsAndBoxesState state) {
+        int rows = in.get();
+        int columns = in.get();
+        if (rows != state.getRows() || columns != state.getColumns()) {
+            throw new IllegalArgumentException("Save is for a " + rows + "x" + columns + " board.");
+        }
+        int current = in.get();
+        if (current != 0 && current != 1) throw new IllegalArgumentException("Invalid side to move " + current + ".");
+        state.reset();
+        int edgeBytes = (state.getEdgeCount() + 7) >>> 3;
+        long word = 0L;
+        for (int i = 0; i < edgeBytes; i++) {
+            word |= (in.get() & 0xFFL) << ((i & 7) << 3);
+            if ((i & 7) == 7 || i == edgeBytes - 1) {
+                state.restoreEdgeWord(i >>> 3, word);
+                word = 0L;
+            }
+        }
+        int boxes = state.getBoxCount();
+        for (int base = 0; base < boxes; base += 8) {
+            int bits = in.get();
+            for (int box = base; box < Math.min(base + 8, boxes); box++) {
+                state.restoreOwner(box, (bits >>> (box - base)) & 1);
+            }
+        }
+        state.restoreCurrent(current);
+    }
+
+    public static void encodeSlidingPuzzle(SlidingPuzzleState state, ByteBuffer out) {
+        out.put((byte) state.getRows());
+        out.put((byte) state.getColumns());
+        int size = state.getRows() * state.getColumns();
+        for (int cell = 0; cell < size; cell++) out.put((byte) state.getTile(cell));
+    }
+
+    /** Overwrites the state, which must have the saved board size, with the board at the buffer's position. */
+    public static void decodeSlidingPuzzle(ByteBuffer in, SlidingPuzzleState state) {
+        int rows = in.get();
+        int columns = in.get();
+        if (rows != state.getRows() || columns != state.getColumns()) {
+            throw new IllegalArgumentException("Save is for a " + rows + "x" + columns + " board.");
+        }
+        int size = rows * columns;
+        if (in.remaining() < size) throw new BufferUnderflowException();
+        // Every tile exactly once; two words cover the largest board
+        long seenLow = 0L;
+        long seenHigh = 0L;
+        for (int cell = 0, at = in.position(); cell < size; cell++) {
+            int tile = in.get(at + cell);
+            if (tile < 0 || tile >= size) throw new IllegalArgumentException("Invalid tile " + tile + ".");
+            long bit = 1L << tile;
+            if (tile < 64) {
+                if ((seenLow & bit) != 0) throw new IllegalArgumentException("Tile " + tile + " appears twice.");
+                seenLow |= bit;
+            } else {
+                if ((seenHigh & bit) != 0) throw new IllegalArgumentException("Tile " + tile + " appears twice.");
+                seenHigh |= bit;
+            }
+        }
+        state.loadCells(in);
+    }
+}
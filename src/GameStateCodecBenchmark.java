@@ -0,0 +1,203 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+
+/**
+ * Compares {@link GameStateCodec} with Java serialization for saving games. Sample positions come from
+ * random play through each game's {@link GameRules}; for every game the benchmark reports the average
+ * save size and the time to encode and decode one save, first with the codec into a reused buffer and
+ * then with an ObjectOutputStream writing a GameState shaped like the board data the games kept before the
+ * codec (a grid of tiles for Quoridor and Dots and Boxes, an int array for the Sliding Puzzle). Every codec
+ * save is decoded and checked against the original position's hash before timing starts.
+ *
+ * Usage: java GameStateCodecBenchmark [positions per game] [rounds]
+ */
+public class GameStateCodecBenchmark {
+    private static final int DOTS_SIZE = 5;
+    private static final int PUZZLE_SIZE = 4;
+    private static final int WARMUP_ROUNDS = 30;
+
+    // Keeps the JIT from discarding work whose result is otherwise unused
+    private static long sink;
+
+    public static void main(String[] args) throws Exception {
+        int positions = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        SplittableRandom random = new SplittableRandom(42);
+
+        run("Quoridor", sample(new QuoridorRules(), positions, 60, random), positions, rounds);
+        run("Dots and Boxes", sample(new DotsAndBoxesRules(DOTS_SIZE, DOTS_SIZE), positions, 2 * DOTS_SIZE * (DOTS_SIZE + 1), random), positions, rounds);
+        run("Sliding Puzzle", sample(new SlidingPuzzleRules(PUZZLE_SIZE, PUZZLE_SIZE), positions, 200, random), positions, rounds);
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    /** Stand-in for a board {@link Tile} (same fields), which is not Serializable itself. */
+    private static class LegacyTile implements Serializable {
+        private static final long serialVersionUID = 1L;
+        String value;
+        int boxOwner = -1;
+    }
+
+    /** Codec saves and today's serializable saves for the same positions. */
+    private static class Sample {
+        final GameState[] states;
+        final GameState[] legacy;
+
+        Sample(int positions) {
+            states = new GameState[positions];
+            legacy = new GameState[positions];
+        }
+    }
+
+    /** Random games cut off after a random number of moves, each stored both ways. */
+    private static Sample sample(GameRules rules, int positions, int maxMoves, SplittableRandom random) {
+        Sample sample = new Sample(positions);
+        int[] moves = new int[rules.getMaxMoves()];
+        for (int i = 0; i < positions; i++) {
+            rules.reset();
+            int length = random.nextInt(maxMoves + 1);
+            for (int ply = 0; ply < length && !rules.isTerminal(); ply++) {
+                int count = rules.generateMoves(moves);
+                if (count == 0) break;
+                rules.apply(moves[random.nextInt(count)]);
+            }
+            GameState state = new GameState();
+            state.boardData = copyOf(rules);
+            state.currentTurn = rules.getCurrentPlayer();
+            state.player1Score = rules.getScore(0);
+            state.player2Score = rules.getPlayerCount() > 1 ? rules.getScore(1) : 0;
+            state.gameActive = !rules.isTerminal();
+            sample.states[i] = state;
+
+            GameState legacy = new GameState();
+            legacy.boardData = legacyBoard(rules);
+            legacy.gameActive = state.gameActive;
+            sample.legacy[i] = legacy;
+        }
+        return sample;
+    }
+
+    private static Object copyOf(GameRules rules) {
+        if (rules instanceof QuoridorRules quoridor) {
+            QuoridorState copy = new QuoridorState();
+            copy.copyFrom(quoridor.getState());
+            return copy;
+        }
+        if (rules instanceof DotsAndBoxesRules dots) {
+            DotsAndBoxesState copy = new DotsAndBoxesState(DOTS_SIZE, DOTS_SIZE);
+            copy.copyFrom(dots.getState());
+            return copy;
+        }
+        SlidingPuzzleState state = ((SlidingPuzzleRules) rules).getState();
+        SlidingPuzzleState copy = new SlidingPuzzleState(PUZZLE_SIZE, PUZZLE_SIZE);
+        copy.load(state.toArray());
+        return copy;
+    }
+
+    /** The board data the games put in a GameState before the codec existed. */
+    private static Object legacyBoard(GameRules rules) {
+        if (rules instanceof SlidingPuzzleRules puzzle) return puzzle.getState().toArray();
+        if (rules instanceof DotsAndBoxesRules dots) {
+            DotsAndBoxesState state = dots.getState();
+            LegacyTile[][] tiles = new LegacyTile[DOTS_SIZE][DOTS_SIZE];
+            for (int box = 0; box < DOTS_SIZE * DOTS_SIZE; box++) {
+                LegacyTile tile = new LegacyTile();
+                tile.boxOwner = state.getOwner(box);
+                tiles[box / DOTS_SIZE][box % DOTS_SIZE] = tile;
+            }
+            return tiles;
+        }
+        int size = QuoridorState.SIZE;
+        LegacyTile[][] tiles = new LegacyTile[size][size];
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                tiles[r][c] = new LegacyTile();
+                tiles[r][c].value = String.valueOf(r * size + c);
+            }
+        }
+        return tiles;
+    }
+
+    private static long hashOf(Object board) {
+        if (board instanceof QuoridorState quoridor) return quoridor.getHash();
+        if (board instanceof DotsAndBoxesState dots) return dots.getHash();
+        return ((SlidingPuzzleState) board).getHash();
+    }
+
+    private static void run(String name, Sample sample, int positions, int rounds) throws IOException, ClassNotFoundException {
+        ByteBuffer buffer = ByteBuffer.allocate(GameStateCodec.MAX_ENCODED_SIZE);
+        long codecBytes = 0;
+        for (GameState state : sample.states) {
+            buffer.clear();
+            codecBytes += GameStateCodec.encode(state, buffer);
+            buffer.flip();
+            GameState decoded = GameStateCodec.decode(buffer);
+            if (hashOf(decoded.boardData) != hashOf(state.boardData) || decoded.currentTurn != state.currentTurn
+                    || decoded.player1Score != state.player1Score || decoded.player2Score != state.player2Score
+                    || decoded.gameActive != state.gameActive) {
+                throw new IllegalStateException(name + " position did not survive a round trip.");
+            }
+        }
+        byte[][] serialized = new byte[positions][];
+        long serializedBytes = 0;
+        for (int i = 0; i < positions; i++) {
+            serialized[i] = serialize(sample.legacy[i]);
+            serializedBytes += serialized[i].length;
+        }
+
+        // Codec saves kept side by side, as a store would read them back
+        ByteBuffer saves = ByteBuffer.allocate(positions * GameStateCodec.MAX_ENCODED_SIZE);
+        for (GameState state : sample.states) GameStateCodec.encode(state, saves);
+
+        double encode = 0;
+        double decode = 0;
+        double serialize = 0;
+        double deserialize = 0;
+        for (int round = -WARMUP_ROUNDS; round < rounds; round++) {
+            long start = System.nanoTime();
+            for (GameState state : sample.states) {
+                buffer.clear();
+                sink += GameStateCodec.encode(state, buffer);
+            }
+            long encoded = System.nanoTime();
+            saves.flip();
+            for (int i = 0; i < positions; i++) sink += GameStateCodec.decode(saves).currentTurn;
+            saves.limit(saves.capacity());
+            long decoded = System.nanoTime();
+            for (GameState state : sample.legacy) sink += serialize(state).length;
+            long serializedAt = System.nanoTime();
+            for (byte[] bytes : serialized) sink += deserialize(bytes).currentTurn;
+            long end = System.nanoTime();
+            if (round >= 0) {
+                encode += encoded - start;
+                decode += decoded - encoded;
+                serialize += serializedAt - decoded;
+                deserialize += end - serializedAt;
+            }
+        }
+        double operations = (double) positions * rounds;
+        System.out.printf("%s: codec %.1f bytes, encode %.0f ns, decode %.0f ns | "
+                        + "serialization %.1f bytes, write %.0f ns, read %.0f ns%n",
+                name, codecBytes / (double) positions, encode / operations, decode / operations,
+                serializedBytes / (double) positions, serialize / operations, deserialize / operations);
+    }
+
+    private static byte[] serialize(GameState state) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(state);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static GameState deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (GameState) in.readObject();
+        }
+    }
+}
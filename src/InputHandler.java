@@ -1,3 +1,6 @@
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -8,50 +11,64 @@ import java.util.stream.IntStream;
  */
 public class InputHandler {
     private final Scanner scanner;
+    private final PrintStream out;
 
+    /** Reads the keyboard and prompts on the terminal stream shared with {@link Menu#Menu()}. */
     public InputHandler(){
-        this.scanner = new Scanner(System.in);
+        this(System.in, Menu.terminal());
+    }
+
+    /** Reads from any stream and prompts on another, e.g. one client's connection in {@link GameServer}. */
+    public InputHandler(InputStream in, PrintStream out){
+        this.scanner = new Scanner(in, StandardCharsets.UTF_8);
+        this.out = out;
+    }
+
+    // Prompts are printed without a newline, so they are flushed before blocking on the answer
+    private String readLine(){
+        out.flush();
+        return scanner.nextLine();
     }
 
     public String getPlayerName(boolean multiplayer, String player) {
         if(multiplayer){
-            System.out.print("What is " + player + "'s name?: ");
-            return scanner.nextLine();
+            out.print("What is " + player + "'s name?: ");
+            return readLine();
         }else{
-            System.out.print("What is your name?: ");
-            return scanner.nextLine();
+            out.print("What is your name?: ");
+            return readLine();
         }
     }
 
     public int[] getBoardDimensions(){
         int[]choices = {-1, -1};
-        System.out.println("\nChoose your board dimensions M x N");
-        System.out.println("(Each dimension has to be greater than 0 and at most 10)");
+        out.println("\nChoose your board dimensions M x N");
+        out.println("(Each dimension has to be greater than 0 and at most 10)");
 
-        System.out.print("Rows: ");
+        out.print("Rows: ");
         try{
-            int rows = Integer.parseInt(scanner.nextLine());
+            int rows = Integer.parseInt(readLine());
             if(rows <= 0|| rows > 100){
-                System.out.println("\nError: invalid input\n");
+                out.println("\nError: invalid input\n");
                 return choices;
             }
             choices[0] = rows;
         } catch (NumberFormatException e){
-            System.out.println("\nError: invalid input\n");
+            out.println("\nError: invalid input\n");
             return choices;
         }
 
 
-        System.out.print("Columns: ");
+        out.print("Columns: ");
         try{
-            int columns = Integer.parseInt(scanner.nextLine());
+            int columns = Integer.parseInt(readLine());
             if(columns <= 0|| columns > 100){
-                System.out.println("\nError: invalid input\n");
+                out.println("\nError: invalid input\n");
                 return choices;
             }
             choices[1] = columns;
         } catch (NumberFormatException e){
-            System.out.println("\nError: invalid input\n");
+            out.println("\nError: invalid input\n");
             return choices;
         }
 
@@ -61,31 +78,37 @@ public class InputHandler {
     public String getInput(String prompt) {
         String input;
         while (true) {
-            System.out.print(prompt);
-            input = scanner.nextLine().trim();
+            out.print(prompt);
+            input = readLine().trim();
             if (!input.isEmpty()) {
                 return input;
             }
-            System.out.println("Input cannot be empty. Please try again.");
+            out.println("Input cannot be empty. Please try again.");
         }
     }
 
+    //Gets user input that may be left empty, trimmed
+    public String getOptionalInput(String prompt) {
+        out.print(prompt);
+        return readLine().trim();
+    }
+
     //Gets user input for the move the user wishes to make
     public String getMove(Player player, String message){
-        System.out.print(player.getName() + message);
+        out.print(player.getName() + message);
 
-        return scanner.nextLine();
+        return readLine();
     }
     //Gets the users choice for which game they wish to play
     public int getGameChoice(){
-        System.out.println("\nWhich game would you like to play?");
-        System.out.println("0. Sliding Puzzle");
-        System.out.println("1. Dots And Boxes");
-        System.out.println("2. Quoridor");
+        out.println("\nWhich game would you like to play?");
+        out.println("0. Sliding Puzzle");
+        out.println("1. Dots And Boxes");
+        out.println("2. Quoridor");
 
-        System.out.print("\nYour choice: ");
+        out.print("\nYour choice: ");
         try{
-            int input = Integer.parseInt(scanner.nextLine().trim());
+            int input = Integer.parseInt(readLine().trim());
             //change
             if(input == 0 || input == 1 || input == 2){
                 return input;
@@ -97,13 +120,15 @@ public class InputHandler {
     }
 
     public boolean askYesNo(String question) {
-        System.out.print(question + " (y/n): ");
-        String response = scanner.nextLine();
+        out.print(question + " (y/n): ");
+        String response = readLine();
 
         return response.equals("y") || response.equals("yes");
     }
 
+    // Closing the input may close a client's socket too, so whatever is still buffered goes first
     public void close(){
+        out.flush();
         scanner.close();
     }
 
@@ -1,37 +1,118 @@
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+
 /**
  * Handles all the terminal facing messages and prompts which the user gets to see
  * It displays error messages, game winners, gameplay updates, etc
+ *
+ * Output is meant to be buffered: a Menu writes into its stream without flushing, and the stream is
+ * flushed once per turn ({@link #flush()}, or by {@link InputHandler} before it waits for an answer), so
+ * the board, the turn's messages and the prompt leave in one write.
  */
 public class Menu {
+    // Room for a turn's messages and the largest board, so a turn never spills into a second write
+    private static final int TERMINAL_BUFFER = 16 * 1024;
+    // The one buffered stream over standard output, created on first use
+    private static PrintStream terminal;
+
+    /** Draws boards as ANSI screen updates instead of full frames; enable with -Darcade.ansi=true */
+    public static final String ANSI_PROPERTY = "arcade.ansi";
+
+    private final PrintStream out;
+    private boolean ansiBoard;
+    // Frame pinned to the top of the screen by the last ANSI update, if any
+    private BoardFrame pinned;
+
+    /** Writes to the terminal, through the buffer it shares with {@link InputHandler#InputHandler()}. */
+    public Menu(){
+        this(terminal());
+    }
+
+    /** Writes to any stream, e.g. one client's connection in {@link GameServer}; it should not flush on every line. */
+    public Menu(PrintStream out){
+        this.out = out;
+        this.ansiBoard = Boolean.getBoolean(ANSI_PROPERTY);
+    }
+
+    /**
+     * The buffered stream over standard output that only writes when flushed, unlike System.out, which
+     * flushes on every line. Every terminal Menu and InputHandler shares this one stream, so flushing
+     * before a prompt also sends the messages written before it.
+     */
+    public static synchronized PrintStream terminal() {
+        if (terminal == null) {
+            terminal = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out),
+                    TERMINAL_BUFFER), false, Charset.defaultCharset());
+        }
+        return terminal;
+    }
+
+    /** Sends everything written so far, e.g. before the computer spends a while thinking. */
+    public void flush() {
+        out.flush();
+    }
+
+    public void setAnsiBoard(boolean ansiBoard) {
+        releaseBoard();
+        this.ansiBoard = ansiBoard;
+    }
 
     public void displayWelcome(){
-        System.out.println("\n=== Welcome to Terminal Game Arcade !!!! ===");
-        System.out.println("Please follow the instructions in order to proceed! Press q to exit.");
+        out.println("\n=== Welcome to Terminal Game Arcade !!!! ===");
+        out.println("Please follow the instructions in order to proceed! Press q to exit.");
     }
 
     public void displayError(String error){
-        System.out.println("\nError: " + error +"\n");
+        out.println("\nError: " + error +"\n");
     }
 
     public void displayMessage(String message){
-        System.out.println(message);
+        out.println(message);
     }
 
     public void displayMessages(String[] messages){
         for(int i = 0; i < messages.length; i++){
-            System.out.println(messages[i]);
+            out.println(messages[i]);
         }
     }
 
     public void displayVictory(Player player) {
-        System.out.println("\nCongratulations, " + player.getName() +
+        out.println("\nCongratulations, " + player.getName() +
                 "! You solved the puzzle!");
     }
 
+    /**
+     * Writes a rendered frame as it is; its bytes already end every line with a separator. In ANSI mode the
+     * board stays at the top of the screen and only the cells that changed since the last call are redrawn.
+     */
+    public void printBoard(BoardFrame frame) {
+        if (!ansiBoard) {
+            out.write(frame.getBytes(), 0, frame.getLength());
+            return;
+        }
+        if (frame != pinned) {
+            releaseBoard();
+            frame.invalidate();
+            pinned = frame;
+        }
+        frame.computeUpdate();
+        out.write(frame.getUpdateBytes(), 0, frame.getUpdateLength());
+    }
+
+    /** Lets output scroll over the whole screen again once a game no longer shows its board. */
+    public void releaseBoard() {
+        if (pinned == null) return;
+        pinned = null;
+        out.print(BoardFrame.RELEASE_SCREEN);
+    }
+
     public void printBoard(String[][] boardDisplay) {
         if (boardDisplay == null) return;
         for (int i = 0; i < boardDisplay.length; i++) {
-            System.out.println(boardDisplay[i][0]);
+            out.println(boardDisplay[i][0]);
         }
     }
 
@@ -0,0 +1,344 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead journal of one game in progress, so that a crash mid-game loses at most the last few
+ * milliseconds of play. A journal starts with a snapshot of the position ({@link GameStateCodec}) and then
+ * holds every move the rules accepted, in the rules' own int encoding. {@link #replay(Path)} rebuilds the
+ * game by applying those moves to a headless {@link GameRules} with nothing rendered, so even a journal of
+ * ten thousand moves is replayed in milliseconds.
+ *
+ * Appending a move only copies it into a buffer. A single flusher thread shared by every open journal
+ * wakes a few milliseconds after the first pending move and writes each journal's pending moves as one
+ * checksummed frame followed by one fsync, so a burst of moves, or many sessions moving at once, share
+ * disk flushes rather than paying for one each. A frame torn by a crash fails its checksum on replay and
+ * is ignored along with anything after it.
+ */
+public class MoveJournal implements Closeable {
+    /** Directory of the journals opened with {@link #forKey(String)}; override with -Darcade.journal.dir=... */
+    public static final String DIRECTORY_PROPERTY = "arcade.journal.dir";
+
+    // File layout: magic and version, then frames of body length, CRC-32 of the body, and a body of
+    // frame type and payload: one snapshot frame holding the codec bytes, then move frames of ints
+    private static final int MAGIC = 0x4D4A4E4C; // "MJNL"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int FRAME_PREFIX = 8;
+    private static final int FRAME_HEADER = FRAME_PREFIX + 1;
+    private static final byte SNAPSHOT = 1;
+    private static final byte MOVES = 2;
+
+    // How long the flusher lets moves pile up after the first one before writing them
+    private static final long COMMIT_DELAY_MS = 2;
+
+    // Journals with pending moves, and the thread that commits them; guarded by FLUSH_LOCK
+    private static final Object FLUSH_LOCK = new Object();
+    private static final Set<MoveJournal> dirty = new LinkedHashSet<>();
+    private static Thread flusher;
+
+    // Files with an open journal, so two sessions never write the same one
+    private static final Set<Path> openFiles = new HashSet<>();
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Object lock = new Object();
+    private final Object commitLock = new Object();
+    private final CRC32 crc = new CRC32();
+
+    // Guarded by lock
+    private ByteBuffer pending = ByteBuffer.allocate(4096);
+    private boolean closed;
+    private IOException failure;
+
+    // Guarded by commitLock
+    private ByteBuffer spare = ByteBuffer.allocate(4096);
+    private long end;
+    private long commits;
+
+    private MoveJournal(Path file, FileChannel channel, long end) {
+        this.file = file;
+        this.channel = channel;
+        this.end = end;
+    }
+
+    /** Journal file for a save key (e.g. "Quoridor/Ann/Bob") in the {@link #DIRECTORY_PROPERTY} directory. */
+    public static Path forKey(String key) {
+        StringBuilder name = new StringBuilder();
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return Paths.get(System.getProperty(DIRECTORY_PROPERTY, "journal")).resolve(name.append(".wal").toString());
+    }
+
+    /**
+     * Starts a journal from a snapshot of the game (its {@link GameStateCodec} bytes), replacing any journal
+     * already in the file. The snapshot is on disk when this returns.
+     */
+    public static MoveJournal create(Path file, byte[] snapshot) throws IOException {
+        Path key = file.toAbsolutePath().normalize();
+        synchronized (openFiles) {
+            if (!openFiles.add(key)) throw new IOException("Journal " + file + " is already in use.");
+        }
+        FileChannel channel = null;
+        try {
+            Path directory = key.getParent();
+            if (directory != null) Files.createDirectories(directory);
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            ByteBuffer start = ByteBuffer.allocate(HEADER_SIZE + FRAME_HEADER + snapshot.length);
+            start.putInt(MAGIC).putInt(VERSION).putInt(1 + snapshot.length).putInt(0).put(SNAPSHOT).put(snapshot);
+            CRC32 checksum = new CRC32();
+            checksum.update(start.array(), HEADER_SIZE + FRAME_PREFIX, 1 + snapshot.length);
+            start.putInt(HEADER_SIZE + 4, (int) checksum.getValue());
+            writeFully(channel, start.flip(), 0);
+            channel.force(true);
+            return new MoveJournal(file, channel, start.limit());
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) channel.close();
+            synchronized (openFiles) {
+                openFiles.remove(key);
+            }
+            throw e;
+        }
+    }
+
+    /** True while a session in this process is writing the journal, so it is not left over from a crash. */
+    public static boolean isOpen(Path file) {
+        synchronized (openFiles) {
+            return openFiles.contains(file.toAbsolutePath().normalize());
+        }
+    }
+
+    /** Deletes a journal nobody is writing; returns false, leaving it alone, if a session has it open. */
+    public static boolean deleteIfUnused(Path file) throws IOException {
+        synchronized (openFiles) {
+            if (openFiles.contains(file.toAbsolutePath().normalize())) return false;
+            Files.deleteIfExists(file);
+            return true;
+        }
+    }
+
+    /** Records a move the rules accepted; it reaches the disk with the next group commit. */
+    public void append(int move) throws IOException {
+        boolean first;
+        synchronized (lock) {
+            if (failure != null) throw new IOException("Move journal failed.", failure);
+            if (closed) throw new IOException("Move journal is closed.");
+            first = pending.position() == 0;
+            if (first) pending.position(FRAME_HEADER);
+            if (pending.remaining() < 4) {
+                ByteBuffer larger = ByteBuffer.allocate(pending.capacity() * 2);
+                pending.flip();
+                pending = larger.put(pending);
+            }
+            pending.putInt(move);
+        }
+        if (first) schedule(this);
+    }
+
+    /** Writes the pending moves now and returns once they are on disk. */
+    public void sync() throws IOException {
+        commit();
+        synchronized (lock) {
+            if (failure != null) throw new IOException("Move journal failed.", failure);
+        }
+    }
+
+    /** Number of frames written, i.e. fsyncs paid for the moves; lower than the move count under load. */
+    public long getCommitCount() {
+        synchronized (commitLock) {
+            return commits;
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /** Commits the pending moves and closes the file, which stays on disk for {@link #replay(Path)}. */
+    @Override
+    public void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            synchronized (lock) {
+                closed = true;
+            }
+            synchronized (commitLock) {
+                channel.close();
+            }
+            synchronized (openFiles) {
+                openFiles.remove(file.toAbsolutePath().normalize());
+            }
+        }
+    }
+
+    /** Closes the journal and removes its file, once its game is finished or safely saved. */
+    public void discard() throws IOException {
+        try {
+            close();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /** Writes the pending moves as one frame with a single fsync. */
+    private void commit() throws IOException {
+        synchronized (commitLock) {
+            ByteBuffer batch;
+            synchronized (lock) {
+                if (closed || failure != null || pending.position() == 0) return;
+                batch = pending;
+                pending = spare;
+            }
+            try {
+                int bodyLength = batch.position() - FRAME_PREFIX;
+                batch.putInt(0, bodyLength).put(FRAME_PREFIX, MOVES);
+                crc.reset();
+                crc.update(batch.array(), FRAME_PREFIX, bodyLength);
+                batch.putInt(4, (int) crc.getValue());
+                batch.flip();
+                writeFully(channel, batch, end);
+                channel.force(false);
+                end += batch.limit();
+                commits++;
+            } catch (IOException e) {
+                synchronized (lock) {
+                    failure = e;
+                }
+                throw e;
+            } finally {
+                spare = batch.clear();
+            }
+        }
+    }
+
+    private static void schedule(MoveJournal journal) {
+        synchronized (FLUSH_LOCK) {
+            dirty.add(journal);
+            if (flusher == null) {
+                flusher = new Thread(MoveJournal::flushLoop, "move-journal-flusher");
+                flusher.setDaemon(true);
+                flusher.start();
+            }
+            FLUSH_LOCK.notifyAll();
+        }
+    }
+
+    /** Waits for pending moves, lets more arrive for a moment, then commits every dirty journal. */
+    private static void flushLoop() {
+        List<MoveJournal> batch = new ArrayList<>();
+        while (true) {
+            try {
+                synchronized (FLUSH_LOCK) {
+                    while (dirty.isEmpty()) FLUSH_LOCK.wait();
+                }
+                Thread.sleep(COMMIT_DELAY_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            synchronized (FLUSH_LOCK) {
+                batch.addAll(dirty);
+                dirty.clear();
+            }
+            for (MoveJournal journal : batch) {
+                try {
+                    journal.commit();
+                } catch (IOException ignored) {
+                    // Kept as the journal's failure and reported by its next append
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Rebuilds a journaled game: decodes its snapshot and applies the moves of every intact frame to the
+     * game's headless rules, stopping at a torn frame or a move the rules reject. Returns the position
+     * reached, with its side to move and scores, or null if the file holds no usable snapshot.
+     */
+    public static GameState replay(Path file) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (data.remaining() < HEADER_SIZE || data.getInt() != MAGIC || data.getInt() != VERSION) return null;
+        CRC32 checksum = new CRC32();
+
+        GameState state = null;
+        GameRules rules = null;
+        while (data.remaining() >= FRAME_HEADER) {
+            int bodyLength = data.getInt();
+            int expected = data.getInt();
+            if (bodyLength < 1 || bodyLength > data.remaining()) break;
+            checksum.reset();
+            checksum.update(data.array(), data.position(), bodyLength);
+            if ((int) checksum.getValue() != expected) break;
+            int next = data.position() + bodyLength;
+            byte type = data.get();
+
+            if (rules == null) {
+                if (type != SNAPSHOT) return null;
+                try {
+                    state = GameStateCodec.decode(data.slice().limit(bodyLength - 1));
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+                rules = rulesFor(state.boardData);
+            } else {
+                if (type != MOVES) break;
+                boolean rejected = false;
+                while (data.position() + 4 <= next && !rejected) {
+                    rejected = rules.apply(data.getInt()) != GameRules.OK;
+                }
+                if (rejected) break;
+            }
+            data.position(next);
+        }
+        if (rules == null) return null;
+
+        state.boardData = rulesState(rules);
+        state.currentTurn = rules.getCurrentPlayer();
+        state.player1Score = rules.getScore(0);
+        state.player2Score = rules.getPlayerCount() > 1 ? rules.getScore(1) : 0;
+        return state;
+    }
+
+    /** Rules set up at a decoded position, with an empty undo history. */
+    private static GameRules rulesFor(Object board) {
+        if (board instanceof QuoridorState position) {
+            QuoridorRules rules = new QuoridorRules();
+            rules.load(position);
+            return rules;
+        }
+        if (board instanceof DotsAndBoxesState position) {
+            DotsAndBoxesRules rules = new DotsAndBoxesRules(position.getRows(), position.getColumns());
+            rules.load(position);
+            return rules;
+        }
+        SlidingPuzzleState position = (SlidingPuzzleState) board;
+        SlidingPuzzleRules rules = new SlidingPuzzleRules(position.getRows(), position.getColumns());
+        rules.load(position.toArray());
+        return rules;
+    }
+
+    private static Object rulesState(GameRules rules) {
+        if (rules instanceof QuoridorRules quoridor) return quoridor.getState();
+        if (rules instanceof DotsAndBoxesRules dots) return dots.getState();
+        return ((SlidingPuzzleRules) rules).getState();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) position += channel.write(buffer, position);
+    }
+}
@@ -0,0 +1,118 @@
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Measures {@link MoveJournal}: plays a long random Quoridor game and a long random Sliding Puzzle walk,
+ * journals their moves (back to back, or at a fixed rate as players would) and prints how many moves each
+ * group commit carried, then times {@link MoveJournal#replay(Path)} of each journal and checks that the
+ * replayed position matches the one that was played.
+ *
+ * Usage: java MoveJournalBenchmark [moves] [moves per second, 0 for back to back] [directory]
+ */
+public class MoveJournalBenchmark {
+    private static final int REPLAY_ROUNDS = 50;
+
+    public static void main(String[] args) throws Exception {
+        int moves = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int rate = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        Path directory = Files.createDirectories(Path.of(args.length > 2 ? args[2] : "journal-bench"));
+        SplittableRandom random = new SplittableRandom(7);
+
+        SlidingPuzzleRules puzzle = new SlidingPuzzleRules(4, 4);
+        int[] cells = new int[16];
+        new SlidingPuzzleGenerator(4, 4, new java.util.Random(7)).next(cells);
+        puzzle.load(cells);
+        run("Quoridor", new QuoridorRules(), directory.resolve("quoridor.wal"), moves, rate, random);
+        run("Sliding Puzzle", puzzle, directory.resolve("puzzle.wal"), moves, rate, random);
+    }
+
+    private static void run(String name, GameRules rules, Path file, int moves, int rate, SplittableRandom random)
+            throws Exception {
+        GameState start = snapshot(rules);
+        ByteBuffer encoded = ByteBuffer.allocate(GameStateCodec.MAX_ENCODED_SIZE);
+        GameStateCodec.encode(start, encoded);
+
+        int[] game = play(rules, moves, random);
+        long interval = rate > 0 ? 1_000_000_000L / rate : 0;
+        long began = System.nanoTime();
+        MoveJournal journal = MoveJournal.create(file, Arrays.copyOf(encoded.array(), encoded.position()));
+        for (int i = 0; i < moves; i++) {
+            journal.append(game[i]);
+            if (interval > 0) {
+                long due = began + (i + 1) * interval;
+                while (System.nanoTime() < due) Thread.onSpinWait();
+            }
+        }
+        journal.close();
+        long written = System.nanoTime() - began;
+
+        long expected = rules.getHash();
+        GameState replayed = null;
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < REPLAY_ROUNDS; round++) {
+            long replayStart = System.nanoTime();
+            replayed = MoveJournal.replay(file);
+            best = Math.min(best, System.nanoTime() - replayStart);
+        }
+        if (replayed == null || hashOf(replayed.boardData) != expected) {
+            throw new IllegalStateException(name + " replay did not reach the played position.");
+        }
+        System.out.printf("%s: %d moves journaled in %.1f ms with %d commits (%.1f moves per fsync), %d bytes; "
+                        + "replay %.2f ms%n",
+                name, moves, written / 1e6, journal.getCommitCount(), moves / (double) journal.getCommitCount(),
+                Files.size(file), best / 1e6);
+        Files.delete(file);
+    }
+
+    /**
+     * Plays random legal moves, skipping any that end the game or leave the other side without a move
+     * (a pawn walled in next to the other pawn), so the game reaches the full length.
+     */
+    private static int[] play(GameRules rules, int moves, SplittableRandom random) {
+        int[] game = new int[moves];
+        int[] buffer = new int[rules.getMaxMoves()];
+        int[] replies = new int[rules.getMaxMoves()];
+        for (int played = 0; played < moves; played++) {
+            int count = rules.generateMoves(buffer);
+            int offset = random.nextInt(count);
+            int chosen = -1;
+            for (int i = 0; i < count && chosen < 0; i++) {
+                int move = buffer[(offset + i) % count];
+                rules.apply(move);
+                if (!rules.isTerminal() && rules.generateMoves(replies) > 0) {
+                    chosen = move;
+                } else {
+                    rules.undo();
+                }
+            }
+            if (chosen < 0) throw new IllegalStateException("No move keeps the game going.");
+            game[played] = chosen;
+        }
+        return game;
+    }
+
+    private static GameState snapshot(GameRules rules) {
+        GameState state = new GameState();
+        if (rules instanceof QuoridorRules quoridor) {
+            QuoridorState copy = new QuoridorState();
+            copy.copyFrom(quoridor.getState());
+            state.boardData = copy;
+        } else {
+            SlidingPuzzleState position = ((SlidingPuzzleRules) rules).getState();
+            SlidingPuzzleState copy = new SlidingPuzzleState(position.getRows(), position.getColumns());
+            copy.load(position.toArray());
+            state.boardData = copy;
+        }
+        state.currentTurn = rules.getCurrentPlayer();
+        state.gameActive = true;
+        return state;
+    }
+
+    private static long hashOf(Object board) {
+        if (board instanceof QuoridorState quoridor) return quoridor.getHash();
+        return ((SlidingPuzzleState) board).getHash();
+    }
+}
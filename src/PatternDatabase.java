@@ -0,0 +1,464 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Additive (disjoint) pattern databases for the Sliding Puzzle.
+ * The tiles are split into groups; for each group a table stores the fewest moves of that group's tiles
+ * needed to bring them home from any placement, counting moves of other tiles as free.
+ * Because the groups share no tiles, the sum of the group values is an admissible heuristic.
+ *
+ * A group's table is indexed by its tiles' cells as digits in base (rows * columns), so the index of a
+ * position can be updated in O(1) when one tile moves: index += (newCell - oldCell) * multiplier(tile).
+ *
+ * Entries are nibble-packed: each stores (value - group Manhattan distance) / 2, which is always a whole
+ * number, capped at 15 (capping only lowers the bound, so it stays admissible). Tables can be written
+ * to a file by {@link PatternDatabaseGenerator} and memory-mapped at startup, so every game process
+ * shares one page-cached copy instead of rebuilding them. Without a file, only 4x4 tables are built in
+ * memory (in a few seconds); larger boards get tables only from a generated file, since tables small
+ * enough to build on the fly are too weak to let the solver finish on them anyway.
+ */
+public class PatternDatabase {
+    /** Boards smaller than this are solved with Manhattan distance and linear conflicts only. */
+    public static final int MIN_CELLS = 16;
+
+    // Largest abstract state space (tile cells plus blank region) built on demand at runtime
+    private static final long MAX_RUNTIME_STATES = 1L << 25;
+    // Largest board whose tables are built in memory when no file is present
+    private static final int MAX_RUNTIME_CELLS = 16;
+
+    private static final int UNSEEN = 0xFF;
+    private static final int MAX_NIBBLE = 15;
+
+    // File layout: magic, version, rows, columns, group count, then each group's size and tiles, then the tables
+    private static final int MAGIC = 0x53504442; // "SPDB"
+    private static final int VERSION = 1;
+
+    /** Directory searched for pregenerated files; override with -Dslidingpuzzle.pdb.dir=... */
+    public static final String DIRECTORY_PROPERTY = "slidingpuzzle.pdb.dir";
+
+    // Databases by board size; a build in progress is a pending future, so no map lock is held while it runs
+    private static final Map<String, CompletableFuture<PatternDatabase>> CACHE = new ConcurrentHashMap<>();
+
+    private final int rows;
+    private final int columns;
+    private final int cells;
+    private final int[][] groups;
+    private final ByteBuffer[] tables;
+    private final int[] groupOf;
+    private final int[] multiplierOf;
+
+    private PatternDatabase(int rows, int columns, int[][] groups, ByteBuffer[] tables) {
+        this.rows = rows;
+        this.columns = columns;
+        this.cells = rows * columns;
+        this.groups = groups;
+        this.tables = tables;
+        this.groupOf = new int[cells];
+        this.multiplierOf = new int[cells];
+        for (int g = 0; g < groups.length; g++) {
+            int multiplier = 1;
+            for (int tile : groups[g]) {
+                groupOf[tile] = g;
+                multiplierOf[tile] = multiplier;
+                multiplier *= cells;
+            }
+        }
+    }
+
+    /**
+     * Returns the shared databases for a board size, waiting for them to be built if need be, or null if
+     * there are none: the board is small enough that the plain heuristics are sufficient, or larger than
+     * 4x4 with no pregenerated file. For tools that can afford the wait; interactive callers use
+     * {@link #ifReady(int, int)}.
+     */
+    public static PatternDatabase forBoard(int rows, int columns) {
+        CompletableFuture<PatternDatabase> databases = databasesFor(rows, columns);
+        return databases == null ? null : databases.join();
+    }
+
+    /**
+     * Returns the shared databases for a board size if they are mapped or built already, without waiting.
+     * Otherwise returns null and, where tables are built in memory, starts building them in the background
+     * so that a later call finds them.
+     */
+    public static PatternDatabase ifReady(int rows, int columns) {
+        CompletableFuture<PatternDatabase> databases = databasesFor(rows, columns);
+        if (databases == null || !databases.isDone() || databases.isCompletedExceptionally()) return null;
+        return databases.join();
+    }
+
+    private static CompletableFuture<PatternDatabase> databasesFor(int rows, int columns) {
+        if (rows * columns < MIN_CELLS) return null;
+        String key = rows + "x" + columns;
+        CompletableFuture<PatternDatabase> databases = CACHE.get(key);
+        if (databases != null) return databases;
+
+        // Mapping a file takes milliseconds, so it is done here; a build runs on its own thread
+        PatternDatabase mapped = loadFile(rows, columns);
+        CompletableFuture<PatternDatabase> created = mapped != null || rows * columns > MAX_RUNTIME_CELLS
+                ? CompletableFuture.completedFuture(mapped)
+                : new CompletableFuture<>();
+        databases = CACHE.putIfAbsent(key, created);
+        if (databases != null) return databases;
+        if (!created.isDone()) {
+            Thread builder = new Thread(() -> {
+                try {
+                    created.complete(build(rows, columns, defaultGroups(rows, columns, MAX_RUNTIME_STATES)));
+                } catch (Throwable e) {
+                    created.completeExceptionally(e);
+                }
+            }, "pattern-database-" + key);
+            builder.setDaemon(true);
+            builder.start();
+        }
+        return created;
+    }
+
+    /** The pregenerated file for a board size, mapped, or null if there is no usable one. */
+    private static PatternDatabase loadFile(int rows, int columns) {
+        Path file = Paths.get(System.getProperty(DIRECTORY_PROPERTY, "pdb"), fileName(rows, columns));
+        if (!Files.isRegularFile(file)) return null;
+        try {
+            PatternDatabase mapped = load(file);
+            if (mapped.rows == rows && mapped.columns == columns) return mapped;
+        } catch (IOException | RuntimeException ignored) {
+            // Unreadable, foreign or damaged file: treated as absent
+        }
+        return null;
+    }
+
+    /** Standard file name for a board size, e.g. "pdb-4x4.bin". */
+    public static String fileName(int rows, int columns) {
+        return "pdb-" + rows + "x" + columns + ".bin";
+    }
+
+    /** Maps a file written by {@link #write(Path)}; the tables are read straight from the page cache. */
+    public static PatternDatabase load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (map.remaining() < 20 || map.getInt() != MAGIC || map.getInt() != VERSION) {
+                throw new IOException("Not a pattern database file: " + file);
+            }
+            int rows = map.getInt();
+            int columns = map.getInt();
+            if (rows < 2 || columns < 2 || rows > SlidingPuzzleState.MAX_CELLS / columns) {
+                throw new IOException("Bad board size in pattern database file: " + file);
+            }
+            int cells = rows * columns;
+            // Every count is checked against the bytes left before it sizes an array
+            int count = map.getInt();
+            if (count < 1 || count > map.remaining() / 4) {
+                throw new IOException("Bad group count in pattern database file: " + file);
+            }
+            int[][] groups = new int[count][];
+            for (int g = 0; g < groups.length; g++) {
+                int size = map.remaining() >= 4 ? map.getInt() : -1;
+                if (size < 1 || size >= cells || size > map.remaining() / 4) {
+                    throw new IOException("Bad group in pattern database file: " + file);
+                }
+                groups[g] = new int[size];
+                for (int i = 0; i < groups[g].length; i++) {
+                    groups[g][i] = map.getInt();
+                    if (groups[g][i] < 1 || groups[g][i] >= cells) {
+                        throw new IOException("Bad tile in pattern database file: " + file);
+                    }
+                }
+            }
+
+            ByteBuffer[] tables = new ByteBuffer[groups.length];
+            int offset = map.position();
+            for (int g = 0; g < groups.length; g++) {
+                long length = tableBytes(cells, groups[g].length);
+                if (offset + length > map.limit()) {
+                    throw new IOException("Truncated pattern database file: " + file);
+                }
+                tables[g] = map.slice(offset, (int) length);
+                offset += (int) length;
+            }
+            return new PatternDatabase(rows, columns, groups, tables);
+        }
+    }
+
+    /** Writes the header and nibble-packed tables to a file that {@link #load(Path)} can map. */
+    public void write(Path file) throws IOException {
+        int headerSize = 20;
+        for (int[] group : groups) headerSize += 4 + 4 * group.length;
+        ByteBuffer header = ByteBuffer.allocate(headerSize);
+        header.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(columns).putInt(groups.length);
+        for (int[] group : groups) {
+            header.putInt(group.length);
+            for (int tile : group) header.putInt(tile);
+        }
+        header.flip();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) channel.write(header);
+            for (ByteBuffer table : tables) {
+                ByteBuffer data = table.duplicate();
+                data.clear();
+                while (data.hasRemaining()) channel.write(data);
+            }
+        }
+    }
+
+    /** Bytes of a nibble-packed table, capped at Integer.MAX_VALUE + 1 so a bad header cannot overflow it. */
+    private static long tableBytes(int cells, int groupSize) {
+        long patterns = 1;
+        for (int i = 0; i < groupSize && patterns <= 2L * Integer.MAX_VALUE; i++) patterns *= cells;
+        return Math.min((patterns + 1) / 2, Integer.MAX_VALUE + 1L);
+    }
+
+    /**
+     * Splits tiles 1..n-1 into consecutive row-major groups, each as large as possible while its
+     * abstract state space (cells^(groupSize + 1)) stays within maxStates.
+     */
+    public static int[][] defaultGroups(int rows, int columns, long maxStates) {
+        int cells = rows * columns;
+        int size = 1;
+        long states = (long) cells * cells;
+        while (size < cells - 1 && states * cells <= maxStates) {
+            states *= cells;
+            size++;
+        }
+
+        int tiles = cells - 1;
+        int count = (tiles + size - 1) / size;
+        int[][] groups = new int[count][];
+        int next = 1;
+        for (int g = 0; g < count; g++) {
+            int length = Math.min(size, tiles - next + 1);
+            groups[g] = new int[length];
+            for (int i = 0; i < length; i++) {
+                groups[g][i] = next++;
+            }
+        }
+        return groups;
+    }
+
+    /** Builds every group's table by breadth-first search backwards from the solved board. */
+    public static PatternDatabase build(int rows, int columns, int[][] groups) {
+        ByteBuffer[] tables = new ByteBuffer[groups.length];
+        for (int g = 0; g < groups.length; g++) {
+            tables[g] = pack(rows, columns, groups[g], buildTable(rows, columns, groups[g]));
+        }
+        return new PatternDatabase(rows, columns, groups, tables);
+    }
+
+    /** Converts raw move counts into nibbles holding (value - Manhattan distance) / 2. */
+    private static ByteBuffer pack(int rows, int columns, int[] tiles, byte[] raw) {
+        int cells = rows * columns;
+        ByteBuffer packed = ByteBuffer.allocate((int) tableBytes(cells, tiles.length));
+        for (int index = 0; index < raw.length; index++) {
+            int value = raw[index] & 0xFF;
+            if (value == UNSEEN) continue; // two tiles on one cell: never looked up
+
+            int manhattan = 0;
+            int rest = index;
+            for (int tile : tiles) {
+                int cell = rest % cells;
+                rest /= cells;
+                int goal = tile - 1;
+                manhattan += Math.abs(goal / columns - cell / columns) + Math.abs(goal % columns - cell % columns);
+            }
+            int nibble = Math.min(MAX_NIBBLE, (value - manhattan) / 2);
+            int b = packed.get(index >>> 1);
+            packed.put(index >>> 1, (byte) ((index & 1) == 0 ? b | nibble : b | (nibble << 4)));
+        }
+        return packed;
+    }
+
+    /**
+     * Breadth-first search over abstract states: the cells of the group's tiles plus the region of cells
+     * the blank can reach without moving a group tile (identified by its smallest cell). Moving a group
+     * tile into the blank's region costs one move; everything else happens inside the region for free.
+     */
+    static byte[] buildTable(int rows, int columns, int[] tiles) {
+        int cells = rows * columns;
+        int k = tiles.length;
+        int patterns = 1;
+        for (int i = 0; i < k; i++) {
+            patterns = Math.multiplyExact(patterns, cells);
+        }
+        int states = Math.multiplyExact(patterns, cells);
+
+        byte[] table = new byte[patterns];
+        java.util.Arrays.fill(table, (byte) UNSEEN);
+        long[] visited = new long[(states + 63) >>> 6];
+        long[] frontier = new long[visited.length];
+        long[] nextFrontier = new long[visited.length];
+
+        int[] neighbours = neighbourTable(rows, columns);
+        int[] multipliers = new int[k];
+        int[] positions = new int[k];
+        int[] owner = new int[cells]; // group tile slot occupying each cell, or -1
+        int[] region = new int[cells];
+        int[] nextRegion = new int[cells];
+        int[] stack = new int[cells];
+        boolean[] seen = new boolean[cells];
+        java.util.Arrays.fill(owner, -1);
+
+        int goalIndex = 0;
+        for (int i = 0, m = 1; i < k; i++, m *= cells) {
+            multipliers[i] = m;
+            positions[i] = tiles[i] - 1;
+            goalIndex += positions[i] * m;
+            owner[positions[i]] = i;
+        }
+        int goalRegion = floodFill(cells - 1, owner, neighbours, region, stack, seen);
+        for (int i = 0; i < k; i++) owner[positions[i]] = -1;
+
+        int start = goalIndex * cells + regionMin(region, goalRegion);
+        visited[start >>> 6] |= 1L << start;
+        frontier[start >>> 6] |= 1L << start;
+        table[goalIndex] = 0;
+
+        for (int depth = 0; ; depth++) {
+            boolean any = false;
+            java.util.Arrays.fill(nextFrontier, 0L);
+            for (int w = 0; w < frontier.length; w++) {
+                long word = frontier[w];
+                while (word != 0) {
+                    int id = (w << 6) | Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+
+                    int pattern = id / cells;
+                    int rep = id % cells;
+                    for (int i = 0, rest = pattern; i < k; i++, rest /= cells) {
+                        positions[i] = rest % cells;
+                        owner[positions[i]] = i;
+                    }
+
+                    int size = floodFill(rep, owner, neighbours, region, stack, seen);
+                    for (int j = 0; j < size; j++) {
+                        int cell = region[j];
+                        for (int d = 0; d < 4; d++) {
+                            int from = neighbours[cell * 4 + d];
+                            if (from < 0 || owner[from] < 0) continue;
+
+                            // Slide the group tile at 'from' into 'cell'; the blank ends up at 'from'
+                            int slot = owner[from];
+                            int nextPattern = pattern + (cell - from) * multipliers[slot];
+                            owner[from] = -1;
+                            owner[cell] = slot;
+                            int nextSize = floodFill(from, owner, neighbours, nextRegion, stack, seen);
+                            int nextId = nextPattern * cells + regionMin(nextRegion, nextSize);
+                            owner[cell] = -1;
+                            owner[from] = slot;
+
+                            if ((visited[nextId >>> 6] & (1L << nextId)) == 0) {
+                                visited[nextId >>> 6] |= 1L << nextId;
+                                nextFrontier[nextId >>> 6] |= 1L << nextId;
+                                any = true;
+                                if ((table[nextPattern] & 0xFF) == UNSEEN) {
+                                    table[nextPattern] = (byte) (depth + 1);
+                                }
+                            }
+                        }
+                    }
+                    for (int i = 0; i < k; i++) owner[positions[i]] = -1;
+                }
+            }
+            if (!any) break;
+            long[] swap = frontier;
+            frontier = nextFrontier;
+            nextFrontier = swap;
+        }
+        return table;
+    }
+
+    /** Collects the cells reachable from start without crossing a group tile; returns how many. */
+    private static int floodFill(int start, int[] owner, int[] neighbours, int[] region, int[] stack, boolean[] seen) {
+        java.util.Arrays.fill(seen, false);
+        int size = 0;
+        int top = 0;
+        stack[top++] = start;
+        seen[start] = true;
+        while (top > 0) {
+            int cell = stack[--top];
+            region[size++] = cell;
+            for (int d = 0; d < 4; d++) {
+                int next = neighbours[cell * 4 + d];
+                if (next >= 0 && !seen[next] && owner[next] < 0) {
+                    seen[next] = true;
+                    stack[top++] = next;
+                }
+            }
+        }
+        return size;
+    }
+
+    private static int regionMin(int[] region, int size) {
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) min = Math.min(min, region[i]);
+        return min;
+    }
+
+    /** Neighbouring cell in each of the four directions (up, down, left, right), or -1 off the board. */
+    static int[] neighbourTable(int rows, int columns) {
+        int[] neighbours = new int[rows * columns * 4];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                int i = (r * columns + c) * 4;
+                neighbours[i] = r > 0 ? (r - 1) * columns + c : -1;
+                neighbours[i + 1] = r < rows - 1 ? (r + 1) * columns + c : -1;
+                neighbours[i + 2] = c > 0 ? r * columns + c - 1 : -1;
+                neighbours[i + 3] = c < columns - 1 ? r * columns + c + 1 : -1;
+            }
+        }
+        return neighbours;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getGroupCount() {
+        return groups.length;
+    }
+
+    public int[] getGroup(int g) {
+        return groups[g].clone();
+    }
+
+    public int groupOf(int tile) {
+        return groupOf[tile];
+    }
+
+    public int multiplierOf(int tile) {
+        return multiplierOf[tile];
+    }
+
+    /** Index of a group's placement given the cell of every tile (cellOf[tile]). */
+    public int indexOf(int g, int[] cellOf) {
+        int index = 0;
+        int multiplier = 1;
+        for (int tile : groups[g]) {
+            index += cellOf[tile] * multiplier;
+            multiplier *= cells;
+        }
+        return index;
+    }
+
+    /**
+     * Lower bound on moves of group g's tiles from the placement with the given index, given the
+     * Manhattan distance of just that group's tiles (which callers already track incrementally).
+     */
+    public int lookup(int g, int index, int groupManhattan) {
+        int b = tables[g].get(index >>> 1);
+        int nibble = (index & 1) == 0 ? b & 0xF : (b >>> 4) & 0xF;
+        return groupManhattan + 2 * nibble;
+    }
+}
@@ -0,0 +1,93 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Offline generator for Sliding Puzzle pattern database files.
+ * Usage: java PatternDatabaseGenerator rows columns [groups] [output directory]
+ * Groups are either sizes of consecutive row-major runs ("5-5-5") or explicit tile lists ("1,2,3/4,5,6/7,8").
+ * The file is named after the board size and is picked up automatically by the solver when it sits in
+ * the directory named by the slidingpuzzle.pdb.dir property (default "pdb").
+ */
+public class PatternDatabaseGenerator {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java PatternDatabaseGenerator rows columns [groups, e.g. 5-5-5 or 1,2,3/4,5,6/...] [output directory]");
+            return;
+        }
+        int rows = Integer.parseInt(args[0]);
+        int columns = Integer.parseInt(args[1]);
+        int[][] groups = args.length > 2 ? parseGroups(args[2], rows * columns) : defaultGroups(rows, columns);
+        Path directory = Paths.get(args.length > 3 ? args[3] : System.getProperty(PatternDatabase.DIRECTORY_PROPERTY, "pdb"));
+
+        long start = System.nanoTime();
+        PatternDatabase database = PatternDatabase.build(rows, columns, groups);
+        Files.createDirectories(directory);
+        Path file = directory.resolve(PatternDatabase.fileName(rows, columns));
+        database.write(file);
+
+        System.out.println("Wrote " + file + " (" + Files.size(file) + " bytes, groups " + describe(groups)
+                + ") in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * The 4x4 board gets the usual 6-6-3 split into compact blocks (left two columns minus the top row,
+     * right two columns minus the top row, and the rest of the top row); other sizes use the runtime grouping.
+     */
+    private static int[][] defaultGroups(int rows, int columns) {
+        if (rows == 4 && columns == 4) return parseGroups("1,5,6,9,10,13/7,8,11,12,14,15/2,3,4", 16);
+        return PatternDatabase.defaultGroups(rows, columns, 1L << 28);
+    }
+
+    /** Parses "6-6-3" style run sizes or "1,5,6/2,3,4/..." style tile lists; every tile must appear once. */
+    static int[][] parseGroups(String spec, int cells) {
+        int[][] groups;
+        if (spec.contains(",") || spec.contains("/")) {
+            String[] parts = spec.split("/");
+            groups = new int[parts.length][];
+            for (int g = 0; g < parts.length; g++) {
+                String[] tiles = parts[g].split(",");
+                groups[g] = new int[tiles.length];
+                for (int i = 0; i < tiles.length; i++) {
+                    groups[g][i] = Integer.parseInt(tiles[i].trim());
+                }
+            }
+        } else {
+            String[] parts = spec.split("-");
+            groups = new int[parts.length][];
+            int next = 1;
+            for (int g = 0; g < parts.length; g++) {
+                groups[g] = new int[Integer.parseInt(parts[g])];
+                for (int i = 0; i < groups[g].length; i++) {
+                    groups[g][i] = next++;
+                }
+            }
+        }
+
+        boolean[] used = new boolean[cells];
+        int count = 0;
+        for (int[] group : groups) {
+            for (int tile : group) {
+                if (tile < 1 || tile >= cells || used[tile]) {
+                    throw new IllegalArgumentException("Groups must cover tiles 1.." + (cells - 1) + " exactly once.");
+                }
+                used[tile] = true;
+                count++;
+            }
+        }
+        if (count != cells - 1) {
+            throw new IllegalArgumentException("Groups must cover tiles 1.." + (cells - 1) + " exactly once.");
+        }
+        return groups;
+    }
+
+    private static String describe(int[][] groups) {
+        StringBuilder sb = new StringBuilder();
+        for (int[] group : groups) {
+            if (sb.length() > 0) sb.append('-');
+            sb.append(group.length);
+        }
+        return sb.toString();
+    }
+}
@@ -3,21 +3,17 @@ import java.util.*;
 public class Quoridor extends Game {
     private Player player1;
     private Player player2;
-    private int current = 0;
-    private final int ROWS = 9;
-    private final int COLUMNS = 9;
-    private final int INITIAL_WALLS = 10;
-    
-    // Game-specific state: Pawn positions (0-indexed)
-    private int[] pawn1Pos = new int[2]; // {row, col}
-    private int[] pawn2Pos = new int[2];
-    
-    // Game-specific state: Wall counts
-    private int walls1 = INITIAL_WALLS;
-    private int walls2 = INITIAL_WALLS;
-    
-    private Wall[][] hWalls = new Wall[ROWS - 1][COLUMNS]; 
-    private Wall[][] vWalls = new Wall[ROWS][COLUMNS - 1];
+    private final int ROWS = QuoridorState.SIZE;
+    private final int COLUMNS = QuoridorState.SIZE;
+
+    // Game-specific state (pawn squares, wall anchors, wall counts and turn) and the rules that change it
+    private final QuoridorRules rules = new QuoridorRules();
+    private final QuoridorState state = rules.getState();
+
+    // Created on first use so human-only games never allocate search buffers
+    private QuoridorAI ai;
+    // Board labels of the two pawns (the players' initials), made on the first frame
+    private String[] pawnLabels;
 
     public Quoridor(Menu menu, InputHandler inputHandler) {
         super(menu, inputHandler);
@@ -25,36 +21,10 @@ public class Quoridor extends Game {
 
     public void initializeGame() {
         // 1. Initialize Board
-        board = new Board(ROWS, COLUMNS);
-        Tile[][] tiles = new Tile[ROWS][COLUMNS];
-        for (int r = 0; r < ROWS; r++) {
-            for (int c = 0; c < COLUMNS; c++) {
-                tiles[r][c] = new Tile(String.valueOf(r * COLUMNS + c)); // Tile value is irrelevant, used for consistency
-            }
-        }
-        board.setPieces(tiles);
+        createBoard();
 
-        // 2. Set initial pawn positions (P1: bottom center, P2: top center)
-        pawn1Pos = new int[]{ROWS - 1, COLUMNS / 2};
-        pawn2Pos = new int[]{0, COLUMNS / 2};
-
-        // 3. Set initial wall counts and empty wall arrays
-        walls1 = INITIAL_WALLS;
-        walls2 = INITIAL_WALLS;
-        
-
-        //initialize vertical and horizontal wall arrays
-        for(int r = 0; r < ROWS - 1; r++){
-            for(int c = 0; c < COLUMNS; c++){
-                hWalls[r][c] = new Wall('H');
-            }
-        }
-    
-        for(int r = 0; r < ROWS; r++){
-            for(int c = 0; c < COLUMNS - 1; c++){
-                vWalls[r][c] = new Wall('V');
-            }
-        }
+        // 2. Reset pawns, wall counts and the wall bitboards
+        rules.reset();
 
         setGameActive(true);
 
@@ -69,261 +39,141 @@ public class Quoridor extends Game {
         menu.displayMessages(instructions);
     }
 
-    /** Builds the DisplayInfo grid for the Board's printer. */
-    public Tile.DisplayInfo[][] getDisplayGrid() {
-        Tile.DisplayInfo[][] grid = new Tile.DisplayInfo[ROWS][COLUMNS];
-        Tile[][] pieces = board.getPieces(); 
-        
-        // Player labels (using initials)
-        char label1 = initial(player1.getName());
-        char label2 = initial(player2.getName());
-
+    private void createBoard() {
+        board = new Board(ROWS, COLUMNS);
+        Tile[][] tiles = new Tile[ROWS][COLUMNS];
         for (int r = 0; r < ROWS; r++) {
             for (int c = 0; c < COLUMNS; c++) {
-                Tile.DisplayInfo info = pieces[r][c].getDisplayInfo(null);
-                
-                // Set Pawn Content
-                if (r == pawn1Pos[0] && c == pawn1Pos[1]) {
-                    info.centerContent = String.valueOf(label1);
-                } else if (r == pawn2Pos[0] && c == pawn2Pos[1]) {
-                    info.centerContent = String.valueOf(label2);
-                } else {
-                    info.centerContent = " ";
-                }
-                
-                // Overlay Wall State (Edges)
-                // Top Edge (r-1, c) is the hWall[r-1][c] slot
-                if (r > 0) info.topEdge = hWalls[r - 1][c].isPresent();
-                
-                // Bottom Edge (r, c) is the hWall[r][c] slot
-                if (r < ROWS - 1) info.bottomEdge = hWalls[r][c].isPresent();
-
-                // Left Edge (r, c-1) is the vWall[r][c-1] slot
-                if (c > 0) info.leftEdge = vWalls[r][c - 1].isPresent();
-                
-                // Right Edge (r, c) is the vWall[r][c] slot
-                if (c < COLUMNS - 1) info.rightEdge = vWalls[r][c].isPresent();
-                
-                grid[r][c] = info;
+                tiles[r][c] = new Tile(String.valueOf(r * COLUMNS + c)); // Tile value is irrelevant, used for consistency
             }
         }
-        return grid;
-    }
-    
-    public String[][] getBoardDisplay() {
-        displayScore(); // Display score/walls before the board
-        return board.getBoardDisplay(getDisplayGrid());
+        board.setPieces(tiles);
     }
 
-    public int makeMove() {
-        Player player = current == 0 ? player1 : player2;
-        
-        String input = inputHandler.getMove(player, " to move (M U/D/L/R | H/V r c | q): ");
-
-        if (input.equalsIgnoreCase("q")) {
-            return -1;
+    /**
+     * Full snapshot of the game: a private copy of the position (pawns, walls, wall counts and the side to
+     * move) that later moves never touch, so it can be kept, encoded or loaded any number of times.
+     */
+    @Override
+    public GameState saveState() {
+        QuoridorState snapshot = new QuoridorState();
+        snapshot.copyFrom(state);
+        GameState saved = new GameState();
+        saved.boardData = snapshot;
+        saved.currentTurn = state.getCurrent();
+        saved.player1Score = rules.getScore(0);
+        saved.player2Score = rules.getScore(1);
+        saved.gameActive = gameActive;
+        return saved;
+    }
+
+    /** Continues a game from {@link #saveState()} in place of {@link #initializeGame()}. */
+    @Override
+    public void loadState(GameState saved) {
+        if (saved.boardData instanceof QuoridorState position) {
+            createBoard();
+            rules.load(position);
         }
+        this.gameActive = saved.gameActive;
+    }
 
-        String[] parts = input.trim().split("\\s+");
+    /** Draws the pawns (by initial) and the wall segments into the board's frame. */
+    public BoardFrame renderBoard() {
+        if (pawnLabels == null) {
+            pawnLabels = new String[]{String.valueOf(initial(player1.getName())), String.valueOf(initial(player2.getName()))};
+        }
+        BoardFrame frame = board.getFrame();
+        int pawn1 = state.getPawnSquare(0);
+        int pawn2 = state.getPawnSquare(1);
 
-        char moveType = Character.toUpperCase(parts[0].charAt(0));
+        for (int r = 0; r < ROWS; r++) {
+            for (int c = 0; c < COLUMNS; c++) {
+                int square = QuoridorState.square(r, c);
+                String label = square == pawn1 ? pawnLabels[0] : square == pawn2 ? pawnLabels[1] : " ";
 
-        if (moveType == 'M') {
-            if (parts.length != 2) {
-                menu.displayError("Invalid Move format. Use: M [U/D/L/R]");
-                return 1;
-            }
-            char direction = Character.toUpperCase(parts[1].charAt(0));
-            
-            // Call the updated move function
-            if (tryMovePawnDirection(direction)) {
-                current = 1 - current;
-                return 1;
-            }
-            
-        } else if (moveType == 'H' || moveType == 'V') {
-            if (parts.length != 3) {
-                menu.displayError("Invalid Wall format. Use: H/V r c");
-                return 1;
-            }
-            int r, c;
-            try {
-                r = Integer.parseInt(parts[1]) - 1; 
-                c = Integer.parseInt(parts[2]) - 1;
-            } catch (NumberFormatException e) {
-                menu.displayError("Coordinates must be numbers for wall placement.");
-                return 1;
-            }
+                // The outer border is always drawn; inside it an edge is a wall segment
+                // (top: the horizontal segment below (r-1, c), left: the vertical segment right of (r, c-1))
+                int edges = 0;
+                if (r == 0 || state.hasHorizontalSegment(r - 1, c)) edges |= BoardFrame.TOP;
+                if (r == ROWS - 1 || state.hasHorizontalSegment(r, c)) edges |= BoardFrame.BOTTOM;
+                if (c == 0 || state.hasVerticalSegment(r, c - 1)) edges |= BoardFrame.LEFT;
+                if (c == COLUMNS - 1 || state.hasVerticalSegment(r, c)) edges |= BoardFrame.RIGHT;
 
-            if (tryPlaceWall(moveType, r, c)) {
-                current = 1 - current;
-                return 1;
+                frame.setCell(r, c, edges, label);
             }
-        } else {
-            menu.displayError("Invalid move type. Use M, H, or V.");
         }
-
-        return 1;
+        return frame.render();
     }
 
-    /**
-     * Attempts to move the current player's pawn one space in the given direction.
-     * Direction: U, D, L, or R.
-     */
-    private boolean tryMovePawnDirection(char direction) {
-        int[] currentPos = current == 0 ? pawn1Pos : pawn2Pos;
-        int[] otherPos = current == 0 ? pawn2Pos : pawn1Pos;
-        
-        int r = currentPos[0];
-        int c = currentPos[1];
-
-        int targetR = r;
-        int targetC = c;
-        
-        // 1. Calculate the Target Coordinates
-        switch (direction) {
-            case 'U': targetR--; break;
-            case 'D': targetR++; break;
-            case 'L': targetC--; break;
-            case 'R': targetC++; break;
-            default:
-                menu.displayError("Invalid direction. Use U, D, L, or R.");
-                return false;
-        }
-        
-        // 2. Bounds Check
-        if (!board.isValidPosition(targetR, targetC)) {
-            menu.displayError("Move is out of board bounds.");
-            return false;
-        }
-        
-        // 3. Wall Blocking Check
-        // Check for a wall between the current position (r, c) and the target position (targetR, targetC)
-        if (isWallBlocking(r, c, targetR, targetC)) {
-            menu.displayError("Move blocked by a wall.");
-            return false;
-        }
-
-        // 4. Pawn Blocking Check
-        if (targetR == otherPos[0] && targetC == otherPos[1]) {
-            // This is where advanced Quoridor rules (jumping, diagonal) would go.
-            menu.displayError("Space blocked by the other pawn.");
-            return false;
-        }
-
-        // 5. Commit Move
-        if (current == 0) pawn1Pos = new int[]{targetR, targetC};
-        else pawn2Pos = new int[]{targetR, targetC};
-        
-        return true;
+    public String[][] getBoardDisplay() {
+        return renderBoard().toLines();
     }
-    
-    private boolean isWallBlocking(int r1, int c1, int r2, int c2) {
-        if (r1 == r2) { // Horizontal move (c1 -> c2)
-            int minC = Math.min(c1, c2);
-            return vWalls[r1][minC].isPresent(); // Check vertical wall slot
 
-        } else if (c1 == c2) { // Vertical move (r1 -> r2)
-            int minR = Math.min(r1, r2);
-            return hWalls[minR][c1].isPresent(); // Check horizontal wall slot
+    public int makeMove() {
+        Player player = state.getCurrent() == 0 ? player1 : player2;
+        return makeMoveFromInput(inputHandler.getMove(player, " to move (M U/D/L/R | H/V r c | q): "));
     }
-    return false;
-}
-    private boolean tryPlaceWall(char orientation, int r, int c) {
-        int wallCount = current == 0 ? walls1 : walls2;
-        int ownerId = current == 0 ? 1 : 2;
-        
-        if (wallCount <= 0) {
-            menu.displayError("No walls remaining.");
-            return false;
+
+    /**
+     * Message for a move the rules could not parse, worded for what was typed: a well-shaped move ("M x",
+     * "H a b") fails only on its direction or coordinates, anything else on its format.
+     */
+    private String parseError(int code, String input) {
+        char moveType = Character.toUpperCase(input.charAt(0));
+        int words = input.split("\\s+").length;
+        if (code == GameRules.OUT_OF_BOUNDS) {
+            if (moveType == 'H') return "Horizontal wall (H r c) requires r in [1, 8] and c in [1, 8] (1-indexed).";
+            if (moveType == 'V') return "Vertical wall (V r c) requires r in [1, 8] and c in [1, 8] (1-indexed).";
+            return "Move is out of board bounds.";
         }
-        
-        // Wall placement validation
-        if (!isWallPlacementValid(orientation, r, c)) {
-            return false;
+        if (moveType == 'M') {
+            return words == 2 ? "Invalid direction. Use U, D, L, or R." : "Invalid Move format. Use: M [U/D/L/R]";
         }
-
-        // Wall placement (a wall is 2 slots long)
-        if (orientation == 'H') {
-            hWalls[r][c].placeWall(ownerId);
-            hWalls[r][c + 1].placeWall(ownerId); // Wall spans c and c+1
-        } else { // 'V'
-            vWalls[r][c].placeWall(ownerId);
-            vWalls[r + 1][c].placeWall(ownerId); // Wall spans r and r+1
+        if (moveType == 'H' || moveType == 'V') {
+            return words == 3 ? "Coordinates must be numbers for wall placement." : "Invalid Wall format. Use: H/V r c";
         }
-        
-        // Commit wall placement
-        if (current == 0) walls1--;
-        else walls2--;
-        
-        return true;
+        return "Invalid move type. Use M, H, or V.";
     }
-    
-    // Checks placement bounds, overlap, and crossover
-    private boolean isWallPlacementValid(char orientation, int r, int c) {
-        // Bounds Check (H: r E [0, 7], c E [0, 7]. V: r E [0, 7], c E [0, 7])
-        if (orientation == 'H') {
-            if (r < 0 || r >= ROWS - 1 || c < 0 || c >= COLUMNS - 1) {
-                menu.displayError("Horizontal wall (H r c) requires r in [1, 8] and c in [1, 8] (1-indexed).");
-                return false;
-            }
-            // Overlap check (needs 2 consecutive slots to be empty)
-            if (hWalls[r][c].isPresent() || hWalls[r][c + 1].isPresent()) {
-                menu.displayError("Wall overlaps an existing wall.");
-                return false;
-            }
-            // Crossover check (vertical wall must not intersect at r, c)
-            if (vWalls[r][c].isPresent() && vWalls[r + 1][c].isPresent()) {
-                 menu.displayError("Wall cannot cross an existing vertical wall.");
-                 return false;
-            }
 
-        } else { // 'V'
-            if (r < 0 || r >= ROWS - 1 || c < 0 || c >= COLUMNS - 1) {
-                menu.displayError("Vertical wall (V r c) requires r in [1, 8] and c in [1, 8] (1-indexed).");
-                return false;
-            }
-            // Overlap check (needs 2 consecutive slots to be empty)
-            if (vWalls[r][c].isPresent() || vWalls[r + 1][c].isPresent()) {
-                menu.displayError("Wall overlaps an existing wall.");
-                return false;
-            }
-            // Crossover check
-            if (hWalls[r][c].isPresent() && hWalls[r][c + 1].isPresent()) {
-                 menu.displayError("Wall cannot cross an existing horizontal wall.");
-                 return false;
-            }
+    /** Message for a well-formed move that the rules rejected. */
+    private String moveError(int code, int move) {
+        switch (code) {
+            case GameRules.BLOCKED: return "Move blocked by a wall.";
+            case GameRules.OCCUPIED: return "Space blocked by the other pawn.";
+            case GameRules.CROSSES:
+                return QuoridorState.moveType(move) == QuoridorState.HORIZONTAL
+                        ? "Wall cannot cross an existing vertical wall."
+                        : "Wall cannot cross an existing horizontal wall.";
+            default: return GameRules.describe(code);
         }
-        return true;
     }
 
     public boolean isGameWon() {
-        // Player 1 wins if they reach the top row (row 0)
-        if (pawn1Pos[0] == 0) return true;
-        // Player 2 wins if they reach the bottom row (row 8)
-        if (pawn2Pos[0] == ROWS - 1) return true;
-        return false;
+        // Player 1 wins on the top row (row 0), Player 2 on the bottom row (row 8)
+        return state.isGameOver();
     }
 
-    private void displayScore() {
+    /** Walls left and whose turn it is, shown above the board every turn. */
+    @Override
+    public void displayStatus() {
         String[] messages = {
                 "\nWalls Remaining:",
-                player1.getName() + " (" + initial(player1.getName()) + "): " + walls1 + 
-                " | " + player2.getName() + " (" + initial(player2.getName()) + "): " + walls2,
-                "It is " + (current == 0 ? player1.getName() : player2.getName()) + "'s turn."
+                player1.getName() + " (" + initial(player1.getName()) + "): " + state.getWallsLeft(0) + 
+                " | " + player2.getName() + " (" + initial(player2.getName()) + "): " + state.getWallsLeft(1),
+                "It is " + (state.getCurrent() == 0 ? player1.getName() : player2.getName()) + "'s turn."
         };
         menu.displayMessages(messages);
     }
     
     public void displayVictory() {
-        String winnerName = (pawn1Pos[0] == 0) ? player1.getName() : player2.getName();
+        String winnerName = state.hasWon(0) ? player1.getName() : player2.getName();
         menu.displayMessage("\nGame Over! Congratulations " + winnerName + ", you reached the goal!");
     }
 
     public void displaySummary() {
         String summary = "Game ended prematurely. Final positions:\n" +
-                player1.getName() + " at (" + (pawn1Pos[0] + 1) + ", " + (pawn1Pos[1] + 1) + ")" +
-                "\n" + player2.getName() + " at (" + (pawn2Pos[0] + 1) + ", " + (pawn2Pos[1] + 1) + ")";
+                player1.getName() + " at (" + (state.getPawnRow(0) + 1) + ", " + (state.getPawnColumn(0) + 1) + ")" +
+                "\n" + player2.getName() + " at (" + (state.getPawnRow(1) + 1) + ", " + (state.getPawnColumn(1) + 1) + ")";
         menu.displayMessage(summary);
     }
 
@@ -331,6 +181,27 @@ public class Quoridor extends Game {
         this.player1 = player1;
         this.player2 = player2;
     }
+
+    @Override
+    public GameRules getRules() {
+        return rules;
+    }
+
+    @Override
+    public Player getCurrentPlayer() {
+        return state.getCurrent() == 0 ? player1 : player2;
+    }
+
+    @Override
+    public String suggestMove(long timeLimitMillis) {
+        if (ai == null) ai = new QuoridorAI();
+        int move = ai.chooseMove(state, timeLimitMillis);
+        if (move < 0) return null;
+        menu.displayMessage("Searched to depth " + ai.getDepthReached() + ": " + ai.getNodes() + " nodes in "
+                + ai.getElapsedMillis() + " ms (" + ai.getNodesPerSecond() + " nodes/s, "
+                + Math.round(ai.getTable().getHitRate() * 100) + "% table hits)");
+        return QuoridorState.toCommand(move);
+    }
     
     public boolean isActive(int flag) {
         return flag == 1;
@@ -357,51 +228,26 @@ public class Quoridor extends Game {
             return 1; // handled by GameEngine
         }
 
-        Player player = current == 0 ? player1 : player2;
         String input = command.trim();
 
         if (input.equalsIgnoreCase("q")) {
             return -1;
         }
-
-        String[] parts = input.split("\\s+");
-        if (parts.length == 0) {
+        if (input.isEmpty()) {
             menu.displayError("Please enter a move.");
             return 1;
         }
 
-        char moveType = Character.toUpperCase(parts[0].charAt(0));
-
-        if (moveType == 'M') {
-            if (parts.length != 2) {
-                menu.displayError("Invalid Move format. Use: M [U/D/L/R]");
-                return 1;
-            }
-            char direction = Character.toUpperCase(parts[1].charAt(0));
-            if (tryMovePawnDirection(direction)) {
-                current = 1 - current;
-            }
-            return 1;
-
-        } else if (moveType == 'H' || moveType == 'V') {
-            if (parts.length != 3) {
-                menu.displayError("Invalid Wall format. Use: H/V r c");
-                return 1;
-            }
-            try {
-                int r = Integer.parseInt(parts[1]) - 1;
-                int c = Integer.parseInt(parts[2]) - 1;
-                if (tryPlaceWall(moveType, r, c)) {
-                    current = 1 - current;
-                }
-            } catch (NumberFormatException e) {
-                menu.displayError("Coordinates must be numbers for wall placement.");
-            }
-            return 1;
-
-        } else {
-            menu.displayError("Invalid move type. Use M, H, or V.");
+        // The rules parse and check the move; this layer only words the outcome
+        int move = rules.parseMove(input);
+        if (move < 0) {
+            menu.displayError(parseError(move, input));
             return 1;
         }
+        int result = rules.apply(move);
+        if (result != GameRules.OK) {
+            menu.displayError(moveError(result, move));
+        }
+        return 1;
     }
 }
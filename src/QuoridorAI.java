@@ -0,0 +1,260 @@
+/**
+ * Computer opponent for Quoridor.
+ * Runs an iterative-deepening alpha-beta (negamax) search on a private copy of the position,
+ * scoring leaves by the difference in shortest-path length to each player's goal row.
+ * Positions reached by different move orders are looked up in a transposition table keyed by Zobrist hash;
+ * the key is the canonical hash, so a position and its left-right mirror image share an entry.
+ * Every search respects a strict time limit and records node counts for throughput tracking.
+ */
+public class QuoridorAI {
+    private static final int MAX_DEPTH = 32;
+    private static final int WIN = 1_000_000;
+    private static final int INFINITY = WIN + 1;
+    private static final int WIN_BOUND = WIN - 1000; // scores beyond this are distance-to-win scores
+    private static final int TABLE_BITS = 18;
+
+    // Evaluation weights: one step of path length outweighs any number of spare walls
+    private static final int PATH_WEIGHT = 100;
+    private static final int WALL_WEIGHT = 5;
+
+    // Move ordering bonuses
+    private static final int PV_BONUS = 1 << 30;
+    private static final int ADVANCE_BONUS = 1 << 20;
+
+    // History table slots: 81 pawn targets, then 64 horizontal and 64 vertical anchors
+    private static final int HISTORY_SIZE = QuoridorState.SQUARES + 2 * QuoridorState.ANCHORS * QuoridorState.ANCHORS;
+
+    private final QuoridorState state = new QuoridorState();
+    private final int[][] moves = new int[MAX_DEPTH + 1][QuoridorState.MAX_MOVES];
+    private final int[][] orderKeys = new int[MAX_DEPTH + 1][QuoridorState.MAX_MOVES];
+    private final int[][] history = new int[2][HISTORY_SIZE];
+    private final TranspositionTable table = new TranspositionTable(TABLE_BITS);
+
+    private long deadline;
+    private boolean aborted;
+    private long nodes;
+    private long elapsedNanos;
+    private int depthReached;
+    private int pvMove;
+    private int rootScore;
+
+    /**
+     * Picks a move for the side to move in the given position within the time limit.
+     * Returns the encoded move, or -1 if the side to move has no legal move.
+     */
+    public int chooseMove(QuoridorState position, long timeLimitMillis) {
+        state.copyFrom(position);
+        long start = System.nanoTime();
+        deadline = start + timeLimitMillis * 1_000_000L;
+        aborted = false;
+        nodes = 0;
+        depthReached = 0;
+        pvMove = -1;
+        table.newSearch();
+        for (int[] counts : history) {
+            java.util.Arrays.fill(counts, 0);
+        }
+
+        int bestMove = -1;
+        for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+            int move = searchRoot(depth);
+            if (aborted) {
+                // A partial first iteration (best ordered move so far) still beats moving blindly
+                if (depth == 1) bestMove = move;
+                break;
+            }
+            bestMove = move;
+            pvMove = move;
+            depthReached = depth;
+            if (bestMove < 0 || Math.abs(rootScore) > WIN_BOUND) break; // forced result found
+        }
+        elapsedNanos = System.nanoTime() - start;
+        return bestMove;
+    }
+
+    private int searchRoot(int depth) {
+        int count = orderMoves(0, pvMove);
+        int alpha = -INFINITY;
+        int best = count > 0 ? moves[0][0] : -1;
+        for (int i = 0; i < count; i++) {
+            int move = moves[0][i];
+            state.make(move);
+            int score = -search(depth - 1, 1, -INFINITY, -alpha);
+            state.unmake(move);
+            if (aborted) break;
+            if (score > alpha) {
+                alpha = score;
+                best = move;
+            }
+        }
+        rootScore = alpha;
+        return best;
+    }
+
+    private int search(int depth, int ply, int alpha, int beta) {
+        if ((++nodes & 1023) == 0 && System.nanoTime() > deadline) {
+            aborted = true;
+        }
+        if (aborted) return 0;
+
+        int side = state.getCurrent();
+        if (state.hasWon(side ^ 1)) return -WIN + ply; // the player who just moved reached their goal
+        if (depth == 0 || ply >= MAX_DEPTH) return evaluate(side);
+
+        // Table moves are stored as they are on the canonical board
+        int transform = state.getCanonicalTransform();
+        long key = state.getCanonicalHash();
+        long entry = table.probe(key);
+        int tableMove = -1;
+        if (entry != TranspositionTable.MISS) {
+            int stored = TranspositionTable.move(entry);
+            if (stored >= 0) tableMove = QuoridorState.mirrorMove(stored, transform);
+            if (TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int count = orderMoves(ply, tableMove);
+        if (count == 0) return evaluate(side);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = -1;
+        int[] list = moves[ply];
+        for (int i = 0; i < count; i++) {
+            int move = list[i];
+            state.make(move);
+            int score = -search(depth - 1, ply + 1, -beta, -alpha);
+            state.unmake(move);
+            if (aborted) return 0;
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        history[side][historyIndex(move)] += depth * depth;
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = best <= originalAlpha ? TranspositionTable.UPPER
+                : best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        table.store(key, toTable(best, ply), bestMove < 0 ? -1 : QuoridorState.mirrorMove(bestMove, transform), depth, bound);
+        return best;
+    }
+
+    // Win scores count plies from the root; the table stores them relative to the node instead
+    private static int toTable(int score, int ply) {
+        if (score > WIN_BOUND) return score + ply;
+        if (score < -WIN_BOUND) return score - ply;
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score > WIN_BOUND) return score - ply;
+        if (score < -WIN_BOUND) return score + ply;
+        return score;
+    }
+
+    /** Static score from the point of view of the given side. */
+    private int evaluate(int side) {
+        int mine = state.distanceToGoal(side);
+        int theirs = state.distanceToGoal(side ^ 1);
+        return (theirs - mine) * PATH_WEIGHT
+                + (state.getWallsLeft(side) - state.getWallsLeft(side ^ 1)) * WALL_WEIGHT;
+    }
+
+    /**
+     * Generates moves for the given ply and sorts them: the remembered best move first, then pawn steps
+     * that shorten our path, then by history score and closeness of walls to the opponent's pawn.
+     */
+    private int orderMoves(int ply, int preferredMove) {
+        int[] list = moves[ply];
+        int[] keys = orderKeys[ply];
+        int count = state.generateMoves(list);
+        int side = state.getCurrent();
+        int distance = ply == 0 ? state.distanceToGoal(side) : -1;
+        int opponent = state.getPawnSquare(side ^ 1);
+        int oppRow = opponent / QuoridorState.SIZE;
+        int oppCol = opponent % QuoridorState.SIZE;
+
+        for (int i = 0; i < count; i++) {
+            int move = list[i];
+            int key = history[side][historyIndex(move)];
+            if (move == preferredMove) {
+                key += PV_BONUS;
+            }
+            if (QuoridorState.moveType(move) == QuoridorState.PAWN) {
+                int to = QuoridorState.moveTarget(move);
+                int toRow = to / QuoridorState.SIZE;
+                boolean forward = Math.abs(toRow - QuoridorState.goalRow(side))
+                        < Math.abs(QuoridorState.moveFrom(move) / QuoridorState.SIZE - QuoridorState.goalRow(side));
+                if (ply == 0) {
+                    // At the root we can afford an exact check of whether the step shortens our path
+                    state.make(move);
+                    forward = state.distanceToGoal(side) < distance;
+                    state.unmake(move);
+                }
+                if (forward) key += ADVANCE_BONUS;
+                key += ADVANCE_BONUS >> 1;
+            } else {
+                int a = QuoridorState.moveTarget(move);
+                int r = a / QuoridorState.ANCHORS;
+                int c = a % QuoridorState.ANCHORS;
+                key -= Math.abs(r - oppRow) + Math.abs(c - oppCol);
+            }
+            keys[i] = key;
+        }
+
+        // Insertion sort by descending key; the lists are short and already partly ordered
+        for (int i = 1; i < count; i++) {
+            int move = list[i];
+            int key = keys[i];
+            int j = i - 1;
+            while (j >= 0 && keys[j] < key) {
+                list[j + 1] = list[j];
+                keys[j + 1] = keys[j];
+                j--;
+            }
+            list[j + 1] = move;
+            keys[j + 1] = key;
+        }
+        return count;
+    }
+
+    private static int historyIndex(int move) {
+        int type = QuoridorState.moveType(move);
+        int target = QuoridorState.moveTarget(move);
+        if (type == QuoridorState.PAWN) return target;
+        return QuoridorState.SQUARES + (type - 1) * QuoridorState.ANCHORS * QuoridorState.ANCHORS + target;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public int getDepthReached() {
+        return depthReached;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedNanos / 1_000_000L;
+    }
+
+    public long getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos;
+    }
+}
@@ -0,0 +1,19 @@
+/** {@link QuoridorAI} with a fixed thinking time per move, as a {@link Bot}. */
+public class QuoridorBot implements Bot {
+    private final QuoridorAI ai = new QuoridorAI();
+    private final long timeLimitMillis;
+
+    public QuoridorBot(long timeLimitMillis) {
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    @Override
+    public String getName() {
+        return "search-" + timeLimitMillis + "ms";
+    }
+
+    @Override
+    public int chooseMove(GameRules rules) {
+        return ai.chooseMove(((QuoridorRules) rules).getState(), timeLimitMillis);
+    }
+}
@@ -0,0 +1,179 @@
+import java.util.regex.Pattern;
+
+/**
+ * Headless Quoridor rules on top of {@link QuoridorState}. Moves use the state's encoding
+ * ({@link QuoridorState#pawnMove}, {@link QuoridorState#wallMove}). Pawns step one square (no jumps);
+ * the first player to reach their goal row scores the game's only point.
+ *
+ * Error codes: {@link #INVALID_FORMAT}, {@link #OUT_OF_BOUNDS}, {@link #OCCUPIED} (the other pawn),
+ * {@link #BLOCKED} (a wall), {@link #NO_WALLS_LEFT}, {@link #OVERLAPS}, {@link #CROSSES},
+ * {@link #CUTS_OFF_GOAL} and {@link #GAME_OVER}.
+ */
+public class QuoridorRules implements GameRules {
+    private static final int SIZE = QuoridorState.SIZE;
+    private static final int ANCHORS = QuoridorState.ANCHORS;
+    // Compiled once; String.split would compile the pattern again for every move parsed
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final QuoridorState state = new QuoridorState();
+    private int[] history = new int[64];
+    private int moveCount;
+
+    /** The position itself, for rendering and search; change it only through these rules. */
+    public QuoridorState getState() {
+        return state;
+    }
+
+    @Override
+    public void reset() {
+        state.reset();
+        moveCount = 0;
+    }
+
+    /** Continues from a copy of the given position (e.g. a saved game) with an empty undo history. */
+    public void load(QuoridorState position) {
+        state.copyFrom(position);
+        moveCount = 0;
+    }
+
+    @Override
+    public int getPlayerCount() {
+        return 2;
+    }
+
+    @Override
+    public int getCurrentPlayer() {
+        return state.getCurrent();
+    }
+
+    @Override
+    public int getMaxMoves() {
+        return QuoridorState.MAX_MOVES;
+    }
+
+    @Override
+    public int generateMoves(int[] moves) {
+        return state.isGameOver() ? 0 : state.generateMoves(moves);
+    }
+
+    @Override
+    public int validate(int move) {
+        if (state.isGameOver()) return GAME_OVER;
+        int type = QuoridorState.moveType(move);
+        int target = QuoridorState.moveTarget(move);
+        int current = state.getCurrent();
+
+        if (type == QuoridorState.PAWN) {
+            int from = state.getPawnSquare(current);
+            if (QuoridorState.moveFrom(move) != from || target >= QuoridorState.SQUARES) return OUT_OF_BOUNDS;
+            int dr = target / SIZE - from / SIZE;
+            int dc = target % SIZE - from % SIZE;
+            if (Math.abs(dr) + Math.abs(dc) != 1) return OUT_OF_BOUNDS;
+            if (state.isWallBlocking(from / SIZE, from % SIZE, target / SIZE, target % SIZE)) return BLOCKED;
+            if (target == state.getPawnSquare(current ^ 1)) return OCCUPIED;
+            return OK;
+        }
+
+        if (type != QuoridorState.HORIZONTAL && type != QuoridorState.VERTICAL) return INVALID_FORMAT;
+        if (target >= ANCHORS * ANCHORS) return OUT_OF_BOUNDS;
+        if (state.getWallsLeft(current) <= 0) return NO_WALLS_LEFT;
+        int r = target / ANCHORS;
+        int c = target % ANCHORS;
+        if (state.wallOverlaps(type, r, c)) return OVERLAPS;
+        if (state.wallCrosses(type, r, c)) return CROSSES;
+        if (!state.wallKeepsPathsOpen(type, r, c)) return CUTS_OFF_GOAL;
+        return OK;
+    }
+
+    @Override
+    public int apply(int move) {
+        int result = validate(move);
+        if (result != OK) return result;
+        state.make(move);
+        if (moveCount == history.length) history = java.util.Arrays.copyOf(history, moveCount * 2);
+        history[moveCount++] = move;
+        return OK;
+    }
+
+    @Override
+    public int undo() {
+        if (moveCount == 0) return NOTHING_TO_UNDO;
+        state.unmake(history[--moveCount]);
+        return OK;
+    }
+
+    @Override
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    @Override
+    public boolean isTerminal() {
+        return state.isGameOver();
+    }
+
+    @Override
+    public int getScore(int player) {
+        return state.hasWon(player) ? 1 : 0;
+    }
+
+    @Override
+    public int getWinner() {
+        if (state.hasWon(0)) return 0;
+        if (state.hasWon(1)) return 1;
+        return -1;
+    }
+
+    @Override
+    public long getHash() {
+        return state.getHash();
+    }
+
+    /**
+     * "M U/D/L/R" moves the pawn of the player to move; "H r c" and "V r c" place a wall anchored at
+     * (r, c), 1-indexed. A pawn step off the board is {@link #OUT_OF_BOUNDS}.
+     */
+    @Override
+    public int parseMove(String text) {
+        String[] parts = WHITESPACE.split(text.trim());
+        if (parts[0].isEmpty()) return INVALID_FORMAT;
+        char type = Character.toUpperCase(parts[0].charAt(0));
+
+        if (type == 'M') {
+            if (parts.length != 2) return INVALID_FORMAT;
+            int direction;
+            switch (Character.toUpperCase(parts[1].charAt(0))) {
+                case 'U': direction = QuoridorState.UP; break;
+                case 'D': direction = QuoridorState.DOWN; break;
+                case 'L': direction = QuoridorState.LEFT; break;
+                case 'R': direction = QuoridorState.RIGHT; break;
+                default: return INVALID_FORMAT;
+            }
+            int from = state.getPawnSquare(state.getCurrent());
+            int r = from / SIZE + (direction == QuoridorState.UP ? -1 : direction == QuoridorState.DOWN ? 1 : 0);
+            int c = from % SIZE + (direction == QuoridorState.LEFT ? -1 : direction == QuoridorState.RIGHT ? 1 : 0);
+            if (r < 0 || r >= SIZE || c < 0 || c >= SIZE) return OUT_OF_BOUNDS;
+            return QuoridorState.pawnMove(from, QuoridorState.square(r, c));
+        }
+
+        if (type == 'H' || type == 'V') {
+            if (parts.length != 3) return INVALID_FORMAT;
+            int r;
+            int c;
+            try {
+                r = Integer.parseInt(parts[1]) - 1;
+                c = Integer.parseInt(parts[2]) - 1;
+            } catch (NumberFormatException e) {
+                return INVALID_FORMAT;
+            }
+            if (r < 0 || r >= ANCHORS || c < 0 || c >= ANCHORS) return OUT_OF_BOUNDS;
+            return QuoridorState.wallMove(type == 'H' ? QuoridorState.HORIZONTAL : QuoridorState.VERTICAL, r, c);
+        }
+        return INVALID_FORMAT;
+    }
+
+    @Override
+    public String formatMove(int move) {
+        return QuoridorState.toCommand(move);
+    }
+}
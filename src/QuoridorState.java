@@ -0,0 +1,544 @@
+/**
+ * Compact bitboard representation of a Quoridor position.
+ * Walls are stored by their anchor (the intersection they are centred on) in two 64-bit masks,
+ * one bit per anchor of the 8x8 intersection grid, and both pawns are packed into a single int.
+ * Moves are encoded as ints so that search code can make and unmake them without allocating.
+ *
+ * The rules are symmetric under a left-right mirror, so the Zobrist hash of the mirrored position is
+ * kept up to date too. Anchor row r is byte r of a wall mask, so mirroring a mask is a bit reversal
+ * within each byte, and column c of an anchor becomes c ^ 7. The smaller of the two hashes is the
+ * canonical hash, which search tables use so that a position and its mirror image share one entry.
+ */
+public class QuoridorState {
+    public static final int SIZE = 9;
+    public static final int ANCHORS = SIZE - 1;
+    public static final int SQUARES = SIZE * SIZE;
+    public static final int INITIAL_WALLS = 10;
+
+    // Upper bound on legal moves: four pawn steps plus every anchor in both orientations
+    public static final int MAX_MOVES = 4 + 2 * ANCHORS * ANCHORS;
+
+    // Move types, stored in bits 16-17 of an encoded move
+    public static final int PAWN = 0;
+    public static final int HORIZONTAL = 1;
+    public static final int VERTICAL = 2;
+
+    // Directions used by the per-square step tables
+    public static final int UP = 0;
+    public static final int DOWN = 1;
+    public static final int LEFT = 2;
+    public static final int RIGHT = 3;
+
+    // Anchors whose wall covers the given segment, indexed by square
+    private static final long[] H_SEGMENT = new long[SQUARES]; // edge below square (r, c)
+    private static final long[] V_SEGMENT = new long[SQUARES]; // edge right of square (r, c)
+
+    // Anchors whose wall would overlap a new wall at the given anchor
+    private static final long[] H_OVERLAP = new long[ANCHORS * ANCHORS];
+    private static final long[] V_OVERLAP = new long[ANCHORS * ANCHORS];
+
+    // Wall endpoints on the 10x10 grid of points between squares, and which walls/borders touch each point
+    private static final int POINTS = SIZE + 1;
+    private static final int[] WALL_POINTS = new int[2 * ANCHORS * ANCHORS * 3];
+    private static final long[] H_AT_POINT = new long[POINTS * POINTS];
+    private static final long[] V_AT_POINT = new long[POINTS * POINTS];
+    private static final boolean[] BORDER_POINT = new boolean[POINTS * POINTS];
+
+    // Neighbour square per direction (-1 off board) and the wall masks that block that step
+    private static final int[] STEP = new int[SQUARES * 4];
+    private static final long[] STEP_H_BLOCK = new long[SQUARES * 4];
+    private static final long[] STEP_V_BLOCK = new long[SQUARES * 4];
+
+    // Zobrist keys: pawn squares per player, wall anchors, walls left per player, side to move
+    private static final long[] PAWN_KEYS = Zobrist.keys(2 * SQUARES, 0x51A7E5EEDL);
+    private static final long[] H_WALL_KEYS = Zobrist.keys(ANCHORS * ANCHORS, 0x48A11L);
+    private static final long[] V_WALL_KEYS = Zobrist.keys(ANCHORS * ANCHORS, 0x56A11L);
+    private static final long[] WALLS_LEFT_KEYS = Zobrist.keys(2 * (INITIAL_WALLS + 1), 0x3A115L);
+    private static final long SIDE_KEY = Zobrist.keys(1, 0x51DEL)[0];
+
+    static {
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                int sq = r * SIZE + c;
+                if (r < ANCHORS) {
+                    if (c < ANCHORS) H_SEGMENT[sq] |= anchorBit(r, c);
+                    if (c > 0) H_SEGMENT[sq] |= anchorBit(r, c - 1);
+                }
+                if (c < ANCHORS) {
+                    if (r < ANCHORS) V_SEGMENT[sq] |= anchorBit(r, c);
+                    if (r > 0) V_SEGMENT[sq] |= anchorBit(r - 1, c);
+                }
+            }
+        }
+
+        for (int r = 0; r < ANCHORS; r++) {
+            for (int c = 0; c < ANCHORS; c++) {
+                int a = r * ANCHORS + c;
+                H_OVERLAP[a] = anchorBit(r, c);
+                if (c > 0) H_OVERLAP[a] |= anchorBit(r, c - 1);
+                if (c < ANCHORS - 1) H_OVERLAP[a] |= anchorBit(r, c + 1);
+                V_OVERLAP[a] = anchorBit(r, c);
+                if (r > 0) V_OVERLAP[a] |= anchorBit(r - 1, c);
+                if (r < ANCHORS - 1) V_OVERLAP[a] |= anchorBit(r + 1, c);
+            }
+        }
+
+        for (int r = 0; r < ANCHORS; r++) {
+            for (int c = 0; c < ANCHORS; c++) {
+                int a = r * ANCHORS + c;
+                for (int k = 0; k < 3; k++) {
+                    // A horizontal wall lies on point row r+1, a vertical wall on point column c+1
+                    int hPoint = (r + 1) * POINTS + (c + k);
+                    int vPoint = (r + k) * POINTS + (c + 1);
+                    WALL_POINTS[(a * 2) * 3 + k] = hPoint;
+                    WALL_POINTS[(a * 2 + 1) * 3 + k] = vPoint;
+                    H_AT_POINT[hPoint] |= 1L << a;
+                    V_AT_POINT[vPoint] |= 1L << a;
+                }
+            }
+        }
+        for (int i = 0; i < POINTS; i++) {
+            for (int j = 0; j < POINTS; j++) {
+                BORDER_POINT[i * POINTS + j] = i == 0 || j == 0 || i == POINTS - 1 || j == POINTS - 1;
+            }
+        }
+
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                int sq = r * SIZE + c;
+                int i = sq * 4;
+                STEP[i + UP] = r > 0 ? sq - SIZE : -1;
+                STEP[i + DOWN] = r < SIZE - 1 ? sq + SIZE : -1;
+                STEP[i + LEFT] = c > 0 ? sq - 1 : -1;
+                STEP[i + RIGHT] = c < SIZE - 1 ? sq + 1 : -1;
+                if (r > 0) STEP_H_BLOCK[i + UP] = H_SEGMENT[sq - SIZE];
+                STEP_H_BLOCK[i + DOWN] = H_SEGMENT[sq];
+                if (c > 0) STEP_V_BLOCK[i + LEFT] = V_SEGMENT[sq - 1];
+                STEP_V_BLOCK[i + RIGHT] = V_SEGMENT[sq];
+            }
+        }
+    }
+
+    private long hWalls;
+    private long vWalls;
+    private int pawns; // player 1's square in bits 0-7, player 2's in bits 8-15
+    private int walls1;
+    private int walls2;
+    private int current;
+    private long hash;
+    private long mirrorHash;
+
+    // Reusable BFS buffers: a square counts as visited when its stamp equals the current epoch
+    private final int[] queue = new int[SQUARES];
+    private final int[] visited = new int[SQUARES];
+    private int epoch;
+
+    public QuoridorState() {
+        reset();
+    }
+
+    /** Overwrites this position with a copy of another one; search buffers are not shared. */
+    public void copyFrom(QuoridorState other) {
+        hWalls = other.hWalls;
+        vWalls = other.vWalls;
+        pawns = other.pawns;
+        walls1 = other.walls1;
+        walls2 = other.walls2;
+        current = other.current;
+        hash = other.hash;
+        mirrorHash = other.mirrorHash;
+    }
+
+    /**
+     * Sets up a position from its parts, e.g. when decoding a save ({@link GameStateCodec}); the hashes are
+     * recomputed. Throws IllegalArgumentException for squares, wall counts or a side to move out of range.
+     */
+    public void restore(long hWalls, long vWalls, int pawn1, int pawn2, int walls1, int walls2, int current) {
+        if (pawn1 < 0 || pawn1 >= SQUARES || pawn2 < 0 || pawn2 >= SQUARES || pawn1 == pawn2
+                || walls1 < 0 || walls1 > INITIAL_WALLS || walls2 < 0 || walls2 > INITIAL_WALLS
+                || (current != 0 && current != 1)) {
+            throw new IllegalArgumentException("Invalid Quoridor position.");
+        }
+        this.hWalls = hWalls;
+        this.vWalls = vWalls;
+        this.pawns = pawn1 | (pawn2 << 8);
+        this.walls1 = walls1;
+        this.walls2 = walls2;
+        this.current = current;
+        hash = computeHash();
+        mirrorHash = computeHash(true);
+    }
+
+    /** Puts both pawns on their starting squares and clears every wall. */
+    public void reset() {
+        hWalls = 0L;
+        vWalls = 0L;
+        pawns = square(SIZE - 1, SIZE / 2) | (square(0, SIZE / 2) << 8);
+        walls1 = INITIAL_WALLS;
+        walls2 = INITIAL_WALLS;
+        current = 0;
+        hash = computeHash();
+        mirrorHash = computeHash(true);
+    }
+
+    /** Zobrist hash of the position from scratch; {@link #getHash()} keeps the same value up to date. */
+    public long computeHash() {
+        return computeHash(false);
+    }
+
+    private long computeHash(boolean mirrored) {
+        int flip = mirrored ? 1 : 0;
+        long h = PAWN_KEYS[mirrorSquare(getPawnSquare(0), flip)] ^ PAWN_KEYS[SQUARES + mirrorSquare(getPawnSquare(1), flip)]
+                ^ WALLS_LEFT_KEYS[walls1] ^ WALLS_LEFT_KEYS[INITIAL_WALLS + 1 + walls2];
+        for (int a = 0; a < ANCHORS * ANCHORS; a++) {
+            if ((hWalls & (1L << a)) != 0) h ^= H_WALL_KEYS[mirrorAnchor(a, flip)];
+            if ((vWalls & (1L << a)) != 0) h ^= V_WALL_KEYS[mirrorAnchor(a, flip)];
+        }
+        return current == 0 ? h : h ^ SIDE_KEY;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    /** Zobrist hash of the left-right mirror image of this position. */
+    public long getMirrorHash() {
+        return mirrorHash;
+    }
+
+    /** Hash shared by the position and its mirror image. */
+    public long getCanonicalHash() {
+        return Math.min(hash, mirrorHash);
+    }
+
+    /**
+     * 1 if the canonical form is the mirror image of this position, 0 if it is the position itself.
+     * Moves are mapped between the two with {@link #mirrorMove(int, int)}, which is its own inverse.
+     */
+    public int getCanonicalTransform() {
+        return mirrorHash < hash ? 1 : 0;
+    }
+
+    /** Replaces this position with its canonical form and returns the transform that was applied. */
+    public int canonicalize() {
+        int transform = getCanonicalTransform();
+        if (transform == 1) {
+            hWalls = mirrorAnchors(hWalls);
+            vWalls = mirrorAnchors(vWalls);
+            pawns = mirrorSquare(getPawnSquare(0), 1) | (mirrorSquare(getPawnSquare(1), 1) << 8);
+            long swap = hash;
+            hash = mirrorHash;
+            mirrorHash = swap;
+        }
+        return transform;
+    }
+
+    /** Mirrors a wall mask left to right: anchor (r, c) becomes (r, 7 - c), a bit reversal within each byte. */
+    public static long mirrorAnchors(long walls) {
+        return Long.reverse(Long.reverseBytes(walls));
+    }
+
+    /** Square (r, c) becomes (r, 8 - c) when flip is 1 and stays put when it is 0. */
+    public static int mirrorSquare(int sq, int flip) {
+        return sq + flip * (SIZE - 1 - 2 * (sq % SIZE));
+    }
+
+    /** Anchor (r, c) becomes (r, 7 - c) when flip is 1 and stays put when it is 0. */
+    public static int mirrorAnchor(int a, int flip) {
+        return a ^ (flip * (ANCHORS - 1));
+    }
+
+    /** Image of an encoded move under the transform returned by {@link #getCanonicalTransform()}. */
+    public static int mirrorMove(int move, int transform) {
+        if (moveType(move) == PAWN) {
+            return pawnMove(mirrorSquare(moveFrom(move), transform), mirrorSquare(moveTarget(move), transform));
+        }
+        return (moveType(move) << 16) | mirrorAnchor(moveTarget(move), transform);
+    }
+
+    public static int square(int r, int c) {
+        return r * SIZE + c;
+    }
+
+    public static int anchor(int r, int c) {
+        return r * ANCHORS + c;
+    }
+
+    private static long anchorBit(int r, int c) {
+        return 1L << (r * ANCHORS + c);
+    }
+
+    public static int pawnMove(int from, int to) {
+        return (PAWN << 16) | (from << 8) | to;
+    }
+
+    public static int wallMove(int type, int r, int c) {
+        return (type << 16) | anchor(r, c);
+    }
+
+    public static int moveType(int move) {
+        return move >>> 16;
+    }
+
+    public static int moveFrom(int move) {
+        return (move >>> 8) & 0xFF;
+    }
+
+    /** Target square for pawn moves, anchor index for wall moves. */
+    public static int moveTarget(int move) {
+        return move & 0xFF;
+    }
+
+    /** Formats an encoded move in the game's input syntax, e.g. "M U" or "H 3 4" (1-indexed). */
+    public static String toCommand(int move) {
+        int type = moveType(move);
+        int target = moveTarget(move);
+        if (type == PAWN) {
+            int diff = target - moveFrom(move);
+            char direction = diff == -SIZE ? 'U' : diff == SIZE ? 'D' : diff == -1 ? 'L' : 'R';
+            return "M " + direction;
+        }
+        return (type == HORIZONTAL ? "H " : "V ") + (target / ANCHORS + 1) + " " + (target % ANCHORS + 1);
+    }
+
+    public int getCurrent() {
+        return current;
+    }
+
+    public int getPawnSquare(int player) {
+        return (pawns >>> (player << 3)) & 0xFF;
+    }
+
+    public int getPawnRow(int player) {
+        return getPawnSquare(player) / SIZE;
+    }
+
+    public int getPawnColumn(int player) {
+        return getPawnSquare(player) % SIZE;
+    }
+
+    public int getWallsLeft(int player) {
+        return player == 0 ? walls1 : walls2;
+    }
+
+    public long getHorizontalWalls() {
+        return hWalls;
+    }
+
+    public long getVerticalWalls() {
+        return vWalls;
+    }
+
+    /** Goal row: player 1 races to the top row, player 2 to the bottom row. */
+    public static int goalRow(int player) {
+        return player == 0 ? 0 : SIZE - 1;
+    }
+
+    public boolean hasWon(int player) {
+        return getPawnRow(player) == goalRow(player);
+    }
+
+    public boolean isGameOver() {
+        return hasWon(0) || hasWon(1);
+    }
+
+    /** True if a wall segment lies on the edge below square (r, c). */
+    public boolean hasHorizontalSegment(int r, int c) {
+        return (hWalls & H_SEGMENT[square(r, c)]) != 0;
+    }
+
+    /** True if a wall segment lies on the edge right of square (r, c). */
+    public boolean hasVerticalSegment(int r, int c) {
+        return (vWalls & V_SEGMENT[square(r, c)]) != 0;
+    }
+
+    /** Square reached by stepping from sq in the given direction, or -1 if off board or walled. */
+    public int step(int sq, int direction) {
+        int i = sq * 4 + direction;
+        if ((hWalls & STEP_H_BLOCK[i]) != 0 || (vWalls & STEP_V_BLOCK[i]) != 0) {
+            return -1;
+        }
+        return STEP[i];
+    }
+
+    /** True if a wall segment sits between two orthogonally adjacent squares. */
+    public boolean isWallBlocking(int r1, int c1, int r2, int c2) {
+        if (r1 == r2) {
+            return hasVerticalSegment(r1, Math.min(c1, c2));
+        } else if (c1 == c2) {
+            return hasHorizontalSegment(Math.min(r1, r2), c1);
+        }
+        return false;
+    }
+
+    /** True if a wall at anchor (r, c) would share a segment with an existing parallel wall. */
+    public boolean wallOverlaps(int type, int r, int c) {
+        int a = anchor(r, c);
+        return type == HORIZONTAL ? (hWalls & H_OVERLAP[a]) != 0 : (vWalls & V_OVERLAP[a]) != 0;
+    }
+
+    /** True if a wall at anchor (r, c) would cross a perpendicular wall on the same anchor. */
+    public boolean wallCrosses(int type, int r, int c) {
+        long bit = anchorBit(r, c);
+        return type == HORIZONTAL ? (vWalls & bit) != 0 : (hWalls & bit) != 0;
+    }
+
+    /**
+     * Length of the shortest path from the player's pawn to their goal row, ignoring the other pawn,
+     * or -1 if the goal row cannot be reached. Breadth-first search that stops at the first goal square.
+     */
+    public int distanceToGoal(int player) {
+        int start = getPawnSquare(player);
+        int goal = goalRow(player);
+        if (start / SIZE == goal) return 0;
+
+        if (++epoch == 0) {
+            java.util.Arrays.fill(visited, 0);
+            epoch = 1;
+        }
+        int stamp = epoch;
+        visited[start] = stamp;
+        queue[0] = start;
+        int head = 0;
+        int tail = 1;
+        int levelEnd = 1;
+        int depth = 1;
+
+        while (head < tail) {
+            int sq = queue[head++];
+            for (int d = 0; d < 4; d++) {
+                int next = step(sq, d);
+                if (next < 0 || visited[next] == stamp) continue;
+                if (next / SIZE == goal) return depth;
+                visited[next] = stamp;
+                queue[tail++] = next;
+            }
+            if (head == levelEnd) {
+                depth++;
+                levelEnd = tail;
+            }
+        }
+        return -1;
+    }
+
+    public boolean hasPathToGoal(int player) {
+        return distanceToGoal(player) >= 0;
+    }
+
+    /**
+     * True if both pawns could still reach their goal rows after a wall at anchor (r, c).
+     * A wall can only close off a region if it touches the border or other walls at two or more
+     * of its three points, so loose walls are accepted without searching at all.
+     */
+    public boolean wallKeepsPathsOpen(int type, int r, int c) {
+        int a = anchor(r, c);
+        int base = (a * 2 + (type == HORIZONTAL ? 0 : 1)) * 3;
+        int contacts = 0;
+        for (int k = 0; k < 3; k++) {
+            int p = WALL_POINTS[base + k];
+            if (BORDER_POINT[p] || (hWalls & H_AT_POINT[p]) != 0 || (vWalls & V_AT_POINT[p]) != 0) {
+                contacts++;
+            }
+        }
+        if (contacts < 2) return true;
+
+        long bit = 1L << a;
+        if (type == HORIZONTAL) hWalls |= bit;
+        else vWalls |= bit;
+        boolean open = hasPathToGoal(0) && hasPathToGoal(1);
+        if (type == HORIZONTAL) hWalls &= ~bit;
+        else vWalls &= ~bit;
+        return open;
+    }
+
+    /**
+     * Writes every legal move for the side to move into the buffer and returns how many there are.
+     * Pawns step one square (no jumps) and walls must pass the overlap, crossing and path checks.
+     */
+    public int generateMoves(int[] moves) {
+        int count = 0;
+        int from = getPawnSquare(current);
+        int other = getPawnSquare(current ^ 1);
+        for (int d = 0; d < 4; d++) {
+            int to = step(from, d);
+            if (to >= 0 && to != other) {
+                moves[count++] = pawnMove(from, to);
+            }
+        }
+
+        if (getWallsLeft(current) > 0) {
+            for (int type = HORIZONTAL; type <= VERTICAL; type++) {
+                for (int r = 0; r < ANCHORS; r++) {
+                    for (int c = 0; c < ANCHORS; c++) {
+                        if (!wallOverlaps(type, r, c) && !wallCrosses(type, r, c) && wallKeepsPathsOpen(type, r, c)) {
+                            moves[count++] = wallMove(type, r, c);
+                        }
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /** Applies an encoded move for the side to move and passes the turn. No legality checks. */
+    public void make(int move) {
+        int type = moveType(move);
+        if (type == PAWN) {
+            int shift = current << 3;
+            pawns = (pawns & ~(0xFF << shift)) | (moveTarget(move) << shift);
+            togglePawn(moveFrom(move), moveTarget(move));
+        } else {
+            placeWall(type, moveTarget(move), -1);
+        }
+        current ^= 1;
+        hash ^= SIDE_KEY;
+        mirrorHash ^= SIDE_KEY;
+    }
+
+    /** Reverts a move previously applied with {@link #make(int)}. */
+    public void unmake(int move) {
+        current ^= 1;
+        hash ^= SIDE_KEY;
+        mirrorHash ^= SIDE_KEY;
+        int type = moveType(move);
+        if (type == PAWN) {
+            int shift = current << 3;
+            pawns = (pawns & ~(0xFF << shift)) | (moveFrom(move) << shift);
+            togglePawn(moveFrom(move), moveTarget(move));
+        } else {
+            placeWall(type, moveTarget(move), 1);
+        }
+    }
+
+    /** Updates both hashes for the side to move's pawn moving between two squares (in either direction). */
+    private void togglePawn(int from, int to) {
+        int base = current * SQUARES;
+        hash ^= PAWN_KEYS[base + from] ^ PAWN_KEYS[base + to];
+        mirrorHash ^= PAWN_KEYS[base + mirrorSquare(from, 1)] ^ PAWN_KEYS[base + mirrorSquare(to, 1)];
+    }
+
+    /** Toggles the wall bit for the side to move and adjusts their wall count by delta. */
+    private void placeWall(int type, int anchor, int delta) {
+        long bit = 1L << anchor;
+        if (type == HORIZONTAL) {
+            hWalls ^= bit;
+            hash ^= H_WALL_KEYS[anchor];
+            mirrorHash ^= H_WALL_KEYS[mirrorAnchor(anchor, 1)];
+        } else {
+            vWalls ^= bit;
+            hash ^= V_WALL_KEYS[anchor];
+            mirrorHash ^= V_WALL_KEYS[mirrorAnchor(anchor, 1)];
+        }
+        int offset = current * (INITIAL_WALLS + 1);
+        long wallsLeft;
+        if (current == 0) {
+            wallsLeft = WALLS_LEFT_KEYS[offset + walls1] ^ WALLS_LEFT_KEYS[offset + walls1 + delta];
+            walls1 += delta;
+        } else {
+            wallsLeft = WALLS_LEFT_KEYS[offset + walls2] ^ WALLS_LEFT_KEYS[offset + walls2 + delta];
+            walls2 += delta;
+        }
+        hash ^= wallsLeft;
+        mirrorHash ^= wallsLeft;
+    }
+}
@@ -0,0 +1,23 @@
+import java.util.SplittableRandom;
+
+/** Plays a uniformly random legal move; the baseline every other bot should beat. */
+public class RandomBot implements Bot {
+    private final SplittableRandom random;
+    private int[] moves = new int[0];
+
+    public RandomBot(SplittableRandom random) {
+        this.random = random;
+    }
+
+    @Override
+    public String getName() {
+        return "random";
+    }
+
+    @Override
+    public int chooseMove(GameRules rules) {
+        if (moves.length < rules.getMaxMoves()) moves = new int[rules.getMaxMoves()];
+        int count = rules.generateMoves(moves);
+        return count == 0 ? -1 : moves[random.nextInt(count)];
+    }
+}
@@ -0,0 +1,599 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Durable key-value store for saved games: an append-only log of put and delete records plus an in-memory
+ * index from key to record. Values are read back from the file on demand, so the heap only holds the index.
+ *
+ * Writes are group-committed: callers append to a shared buffer and wait while a single flusher thread
+ * writes everything that has piled up and calls fsync once for the whole batch, so many sessions saving
+ * at the same time share one disk flush. A put or delete returns only once its record is on disk.
+ *
+ * When more than half of a large log is dead records, the flusher copies the live records to a new log and
+ * swaps it in atomically. The index is checkpointed to a side file every so often, so opening the store
+ * only has to scan the part of the log written since the last checkpoint; a record torn by a crash at the
+ * end of the log fails its checksum and is cut off.
+ *
+ * Only one process may have a directory open: the store holds an exclusive lock on a lock file for as long
+ * as it is open, since two writers would each append at their own end of the log and overwrite each other.
+ */
+public class SaveStore implements Closeable {
+    public static final String LOG_FILE = "saves.log";
+    public static final String INDEX_FILE = "saves.idx";
+    public static final String LOCK_FILE = "saves.lock";
+
+    /** Directory of the store used by {@link #getDefault()}; override with -Darcade.saves.dir=... */
+    public static final String DIRECTORY_PROPERTY = "arcade.saves.dir";
+
+    // Log layout: magic, version, generation (bumped by every compaction), then records of
+    // body length, CRC-32 of the body, and a body of type, key length, key and value
+    private static final int MAGIC = 0x53415645; // "SAVE"
+    private static final int INDEX_MAGIC = 0x53494458; // "SIDX"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_PREFIX = 8;
+    private static final int BODY_PREFIX = 3;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final int MAX_KEY_BYTES = 0xFFFF;
+
+    // Compact once the log is at least this large and more than half of it is dead records
+    private static final long COMPACT_MIN_BYTES = 1 << 20;
+    // Rewrite the index checkpoint after this much new log
+    private static final long CHECKPOINT_BYTES = 256 * 1024;
+
+    private static SaveStore defaultStore;
+    private static boolean defaultOpened;
+
+    /** Where a live value sits in the log. */
+    private static final class Location {
+        final long position;
+        final int size;
+        final int keyLength;
+
+        Location(long position, int size, int keyLength) {
+            this.position = position;
+            this.size = size;
+            this.keyLength = keyLength;
+        }
+
+        long valuePosition() {
+            return position + RECORD_PREFIX + BODY_PREFIX + keyLength;
+        }
+
+        int valueLength() {
+            return size - RECORD_PREFIX - BODY_PREFIX - keyLength;
+        }
+    }
+
+    /** A record appended but not yet flushed; its log position is known once its batch is written. */
+    private static final class PendingRecord {
+        final String key;
+        final int offset;
+        final int size;
+        final int keyLength;
+        final boolean delete;
+
+        PendingRecord(String key, int offset, int size, int keyLength, boolean delete) {
+            this.key = key;
+            this.offset = offset;
+            this.size = size;
+            this.keyLength = keyLength;
+            this.delete = delete;
+        }
+    }
+
+    private final Path directory;
+    private final Path logPath;
+    private final Path indexPath;
+    private final Object lock = new Object();
+    // Held while the store is open, so no other process writes the same log
+    private final FileChannel lockChannel;
+    private final CRC32 crc = new CRC32();
+
+    // Guarded by lock
+    private FileChannel channel;
+    private long generation;
+    private Map<String, Location> index = new HashMap<>();
+    private long liveBytes;
+    private long flushedEnd;
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer spare = ByteBuffer.allocate(64 * 1024);
+    private List<PendingRecord> pendingRecords = new ArrayList<>();
+    private List<PendingRecord> spareRecords = new ArrayList<>();
+    private long appendedSequence;
+    private long durableSequence;
+    private boolean compactRequested;
+    private boolean closing;
+    private IOException failure;
+    private long flushes;
+
+    // Only touched by the flusher thread (and by close once it has stopped)
+    private long checkpointEnd;
+
+    private final Thread flusher;
+
+    private SaveStore(Path directory) throws IOException {
+        this.directory = directory;
+        this.logPath = directory.resolve(LOG_FILE);
+        this.indexPath = directory.resolve(INDEX_FILE);
+        Files.createDirectories(directory);
+        this.lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        FileLock acquired = null;
+        try {
+            acquired = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Already open elsewhere in this JVM
+        }
+        if (acquired == null) {
+            lockChannel.close();
+            throw new IOException("Save directory " + directory + " is in use by another process.");
+        }
+        try {
+            recover();
+        } catch (IOException | RuntimeException e) {
+            lockChannel.close();
+            throw e;
+        }
+        this.flusher = new Thread(this::flushLoop, "save-store-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Opens (or creates) the store in a directory, recovering the index from its checkpoint and log tail.
+     * Fails if another store, in this process or another, has the directory open.
+     */
+    public static SaveStore open(Path directory) throws IOException {
+        return new SaveStore(directory);
+    }
+
+    /**
+     * The process-wide store in the {@link #DIRECTORY_PROPERTY} directory ("saves" by default), shared by
+     * every session and closed on exit. Returns null if it cannot be opened, e.g. on a read-only disk.
+     */
+    public static synchronized SaveStore getDefault() {
+        if (!defaultOpened) {
+            defaultOpened = true;
+            try {
+                SaveStore store = open(Paths.get(System.getProperty(DIRECTORY_PROPERTY, "saves")));
+                Runtime.getRuntime().addShutdownHook(new Thread(store::closeQuietly));
+                defaultStore = store;
+            } catch (IOException ignored) {
+                // Games are then saved in memory only
+            }
+        }
+        return defaultStore;
+    }
+
+    /** Stores a value under a key, replacing any previous one; returns once the record is on disk. */
+    public void put(String key, byte[] value) throws IOException {
+        append(key, value, false);
+    }
+
+    /** Removes a key; returns once the delete is on disk. Removing a missing key writes nothing. */
+    public void delete(String key) throws IOException {
+        synchronized (lock) {
+            if (!index.containsKey(key) && !isPending(key)) return;
+        }
+        append(key, null, true);
+    }
+
+    /** The value stored under a key, or null. */
+    public byte[] get(String key) throws IOException {
+        synchronized (lock) {
+            checkOpen();
+            Location location = index.get(key);
+            if (location == null) return null;
+            ByteBuffer value = ByteBuffer.allocate(location.valueLength());
+            readFully(channel, value, location.valuePosition());
+            return value.array();
+        }
+    }
+
+    public boolean contains(String key) {
+        synchronized (lock) {
+            return index.containsKey(key);
+        }
+    }
+
+    /** A snapshot of the keys with a durable value. */
+    public Set<String> keys() {
+        synchronized (lock) {
+            return new HashSet<>(index.keySet());
+        }
+    }
+
+    /** Bytes of live records; the rest of the log is dead records waiting for compaction. */
+    public long getLiveBytes() {
+        synchronized (lock) {
+            return liveBytes;
+        }
+    }
+
+    public long getLogBytes() {
+        synchronized (lock) {
+            return flushedEnd;
+        }
+    }
+
+    /** Number of fsync batches written so far; with concurrent writers it is lower than the number of writes. */
+    public long getFlushCount() {
+        synchronized (lock) {
+            return flushes;
+        }
+    }
+
+    /** Rewrites the log with only the live records and waits until that is done. */
+    public void compact() throws IOException {
+        synchronized (lock) {
+            checkOpen();
+            compactRequested = true;
+            lock.notifyAll();
+            while (compactRequested && failure == null) {
+                awaitLock();
+            }
+            if (failure != null) throw new IOException("Save store failed.", failure);
+        }
+    }
+
+    /** Flushes what is pending, writes a final index checkpoint and closes the log. */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closing) return;
+            closing = true;
+            lock.notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (lock) {
+            try {
+                if (failure == null) writeCheckpoint(snapshotIndex());
+            } finally {
+                try {
+                    channel.close();
+                } finally {
+                    lockChannel.close(); // releases the directory lock
+                }
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException ignored) {
+            // Every acknowledged write is already on disk; only the checkpoint is lost
+        }
+    }
+
+    private void append(String key, byte[] value, boolean delete) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length > MAX_KEY_BYTES) {
+            throw new IllegalArgumentException("Save keys are limited to " + MAX_KEY_BYTES + " bytes.");
+        }
+        int valueLength = delete ? 0 : value.length;
+        int bodyLength = BODY_PREFIX + keyBytes.length + valueLength;
+
+        synchronized (lock) {
+            checkOpen();
+            if (pending.remaining() < RECORD_PREFIX + bodyLength) {
+                pending = grow(pending, RECORD_PREFIX + bodyLength);
+            }
+            int offset = pending.position();
+            pending.putInt(bodyLength).putInt(0).put(delete ? DELETE : PUT).putShort((short) keyBytes.length).put(keyBytes);
+            if (!delete) pending.put(value);
+            crc.reset();
+            crc.update(pending.array(), offset + RECORD_PREFIX, bodyLength);
+            pending.putInt(offset + 4, (int) crc.getValue());
+            pendingRecords.add(new PendingRecord(key, offset, RECORD_PREFIX + bodyLength, keyBytes.length, delete));
+
+            long sequence = ++appendedSequence;
+            lock.notifyAll();
+            while (durableSequence < sequence && failure == null) {
+                awaitLock();
+            }
+            if (failure != null) throw new IOException("Save store failed.", failure);
+        }
+    }
+
+    private boolean isPending(String key) {
+        for (PendingRecord record : pendingRecords) {
+            if (record.key.equals(key)) return true;
+        }
+        return false;
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int extra) {
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + extra));
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+
+    private void checkOpen() throws IOException {
+        if (failure != null) throw new IOException("Save store failed.", failure);
+        if (closing) throw new IOException("Save store is closed.");
+    }
+
+    private void awaitLock() throws IOException {
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the save store.", e);
+        }
+    }
+
+    /** Writes each batch of appended records with one fsync, then compacts or checkpoints when due. */
+    private void flushLoop() {
+        while (true) {
+            ByteBuffer batch;
+            List<PendingRecord> records;
+            long batchStart;
+            long upTo;
+            boolean compact;
+            synchronized (lock) {
+                while (appendedSequence == durableSequence && !compactRequested && !closing) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (appendedSequence == durableSequence && !compactRequested) return;
+                batch = pending;
+                records = pendingRecords;
+                pending = spare;
+                pendingRecords = spareRecords;
+                batchStart = flushedEnd;
+                upTo = appendedSequence;
+                compact = compactRequested;
+            }
+
+            try {
+                int length = batch.position();
+                if (length > 0) {
+                    batch.flip();
+                    long position = batchStart;
+                    while (batch.hasRemaining()) position += channel.write(batch, position);
+                    channel.force(false);
+                }
+                ByteBuffer checkpoint = null;
+                synchronized (lock) {
+                    for (PendingRecord record : records) {
+                        Location old = record.delete ? index.remove(record.key)
+                                : index.put(record.key, new Location(batchStart + record.offset, record.size, record.keyLength));
+                        if (old != null) liveBytes -= old.size;
+                        if (!record.delete) liveBytes += record.size;
+                    }
+                    flushedEnd = batchStart + length;
+                    if (length > 0) flushes++;
+                    durableSequence = upTo;
+                    records.clear();
+                    spareRecords = records;
+                    spare = batch.clear();
+
+                    if (compact || (flushedEnd >= COMPACT_MIN_BYTES && liveBytes * 2 < flushedEnd)) {
+                        compactLog();
+                        compactRequested = false;
+                    } else if (flushedEnd - checkpointEnd >= CHECKPOINT_BYTES) {
+                        checkpoint = snapshotIndex();
+                    }
+                    lock.notifyAll();
+                }
+                // Writing the checkpoint does not block appenders
+                if (checkpoint != null) writeCheckpoint(checkpoint);
+            } catch (IOException e) {
+                synchronized (lock) {
+                    failure = e;
+                    lock.notifyAll();
+                }
+                return;
+            }
+        }
+    }
+
+    /** Copies the live records to a fresh log of the next generation and swaps it in. Holds the lock. */
+    private void compactLog() throws IOException {
+        Path temp = directory.resolve(LOG_FILE + ".compact");
+        Map<String, Location> moved = new HashMap<>(index.size() * 2);
+        long position = HEADER_SIZE;
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(out, header(generation + 1), 0);
+            for (Map.Entry<String, Location> entry : index.entrySet()) {
+                Location location = entry.getValue();
+                long copied = 0;
+                while (copied < location.size) {
+                    copied += channel.transferTo(location.position + copied, location.size - copied,
+                            out.position(position + copied));
+                }
+                moved.put(entry.getKey(), new Location(position, location.size, location.keyLength));
+                position += location.size;
+            }
+            out.force(true);
+        }
+        Files.move(temp, logPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory();
+
+        channel.close();
+        channel = FileChannel.open(logPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        generation++;
+        index = moved;
+        flushedEnd = position;
+        writeCheckpoint(snapshotIndex());
+    }
+
+    /** Opens the log, loads the index checkpoint if it matches, and replays only the records after it. */
+    private void recover() throws IOException {
+        channel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            generation = 1;
+            channel.truncate(0);
+            writeFully(channel, header(generation), 0);
+            channel.force(true);
+            flushedEnd = HEADER_SIZE;
+            checkpointEnd = HEADER_SIZE;
+            return;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(channel, header, 0);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException("Not a save store log: " + logPath);
+        }
+        generation = header.getLong(8);
+
+        long position = loadCheckpoint(size);
+        checkpointEnd = position;
+        ByteBuffer prefix = ByteBuffer.allocate(RECORD_PREFIX);
+        ByteBuffer body = ByteBuffer.allocate(1024);
+        while (position + RECORD_PREFIX <= size) {
+            prefix.clear();
+            readFully(channel, prefix, position);
+            int bodyLength = prefix.getInt(0);
+            if (bodyLength < BODY_PREFIX || position + RECORD_PREFIX + bodyLength > size) break;
+            if (body.capacity() < bodyLength) body = ByteBuffer.allocate(bodyLength);
+            body.clear().limit(bodyLength);
+            readFully(channel, body, position + RECORD_PREFIX);
+            crc.reset();
+            crc.update(body.array(), 0, bodyLength);
+            if ((int) crc.getValue() != prefix.getInt(4)) break;
+
+            byte type = body.get(0);
+            int keyLength = body.getShort(1) & 0xFFFF;
+            if (BODY_PREFIX + keyLength > bodyLength || (type != PUT && type != DELETE)) break;
+            String key = new String(body.array(), BODY_PREFIX, keyLength, StandardCharsets.UTF_8);
+            int recordSize = RECORD_PREFIX + bodyLength;
+            Location old = type == DELETE ? index.remove(key) : index.put(key, new Location(position, recordSize, keyLength));
+            if (old != null) liveBytes -= old.size;
+            if (type == PUT) liveBytes += recordSize;
+            position += recordSize;
+        }
+        if (position < size) {
+            // A torn or corrupt record from a crash while writing; everything before it is intact
+            channel.truncate(position);
+            channel.force(true);
+        }
+        flushedEnd = position;
+    }
+
+    /** Loads the index checkpoint and returns the log position it covers, or the first record if unusable. */
+    private long loadCheckpoint(long logSize) {
+        if (!Files.isRegularFile(indexPath)) return HEADER_SIZE;
+        try {
+            ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(indexPath));
+            if (data.remaining() < 36) return HEADER_SIZE;
+            crc.reset();
+            crc.update(data.array(), 0, data.limit() - 4);
+            if ((int) crc.getValue() != data.getInt(data.limit() - 4)) return HEADER_SIZE;
+            if (data.getInt() != INDEX_MAGIC || data.getInt() != VERSION || data.getLong() != generation) {
+                return HEADER_SIZE;
+            }
+            long covered = data.getLong();
+            int count = data.getInt();
+            if (covered < HEADER_SIZE || covered > logSize) return HEADER_SIZE;
+
+            Map<String, Location> loaded = new HashMap<>(count * 2);
+            long live = 0;
+            for (int i = 0; i < count; i++) {
+                int keyLength = data.getShort() & 0xFFFF;
+                String key = new String(data.array(), data.position(), keyLength, StandardCharsets.UTF_8);
+                data.position(data.position() + keyLength);
+                Location location = new Location(data.getLong(), data.getInt(), keyLength);
+                loaded.put(key, location);
+                live += location.size;
+            }
+            index = loaded;
+            liveBytes = live;
+            return covered;
+        } catch (IOException | RuntimeException e) {
+            // A damaged checkpoint only costs a full scan
+            index = new HashMap<>();
+            liveBytes = 0;
+            return HEADER_SIZE;
+        }
+    }
+
+    /** Serializes the index for the log as flushed so far. Holds the lock. */
+    private ByteBuffer snapshotIndex() {
+        int size = 32 + 4;
+        for (Map.Entry<String, Location> entry : index.entrySet()) {
+            size += 2 + entry.getValue().keyLength + 12;
+        }
+        ByteBuffer data = ByteBuffer.allocate(size);
+        data.putInt(INDEX_MAGIC).putInt(VERSION).putLong(generation).putLong(flushedEnd).putInt(index.size());
+        for (Map.Entry<String, Location> entry : index.entrySet()) {
+            Location location = entry.getValue();
+            data.putShort((short) location.keyLength).put(entry.getKey().getBytes(StandardCharsets.UTF_8));
+            data.putLong(location.position).putInt(location.size);
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(data.array(), 0, data.position());
+        data.putInt((int) checksum.getValue());
+        return data.flip();
+    }
+
+    /** Replaces the checkpoint file atomically. */
+    private void writeCheckpoint(ByteBuffer data) throws IOException {
+        long covered = data.getLong(16);
+        Path temp = directory.resolve(INDEX_FILE + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(out, data, 0);
+            out.force(true);
+        }
+        Files.move(temp, indexPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        checkpointEnd = covered;
+    }
+
+    private void syncDirectory() {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException ignored) {
+            // Not every platform can sync a directory; the rename is still atomic
+        }
+    }
+
+    private static ByteBuffer header(long generation) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putLong(generation);
+        return header.flip();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) throw new IOException("Unexpected end of save store log.");
+            position += read;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) position += channel.write(buffer, position);
+    }
+}
@@ -4,7 +4,18 @@ public class SlidingPuzzle extends Game {
     private Player player;
     private int rows;
     private int columns;
-    private int[] emptySpace = new int[2];
+    private SlidingPuzzleRules rules;
+    private SlidingPuzzleState state;
+    private String[] labels;
+
+    // Time the solver may spend on a hint before giving up
+    private static final long HINT_TIME_LIMIT_MS = 3000;
+    private SlidingPuzzleSolver solver;
+    private boolean solverHasPatterns;
+
+    // Boards up to this size can be generated for a requested solution length within the time limit
+    private static final int MAX_RATED_CELLS = 16;
+    private static final long RATED_TIME_LIMIT_MS = 5000;
 
     // Board class inherited from abstract Game class
     public SlidingPuzzle(Menu menu, InputHandler inputHandler) {
@@ -19,160 +30,110 @@ public class SlidingPuzzle extends Game {
             dimensions = inputHandler.getBoardDimensions();
         }
 
-        this.rows = dimensions[0];
-        this.columns = dimensions[1];
+        setUp(dimensions[0], dimensions[1]);
 
-        board = new Board(rows, columns);
+        boolean rated = rows * columns > 1 && rows * columns <= MAX_RATED_CELLS && loadRatedBoard();
 
-        Tile[] tiles = generateTiles(rows, columns);
-        Tile[][] initialPieces = new Tile[rows][columns]; 
-
-        do {
-            Tile[] shuffledTiles = shuffleTiles(tiles);
-            fillBoard(initialPieces, shuffledTiles); 
-            board.setPieces(initialPieces); 
-        } while (!isSolvable() || isGameWon());
-        
-        this.emptySpace = findTileInBoard("0");
+        // Every generated board is solvable; only the already solved one is redrawn (a single cell is always solved)
+        if (!rated && rows * columns > 1) {
+            SlidingPuzzleGenerator generator = new SlidingPuzzleGenerator(rows, columns, new Random());
+            int[] cells = new int[rows * columns];
+            do {
+                generator.next(cells);
+                rules.load(cells);
+            } while (state.isSolved());
+        }
 
         setGameActive(true);
+        menu.displayMessage("\nSlide a tile by entering its number. Type 'hint' for a suggested move.");
     }
     
-    /** Fills the provided board array with shuffled tiles */
-    private void fillBoard(Tile[][] targetBoard, Tile[] tiles) {
-        int index = 0;
-        for (int x = 0; x < rows; x++) {
-            for (int y = 0; y < columns; y++) {
-                targetBoard[x][y] = tiles[index++];
-            }
+    private void setUp(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+
+        board = new Board(rows, columns);
+        rules = new SlidingPuzzleRules(rows, columns);
+        state = rules.getState();
+
+        labels = new String[rows * columns];
+        labels[0] = " ";
+        for (int i = 1; i < labels.length; i++) {
+            labels[i] = String.valueOf(i);
         }
     }
-    
-    private Tile[] generateTiles(int rows, int columns) {
-        Tile[] tiles = new Tile[rows * columns];
-        for (int i = 0; i < tiles.length; i++) {
-            tiles[i] = new Tile(String.valueOf(i)); 
+
+    /**
+     * Asks for a target solution length ("40-50" or "45") and loads a board rated in that range.
+     * Returns false if the player wants a random board or none was found in time.
+     */
+    private boolean loadRatedBoard() {
+        String answer = inputHandler.getOptionalInput("Target solution length as min-max (e.g. 20-30), or press Enter for a random board: ");
+        if (answer.isEmpty()) return false;
+
+        int minMoves;
+        int maxMoves;
+        try {
+            String[] parts = answer.split("-");
+            minMoves = Integer.parseInt(parts[0].trim());
+            maxMoves = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : minMoves;
+        } catch (NumberFormatException e) {
+            menu.displayError("Invalid range, using a random board.");
+            return false;
+        }
+        if (minMoves < 1 || maxMoves < minMoves) {
+            menu.displayError("Invalid range, using a random board.");
+            return false;
         }
-        return tiles;
-    }
 
-    private static Tile[] shuffleTiles(Tile[] tiles) {
-        Tile[] shuffledTiles = Arrays.copyOf(tiles, tiles.length);
-        Random random = new Random();
-        for (int i = shuffledTiles.length - 1; i > 0; i--) {
-            int j = random.nextInt(i + 1);
-            Tile temp = shuffledTiles[i];
-            shuffledTiles[i] = shuffledTiles[j];
-            shuffledTiles[j] = temp;
+        List<SlidingPuzzleRater.RatedBoard> boards =
+                new SlidingPuzzleRater(rows, columns).generate(minMoves, maxMoves, 1, RATED_TIME_LIMIT_MS);
+        if (boards.isEmpty()) {
+            menu.displayMessage("No board with that solution length found, using a random board.");
+            return false;
         }
-        return shuffledTiles;
+        rules.load(boards.get(0).getCells());
+        menu.displayMessage("This board can be solved in " + boards.get(0).getMoves() + " moves.");
+        return true;
     }
-    
-    /** Builds the DisplayInfo grid for the Board's printer. */
-    public Tile.DisplayInfo[][] getDisplayGrid() {
-        Tile[][] pieces = board.getPieces(); 
-        Tile.DisplayInfo[][] grid = new Tile.DisplayInfo[rows][columns];
 
+    /** Draws every tile, boxed on all four sides, into the board's frame. */
+    public BoardFrame renderBoard() {
+        BoardFrame frame = board.getFrame();
         for (int r = 0; r < rows; r++) {
             for (int c = 0; c < columns; c++) {
-                grid[r][c] = pieces[r][c].getDisplayInfo(null); 
+                frame.setCell(r, c, BoardFrame.ALL_EDGES, labels[state.getTile(r * columns + c)]);
             }
         }
-        return grid;
+        return frame.render();
     }
 
     public String[][] getBoardDisplay() {
-        return board.getBoardDisplay(getDisplayGrid());
-    }
-    
-    /** Finds and returns the position of a tile based off of its value */
-    private int[] findTileInBoard(String value) {
-        Tile[][] pieces = board.getPieces(); 
-        int[] position = new int[2];
-        for (int x = 0; x < rows; x++) {
-            for (int y = 0; y < columns; y++) {
-                if (pieces[x][y].value.equals(value)) {
-                    position[0] = x;
-                    position[1] = y;
-                    return position;
-                }
-            }
-        }
-        return position;
-    }
-    
-    /** swaps the tiles on the board */
-    private void swapPieces(int[] tile1, int[] tile2) {
-        Tile[][] pieces = board.getPieces(); 
-        Tile temp = pieces[tile1[0]][tile1[1]];
-        pieces[tile1[0]][tile1[1]] = pieces[tile2[0]][tile2[1]];
-        pieces[tile2[0]][tile2[1]] = temp;
+        return renderBoard().toLines();
     }
 
-    private List<int[]> getAdjacentPieces(int row, int column) {
-        List<int[]> adjacent = new ArrayList<>();
-        int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
-
-        for (int[] direction : directions) {
-            int newRow = row + direction[0];
-            int newCol = column + direction[1];
+    @Override
+    public GameRules getRules() {
+        return rules;
+    }
 
-            if (board.isValidPosition(newRow, newCol)) {
-                adjacent.add(new int[]{newRow, newCol});
-            }
-        }
-        return adjacent;
+    public long getHash() {
+        return state.getHash();
     }
-    
+
     /** Checks if the board is solvable or not */
     public boolean isSolvable() {
-        Tile[][] pieces = board.getPieces(); 
-        List<Integer> tiles = new ArrayList<>();
-        int emptyRowFromBottom = 0;
-        for (int x = 0; x < rows; x++) {
-            for (int y = 0; y < columns; y++) {
-                Tile tile = pieces[x][y];
-
-                if (tile.value.equals("0")) {
-                    emptyRowFromBottom = rows - x;
-                } else {
-                    tiles.add(Integer.parseInt(tile.value));
-                }
-            }
-        }
-
-        int inversions = 0;
-        for (int i = 0; i < tiles.size(); i++) {
-            for (int j = i + 1; j < tiles.size(); j++) {
-                if (tiles.get(i) > tiles.get(j)) {
-                    inversions++;
-                }
-            }
-        }
+        return isSolvable(state.toArray(), rows, columns);
+    }
 
-        if (columns % 2 == 1) {
-            return inversions % 2 == 0;
-        } else {
-            return (inversions + emptyRowFromBottom) % 2 == 1;
-        }
+    /** Checks solvability of a row-major board of tile numbers (0 = blank); see {@link SlidingPuzzleGenerator#isSolvable}. */
+    public static boolean isSolvable(int[] cells, int rows, int columns) {
+        return SlidingPuzzleGenerator.isSolvable(cells, rows, columns);
     }
     
     /** Checks if the user has achieved the task of the game by arranging the tiles in the correct order*/
     public boolean isGameWon() {
-        Tile[][] pieces = board.getPieces(); 
-        int expectedValue = 1;
-        for (int x = 0; x < rows; x++) {
-            for (int y = 0; y < columns; y++) {
-                if (x == rows - 1 && y == columns - 1) {
-                    return Integer.parseInt(pieces[x][y].value) == 0;
-                } else {
-                    if (Integer.parseInt(pieces[x][y].value) != expectedValue++) {
-                        return false;
-                    }
-                }
-            }
-        }
-        return true;
+        return state.isSolved();
     }
 
     public boolean isActive(int flag) {
@@ -180,55 +141,58 @@ public class SlidingPuzzle extends Game {
     }
 
     public boolean isValidMove(int pieceValue) {
-        if (pieceValue <= 0 || pieceValue > rows * columns) {
-            return false;
-        }
-
-        List<int[]> emptyAdjacentPieces = getAdjacentPieces(emptySpace[0], emptySpace[1]);
-        Tile[][] pieces = board.getPieces(); 
-
-        for (int[] piece : emptyAdjacentPieces) {
-            if (pieces[piece[0]][piece[1]].value.equals(String.valueOf(pieceValue))) {
-                return true;
-            }
-        }
-        return false;
+        return rules.validate(pieceValue) == GameRules.OK;
     }
 
 
     public int makeMove() {
         String input = inputHandler.getMove(player, ", which tile do you want to slide to the empty space? ");
         if (input.equalsIgnoreCase("q")) return -1;
-        try {
-            int tileValue = Integer.parseInt(input);
-            return makeMoveWithValue(tileValue);
-        } catch (NumberFormatException e) {
+        int tileValue = rules.parseMove(input);
+        if (tileValue == GameRules.INVALID_FORMAT) {
             menu.displayError("Please enter a valid piece!");
             return 1;
         }
+        return makeMoveWithValue(tileValue);
     }
     private int makeMoveWithValue(int validMove) {
-        if (!isValidMove(validMove)) {
+        if (rules.apply(validMove) != GameRules.OK) {
             menu.displayError("Please enter a valid piece");
             return 1;
         }
 
-        List<int[]> adjacentPieces = getAdjacentPieces(emptySpace[0], emptySpace[1]);
-        Tile[][] pieces = board.getPieces();
-        int[] movePiece = new int[2];
+        menu.displayMessage("");
+        return 1;
+    }
+
+    /** Current board as row-major tile numbers, 0 for the blank. */
+    public int[] getCells() {
+        return state.toArray();
+    }
 
-        for (int[] adjacentPiece : adjacentPieces) {
-            if (pieces[adjacentPiece[0]][adjacentPiece[1]].value.equals(String.valueOf(validMove))) {
-                movePiece = adjacentPiece;
+    /**
+     * Runs the optimal solver on the current board and shows the first move of the solution. The pattern
+     * databases are used once they are ready; until then (while they build in the background, or for good
+     * on boards without a pregenerated file) the solver makes do with Manhattan distance and linear
+     * conflicts, so a hint never waits for tables beyond its time limit.
+     */
+    private void showHint() {
+        long start = System.currentTimeMillis();
+        if (solver == null || !solverHasPatterns) {
+            PatternDatabase patterns = PatternDatabase.ifReady(rows, columns);
+            if (solver == null || patterns != null) {
+                solver = new SlidingPuzzleSolver(rows, columns, patterns);
+                solverHasPatterns = patterns != null;
             }
         }
-
-        int[] temp = movePiece;
-        swapPieces(emptySpace, movePiece);
-        emptySpace = temp;
-
-        System.out.println();
-        return 1;
+        // A limit of 0 would mean none, so at least a millisecond is left for the search
+        long remaining = Math.max(1, HINT_TIME_LIMIT_MS - (System.currentTimeMillis() - start));
+        int[] solution = solver.solve(getCells(), Long.MAX_VALUE, remaining);
+        if (solution == null) {
+            menu.displayMessage("No hint found within " + HINT_TIME_LIMIT_MS / 1000 + " seconds.");
+        } else if (solution.length > 0) {
+            menu.displayMessage("Hint: slide tile " + solution[0] + " (solvable in " + solution.length + " moves).");
+        }
     }
 
     public void displayVictory() {
@@ -255,18 +219,43 @@ public class SlidingPuzzle extends Game {
         this.gameActive = var1;
     }
 
+    /** Full snapshot of the game: a private copy of the board that later moves never touch. */
+    @Override
+    public GameState saveState() {
+        SlidingPuzzleState snapshot = new SlidingPuzzleState(rows, columns);
+        snapshot.load(state.toArray());
+        GameState saved = new GameState();
+        saved.boardData = snapshot;
+        saved.player1Score = rules.getScore(0);
+        saved.gameActive = gameActive;
+        return saved;
+    }
+
+    /** Continues a game from {@link #saveState()} in place of {@link #initializeGame()}, on the saved board size. */
+    @Override
+    public void loadState(GameState saved) {
+        if (saved.boardData instanceof SlidingPuzzleState position) {
+            setUp(position.getRows(), position.getColumns());
+            rules.load(position.toArray());
+        }
+        this.gameActive = saved.gameActive;
+    }
+
     @Override
     public int makeMoveFromInput(String command) {
         if (command.equalsIgnoreCase("p") || command.equalsIgnoreCase("pause")) {
             return 1; // Pause handled by GameEngine
         }
-        try {
-            int tileValue = Integer.parseInt(command);
-            return makeMoveWithValue(tileValue); // We'll refactor your logic slightly
-        } catch (NumberFormatException e) {
+        if (command.equalsIgnoreCase("hint")) {
+            showHint();
+            return 1;
+        }
+        int tileValue = rules.parseMove(command);
+        if (tileValue == GameRules.INVALID_FORMAT) {
             menu.displayMessage("Invalid input. Please enter a number or 'p' to pause.");
             return 1;
         }
+        return makeMoveWithValue(tileValue);
     }
 
 }
@@ -0,0 +1,162 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * Produces uniformly random solvable Sliding Puzzle boards in a single pass, with no retry loop.
+ * A shuffle is solvable exactly half of the time for a fixed blank position, and swapping two tiles
+ * flips solvability, so an unsolvable shuffle is repaired with one transposition of the first two
+ * tiles. That swap is a bijection between the unsolvable and solvable boards with the blank in the
+ * same cell, which keeps the result uniform.
+ *
+ * Boards are row-major arrays of tile numbers with 0 for the blank and may be of any size, so this
+ * also serves headless batch generation of boards far beyond the 10x10 limit of the game itself.
+ */
+public class SlidingPuzzleGenerator {
+    private final int rows;
+    private final int columns;
+    private final int size;
+    private final RandomGenerator random;
+    private final boolean[] seen;
+
+    public SlidingPuzzleGenerator(int rows, int columns, RandomGenerator random) {
+        if (rows <= 0 || columns <= 0 || (long) rows * columns > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Invalid board size " + rows + "x" + columns + ".");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.size = rows * columns;
+        this.random = random;
+        this.seen = new boolean[size];
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /** Returns a new uniformly random solvable board. */
+    public int[] next() {
+        int[] cells = new int[size];
+        next(cells);
+        return cells;
+    }
+
+    /** Fills the given array with a uniformly random solvable board, so batches can reuse one buffer. */
+    public void next(int[] cells) {
+        if (cells.length != size) {
+            throw new IllegalArgumentException("Board must have " + size + " cells.");
+        }
+
+        // Tiles can never pass each other on a board one cell wide: they stay in order around the blank
+        if (rows == 1 || columns == 1) {
+            int blank = random.nextInt(size);
+            int tile = 1;
+            for (int i = 0; i < size; i++) {
+                cells[i] = i == blank ? 0 : tile++;
+            }
+            return;
+        }
+
+        for (int i = 0; i < size; i++) {
+            cells[i] = i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = cells[i];
+            cells[i] = cells[j];
+            cells[j] = temp;
+        }
+
+        int blank = 0;
+        while (cells[blank] != 0) blank++;
+        boolean oddTiles = tilePermutationIsOdd(cells, blank);
+        if (requiresOddTiles(blank) != oddTiles) {
+            int first = blank == 0 ? 1 : 0;
+            int second = blank <= 1 ? 2 : 1;
+            int temp = cells[first];
+            cells[first] = cells[second];
+            cells[second] = temp;
+        }
+    }
+
+    /**
+     * True if the tiles (blank skipped) must form an odd permutation for the board to be solvable.
+     * On odd-width boards the parity must be even; on even-width boards it depends on the blank's row.
+     */
+    private boolean requiresOddTiles(int blank) {
+        if (columns % 2 == 1) return false;
+        int blankRowFromBottom = rows - blank / columns;
+        return blankRowFromBottom % 2 == 0;
+    }
+
+    /**
+     * Parity of the tile sequence (blank skipped) in O(n). The parity of the whole board follows from
+     * its cycles, since a k-cycle is k - 1 transpositions; moving the blank to the front then takes one
+     * adjacent swap per cell it passes without reordering any tiles.
+     */
+    private boolean tilePermutationIsOdd(int[] cells, int blank) {
+        java.util.Arrays.fill(seen, false);
+        int cycles = 0;
+        for (int start = 0; start < size; start++) {
+            if (seen[start]) continue;
+            cycles++;
+            for (int cell = start; !seen[cell]; cell = cells[cell]) {
+                seen[cell] = true;
+            }
+        }
+        return ((size - cycles + blank) & 1) == 1;
+    }
+
+    /**
+     * Checks solvability of a row-major board of tile numbers (0 = blank) using inversion parity.
+     * Boards one cell wide are a special case: tiles can never pass each other, so they must already be in order.
+     */
+    public static boolean isSolvable(int[] cells, int rows, int columns) {
+        if (rows == 1 || columns == 1) {
+            int previous = 0;
+            for (int tile : cells) {
+                if (tile == 0) continue;
+                if (tile < previous) return false;
+                previous = tile;
+            }
+            return true;
+        }
+
+        int emptyRowFromBottom = 0;
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] == 0) {
+                emptyRowFromBottom = rows - i / columns;
+                break;
+            }
+        }
+
+        long inversions = countInversions(cells);
+        if (columns % 2 == 1) {
+            return inversions % 2 == 0;
+        } else {
+            return (inversions + emptyRowFromBottom) % 2 == 1;
+        }
+    }
+
+    /**
+     * Number of pairs of tiles (blank skipped) that appear in the wrong order, in O(n log n) with a
+     * Fenwick tree: scanning from the right, each tile counts the smaller tiles already seen.
+     */
+    public static long countInversions(int[] cells) {
+        int[] tree = new int[cells.length + 1];
+        long inversions = 0;
+        for (int i = cells.length - 1; i >= 0; i--) {
+            int tile = cells[i];
+            if (tile == 0) continue;
+            for (int j = tile - 1; j > 0; j -= j & -j) {
+                inversions += tree[j];
+            }
+            for (int j = tile; j < tree.length; j += j & -j) {
+                tree[j]++;
+            }
+        }
+        return inversions;
+    }
+}
@@ -0,0 +1,194 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Generates Sliding Puzzle boards whose optimal solution length lies in a requested range, e.g. a 4x4
+ * board that takes 40 to 50 moves. Candidates come from random walks away from the solved board, so the
+ * walk length is a free upper bound on the solution length and the solver's heuristic a free lower bound.
+ * Most candidates are rejected on those bounds alone; the rest are solved exactly, but only up to the
+ * maximum length. Workers run on a fork-join pool, one solver and random stream per worker.
+ *
+ * Usage: java SlidingPuzzleRater rows columns minMoves maxMoves [count]
+ */
+public class SlidingPuzzleRater {
+    // Exact solves beyond this many nodes are dropped as outliers rather than stalling a worker
+    private static final long MAX_SOLVE_NODES = 20_000_000L;
+    private static final int WALK_FACTOR = 4;
+
+    /** A generated board with its optimal solution length. */
+    public static class RatedBoard {
+        private final int[] cells;
+        private final int moves;
+
+        public RatedBoard(int[] cells, int moves) {
+            this.cells = cells;
+            this.moves = moves;
+        }
+
+        /** Row-major tile numbers, 0 for the blank. */
+        public int[] getCells() {
+            return cells;
+        }
+
+        public int getMoves() {
+            return moves;
+        }
+    }
+
+    private final int rows;
+    private final int columns;
+    private final int[] neighbours;
+    private final ForkJoinPool pool;
+
+    private final LongAdder candidates = new LongAdder();
+    private final LongAdder exactSolves = new LongAdder();
+    private long elapsedNanos;
+
+    public SlidingPuzzleRater(int rows, int columns) {
+        this(rows, columns, ForkJoinPool.commonPool());
+    }
+
+    public SlidingPuzzleRater(int rows, int columns, ForkJoinPool pool) {
+        if (rows * columns < 2 || rows * columns > SlidingPuzzleState.MAX_CELLS) {
+            throw new IllegalArgumentException("Board must have between 2 and " + SlidingPuzzleState.MAX_CELLS + " cells.");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.neighbours = PatternDatabase.neighbourTable(rows, columns);
+        this.pool = pool;
+    }
+
+    /**
+     * Generates up to count boards with an optimal solution of minMoves to maxMoves moves, stopping early
+     * when the time limit (0 for none) runs out. Fewer boards come back if the range is rare or impossible.
+     */
+    public List<RatedBoard> generate(int minMoves, int maxMoves, int count, long timeLimitMillis) {
+        if (minMoves < 1 || maxMoves < minMoves) {
+            throw new IllegalArgumentException("Invalid move range " + minMoves + "-" + maxMoves + ".");
+        }
+        candidates.reset();
+        exactSolves.reset();
+        long start = System.nanoTime();
+        long deadline = timeLimitMillis > 0 ? start + timeLimitMillis * 1_000_000L : Long.MAX_VALUE;
+        // Shared pattern databases, loaded once before the workers start. With a time limit the rater does
+        // not wait for tables to be built: it rates with the plain heuristics (while they build in the
+        // background), so the limit covers the whole call
+        PatternDatabase patterns = timeLimitMillis > 0
+                ? PatternDatabase.ifReady(rows, columns)
+                : PatternDatabase.forBoard(rows, columns);
+
+        List<RatedBoard> found = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger remaining = new AtomicInteger(count);
+        SplittableRandom seed = new SplittableRandom();
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (int i = 0; i < pool.getParallelism(); i++) {
+            SplittableRandom random = seed.split();
+            workers.add(() -> {
+                work(minMoves, maxMoves, deadline, random, patterns, remaining, found);
+                return null;
+            });
+        }
+        pool.invokeAll(workers);
+
+        elapsedNanos = System.nanoTime() - start;
+        return new ArrayList<>(found);
+    }
+
+    private void work(int minMoves, int maxMoves, long deadline, SplittableRandom random, PatternDatabase patterns,
+                      AtomicInteger remaining, List<RatedBoard> found) {
+        SlidingPuzzleSolver solver = new SlidingPuzzleSolver(rows, columns, patterns);
+        int[] cells = new int[rows * columns];
+        while (remaining.get() > 0 && System.nanoTime() < deadline) {
+            candidates.increment();
+            // Solution length has the parity of the walk length, so one exact target needs a matching walk
+            int walk = minMoves + random.nextInt(WALK_FACTOR * maxMoves);
+            if (minMoves == maxMoves && (walk - minMoves) % 2 != 0) walk++;
+            randomWalk(cells, walk, random);
+
+            int lower = solver.estimate(cells);
+            if (lower > maxMoves) continue;
+
+            int moves;
+            if (lower == walk) {
+                moves = walk;
+            } else {
+                exactSolves.increment();
+                int[] solution = solver.solveWithin(cells, Math.min(walk, maxMoves), MAX_SOLVE_NODES);
+                if (solution == null) continue;
+                moves = solution.length;
+            }
+            if (moves < minMoves) continue;
+
+            if (remaining.getAndDecrement() > 0) {
+                found.add(new RatedBoard(cells.clone(), moves));
+            }
+        }
+    }
+
+    /** Walks the blank from the solved position, never undoing the previous step. */
+    private void randomWalk(int[] cells, int steps, SplittableRandom random) {
+        int size = cells.length;
+        for (int i = 0; i < size - 1; i++) cells[i] = i + 1;
+        cells[size - 1] = 0;
+        int blank = size - 1;
+        int previous = -1;
+        for (int step = 0; step < steps; step++) {
+            int next;
+            do {
+                next = neighbours[blank * 4 + random.nextInt(4)];
+            } while (next < 0 || (next == previous && hasOtherNeighbour(blank, previous)));
+            cells[blank] = cells[next];
+            cells[next] = 0;
+            previous = blank;
+            blank = next;
+        }
+    }
+
+    // Dead ends only occur on boards one cell wide, where the walk has to turn back
+    private boolean hasOtherNeighbour(int cell, int excluded) {
+        for (int d = 0; d < 4; d++) {
+            int n = neighbours[cell * 4 + d];
+            if (n >= 0 && n != excluded) return true;
+        }
+        return false;
+    }
+
+    public long getCandidates() {
+        return candidates.sum();
+    }
+
+    public long getExactSolves() {
+        return exactSolves.sum();
+    }
+
+    public long getElapsedMillis() {
+        return elapsedNanos / 1_000_000L;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 4) {
+            System.out.println("Usage: java SlidingPuzzleRater rows columns minMoves maxMoves [count]");
+            return;
+        }
+        int rows = Integer.parseInt(args[0]);
+        int columns = Integer.parseInt(args[1]);
+        int minMoves = Integer.parseInt(args[2]);
+        int maxMoves = Integer.parseInt(args[3]);
+        int count = args.length > 4 ? Integer.parseInt(args[4]) : 100;
+
+        SlidingPuzzleRater rater = new SlidingPuzzleRater(rows, columns);
+        List<RatedBoard> boards = rater.generate(minMoves, maxMoves, count, 0);
+        for (RatedBoard board : boards) {
+            System.out.println(board.getMoves() + "\t" + java.util.Arrays.toString(board.getCells()));
+        }
+        long millis = Math.max(1, rater.getElapsedMillis());
+        System.out.println(boards.size() + " boards in " + millis + " ms (" + boards.size() * 60_000L / millis
+                + " per minute), " + rater.getCandidates() + " candidates, " + rater.getExactSolves() + " exact solves");
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * Headless Sliding Puzzle rules on top of {@link SlidingPuzzleState}. A move is the number of the tile to
+ * slide into the blank, as typed in the game; solving the board scores the game's only point.
+ *
+ * Error codes: {@link #INVALID_FORMAT}, {@link #OUT_OF_BOUNDS} (no such tile), {@link #BLOCKED} (the tile
+ * is not next to the blank) and {@link #GAME_OVER}.
+ */
+public class SlidingPuzzleRules implements GameRules {
+    private final SlidingPuzzleState state;
+    private final int[] neighbours;
+    private int[] start;
+    private int[] history = new int[64];
+    private int moveCount;
+
+    /** Starts from the solved board; use {@link #load(int[])} to set up a puzzle. */
+    public SlidingPuzzleRules(int rows, int columns) {
+        this.state = new SlidingPuzzleState(rows, columns);
+        this.neighbours = PatternDatabase.neighbourTable(rows, columns);
+        this.start = state.toArray();
+    }
+
+    /** The position itself, for rendering and search; change it only through these rules. */
+    public SlidingPuzzleState getState() {
+        return state;
+    }
+
+    /** Sets up a new starting board (row-major tile numbers, 0 for the blank) and clears the history. */
+    public void load(int[] cells) {
+        state.load(cells);
+        start = cells.clone();
+        moveCount = 0;
+    }
+
+    /** Back to the board last given to {@link #load(int[])}. */
+    @Override
+    public void reset() {
+        state.load(start);
+        moveCount = 0;
+    }
+
+    @Override
+    public int getPlayerCount() {
+        return 1;
+    }
+
+    @Override
+    public int getCurrentPlayer() {
+        return 0;
+    }
+
+    @Override
+    public int getMaxMoves() {
+        return 4;
+    }
+
+    @Override
+    public int generateMoves(int[] moves) {
+        if (state.isSolved()) return 0;
+        int blank = state.getBlankCell();
+        int count = 0;
+        for (int d = 0; d < 4; d++) {
+            int cell = neighbours[blank * 4 + d];
+            if (cell >= 0) moves[count++] = state.getTile(cell);
+        }
+        return count;
+    }
+
+    @Override
+    public int validate(int move) {
+        if (state.isSolved()) return GAME_OVER;
+        if (move <= 0 || move >= state.getRows() * state.getColumns()) return OUT_OF_BOUNDS;
+        if (!state.canSlide(move)) return BLOCKED;
+        return OK;
+    }
+
+    @Override
+    public int apply(int move) {
+        int result = validate(move);
+        if (result != OK) return result;
+        state.slide(move);
+        if (moveCount == history.length) history = java.util.Arrays.copyOf(history, moveCount * 2);
+        history[moveCount++] = move;
+        return OK;
+    }
+
+    /** Sliding the same tile again puts it back, so only the tiles need to be remembered. */
+    @Override
+    public int undo() {
+        if (moveCount == 0) return NOTHING_TO_UNDO;
+        state.slide(history[--moveCount]);
+        return OK;
+    }
+
+    @Override
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    @Override
+    public boolean isTerminal() {
+        return state.isSolved();
+    }
+
+    @Override
+    public int getScore(int player) {
+        return state.isSolved() ? 1 : 0;
+    }
+
+    @Override
+    public int getWinner() {
+        return state.isSolved() ? 0 : -1;
+    }
+
+    @Override
+    public long getHash() {
+        return state.getHash();
+    }
+
+    @Override
+    public int parseMove(String text) {
+        try {
+            int tile = Integer.parseInt(text.trim());
+            return tile < 0 ? OUT_OF_BOUNDS : tile;
+        } catch (NumberFormatException e) {
+            return INVALID_FORMAT;
+        }
+    }
+
+    @Override
+    public String formatMove(int move) {
+        return String.valueOf(move);
+    }
+}
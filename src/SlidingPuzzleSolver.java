@@ -0,0 +1,312 @@
+/**
+ * Optimal solver for the Sliding Puzzle using IDA* (iterative-deepening A*).
+ * The heuristic is the larger of Manhattan distance plus linear conflicts and, for boards with
+ * at least {@link PatternDatabase#MIN_CELLS} cells, the sum of the additive pattern databases. On square
+ * boards the databases are also looked up for the transposed board ({@link SlidingPuzzleSymmetry}), which
+ * needs exactly as many moves, and the larger of the two sums is used.
+ * All heuristic terms are updated incrementally per move, and the depth-first search works on
+ * preallocated arrays, so the inner loop never allocates.
+ *
+ * Boards are given as cell arrays in row-major order holding tile numbers, with 0 for the blank.
+ * The solution is the sequence of tile numbers to slide into the blank, as typed in the game.
+ */
+public class SlidingPuzzleSolver {
+    private static final int FOUND = -1;
+    private static final int INFINITY = Integer.MAX_VALUE;
+    private static final int MAX_SOLUTION = 4096;
+
+    private final int rows;
+    private final int columns;
+    private final int cells;
+    private final int[] neighbours;
+    private final PatternDatabase patterns;
+    private final SlidingPuzzleSymmetry symmetry;
+    private final int reflection;  // transform for the second pattern lookup, or 0 for none
+
+    // Search state
+    private final int[] board;
+    private final int[] cellOf;
+    private final int[] path = new int[MAX_SOLUTION];
+    private int blank;
+
+    // Heuristic state
+    private int manhattan;
+    private int conflicts;
+    private final int[] rowConflicts;
+    private final int[] columnConflicts;
+    private final int[] lineBuffer;
+    private final int[] lisBuffer;
+    private int patternSum;
+    private final int[] patternIndex;
+    private final int[] patternManhattan;
+    private int reflectedSum;
+    private final int[] reflectedIndex;
+    private final int[] reflectedManhattan;
+    private final int[] reflectedCellOf;
+
+    private int solutionLength;
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private boolean aborted;
+
+    public SlidingPuzzleSolver(int rows, int columns) {
+        this(rows, columns, PatternDatabase.forBoard(rows, columns));
+    }
+
+    /** Uses the given pattern databases (or none) instead of the shared ones for this board size. */
+    public SlidingPuzzleSolver(int rows, int columns, PatternDatabase patterns) {
+        if (patterns != null && (patterns.getRows() != rows || patterns.getColumns() != columns)) {
+            throw new IllegalArgumentException("Pattern database is for a different board size.");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.cells = rows * columns;
+        this.neighbours = PatternDatabase.neighbourTable(rows, columns);
+        this.patterns = patterns;
+        this.board = new int[cells];
+        this.cellOf = new int[cells];
+        this.rowConflicts = new int[rows];
+        this.columnConflicts = new int[columns];
+        this.lineBuffer = new int[Math.max(rows, columns)];
+        this.lisBuffer = new int[Math.max(rows, columns)];
+        this.patternIndex = new int[patterns == null ? 0 : patterns.getGroupCount()];
+        this.patternManhattan = new int[patternIndex.length];
+        this.symmetry = SlidingPuzzleSymmetry.forBoard(rows, columns);
+        this.reflection = patterns != null ? symmetry.getTransformCount() - 1 : 0;
+        this.reflectedIndex = new int[reflection != 0 ? patternIndex.length : 0];
+        this.reflectedManhattan = new int[reflectedIndex.length];
+        this.reflectedCellOf = new int[reflection != 0 ? cells : 0];
+    }
+
+    /** Solves without limits. Returns null if the board is not solvable. */
+    public int[] solve(int[] start) {
+        return solve(start, Long.MAX_VALUE, 0);
+    }
+
+    /**
+     * Returns an optimal sequence of tiles to slide, an empty array if already solved, or null if the
+     * board is unsolvable or the node limit or time limit (0 for none) ran out first.
+     */
+    public int[] solve(int[] start, long maxNodes, long timeLimitMillis) {
+        return solve(start, Integer.MAX_VALUE, maxNodes, timeLimitMillis);
+    }
+
+    /**
+     * Like {@link #solve(int[], long, long)}, but also gives up (returning null without setting
+     * {@link #wasAborted()}) once every solution is known to be longer than maxLength moves.
+     * Deciding "at most maxLength" is much cheaper than solving a board that turns out to be harder.
+     */
+    public int[] solveWithin(int[] start, int maxLength, long maxNodes) {
+        return solve(start, maxLength, maxNodes, 0);
+    }
+
+    private int[] solve(int[] start, int maxLength, long maxNodes, long timeLimitMillis) {
+        if (start.length != cells) {
+            throw new IllegalArgumentException("Board must have " + cells + " cells.");
+        }
+        nodes = 0;
+        aborted = false;
+        nodeLimit = maxNodes;
+        deadline = timeLimitMillis > 0 ? System.nanoTime() + timeLimitMillis * 1_000_000L : Long.MAX_VALUE;
+        if (!SlidingPuzzle.isSolvable(start, rows, columns)) return null;
+
+        load(start);
+        int bound = heuristic();
+        while (true) {
+            if (bound > maxLength) return null;
+            int result = search(0, bound, -1);
+            if (result == FOUND) break;
+            if (aborted || result == INFINITY) return null;
+            bound = result;
+        }
+        return java.util.Arrays.copyOf(path, solutionLength);
+    }
+
+    /** Lower bound on the number of moves needed to solve the board (the solver's heuristic). */
+    public int estimate(int[] start) {
+        load(start);
+        return heuristic();
+    }
+
+    private int search(int g, int bound, int previousBlank) {
+        int h = heuristic();
+        int f = g + h;
+        if (f > bound) return f;
+        if (h == 0) {
+            solutionLength = g;
+            return FOUND;
+        }
+        if (++nodes >= nodeLimit || ((nodes & 0xFFF) == 0 && System.nanoTime() > deadline)) {
+            aborted = true;
+        }
+        if (aborted || g >= MAX_SOLUTION) return INFINITY;
+
+        int min = INFINITY;
+        int from = blank;
+        for (int d = 0; d < 4; d++) {
+            int cell = neighbours[from * 4 + d];
+            if (cell < 0 || cell == previousBlank) continue;
+
+            int tile = board[cell];
+            slide(cell, from);
+            path[g] = tile;
+            int result = search(g + 1, bound, from);
+            slide(from, cell);
+            if (result == FOUND) return FOUND;
+            if (result < min) min = result;
+            if (aborted) return INFINITY;
+        }
+        return min;
+    }
+
+    private void load(int[] start) {
+        System.arraycopy(start, 0, board, 0, cells);
+        for (int cell = 0; cell < cells; cell++) {
+            cellOf[board[cell]] = cell;
+        }
+        blank = cellOf[0];
+
+        manhattan = 0;
+        for (int tile = 1; tile < cells; tile++) {
+            manhattan += distance(tile, cellOf[tile]);
+        }
+        conflicts = 0;
+        for (int r = 0; r < rows; r++) {
+            rowConflicts[r] = rowConflict(r);
+            conflicts += rowConflicts[r];
+        }
+        for (int c = 0; c < columns; c++) {
+            columnConflicts[c] = columnConflict(c);
+            conflicts += columnConflicts[c];
+        }
+
+        patternSum = 0;
+        for (int g = 0; g < patternIndex.length; g++) {
+            patternIndex[g] = patterns.indexOf(g, cellOf);
+            patternManhattan[g] = 0;
+            for (int tile : patterns.getGroup(g)) {
+                patternManhattan[g] += distance(tile, cellOf[tile]);
+            }
+            patternSum += patterns.lookup(g, patternIndex[g], patternManhattan[g]);
+        }
+
+        // In the transposed board, tile mapTile(t) sits on the mirror image of t's cell
+        reflectedSum = 0;
+        if (reflection != 0) {
+            for (int tile = 0; tile < cells; tile++) {
+                reflectedCellOf[symmetry.mapTile(tile, reflection)] = symmetry.mapCell(cellOf[tile], reflection);
+            }
+            for (int g = 0; g < reflectedIndex.length; g++) {
+                reflectedIndex[g] = patterns.indexOf(g, reflectedCellOf);
+                reflectedManhattan[g] = 0;
+                for (int tile : patterns.getGroup(g)) {
+                    reflectedManhattan[g] += distance(tile, reflectedCellOf[tile]);
+                }
+                reflectedSum += patterns.lookup(g, reflectedIndex[g], reflectedManhattan[g]);
+            }
+        }
+    }
+
+    private int heuristic() {
+        return Math.max(manhattan + 2 * conflicts, Math.max(patternSum, reflectedSum));
+    }
+
+    /** Slides the tile at 'from' into the blank at 'to', updating every heuristic term. */
+    private void slide(int from, int to) {
+        int tile = board[from];
+        board[to] = tile;
+        board[from] = 0;
+        cellOf[tile] = to;
+        cellOf[0] = from;
+        blank = from;
+
+        int delta = distance(tile, to) - distance(tile, from);
+        manhattan += delta;
+
+        // A horizontal slide only changes the order of tiles within the two columns involved, and vice versa
+        if (from / columns == to / columns) {
+            int c1 = from % columns;
+            int c2 = to % columns;
+            conflicts -= columnConflicts[c1] + columnConflicts[c2];
+            columnConflicts[c1] = columnConflict(c1);
+            columnConflicts[c2] = columnConflict(c2);
+            conflicts += columnConflicts[c1] + columnConflicts[c2];
+        } else {
+            int r1 = from / columns;
+            int r2 = to / columns;
+            conflicts -= rowConflicts[r1] + rowConflicts[r2];
+            rowConflicts[r1] = rowConflict(r1);
+            rowConflicts[r2] = rowConflict(r2);
+            conflicts += rowConflicts[r1] + rowConflicts[r2];
+        }
+
+        if (patterns != null) {
+            int g = patterns.groupOf(tile);
+            patternSum -= patterns.lookup(g, patternIndex[g], patternManhattan[g]);
+            patternIndex[g] += (to - from) * patterns.multiplierOf(tile);
+            patternManhattan[g] += delta;
+            patternSum += patterns.lookup(g, patternIndex[g], patternManhattan[g]);
+        }
+        if (reflection != 0) {
+            // Transposing keeps distances, so the mirrored tile moves the same delta closer to home
+            int image = symmetry.mapTile(tile, reflection);
+            int g = patterns.groupOf(image);
+            reflectedSum -= patterns.lookup(g, reflectedIndex[g], reflectedManhattan[g]);
+            reflectedIndex[g] += (symmetry.mapCell(to, reflection) - symmetry.mapCell(from, reflection)) * patterns.multiplierOf(image);
+            reflectedManhattan[g] += delta;
+            reflectedSum += patterns.lookup(g, reflectedIndex[g], reflectedManhattan[g]);
+        }
+    }
+
+    private int distance(int tile, int cell) {
+        int goal = tile - 1;
+        return Math.abs(goal / columns - cell / columns) + Math.abs(goal % columns - cell % columns);
+    }
+
+    /** Tiles in row r that belong in row r but must leave it to get past each other. */
+    private int rowConflict(int r) {
+        int length = 0;
+        for (int c = 0; c < columns; c++) {
+            int tile = board[r * columns + c];
+            if (tile != 0 && (tile - 1) / columns == r) {
+                lineBuffer[length++] = (tile - 1) % columns;
+            }
+        }
+        return length - longestIncreasing(length);
+    }
+
+    /** Tiles in column c that belong in column c but must leave it to get past each other. */
+    private int columnConflict(int c) {
+        int length = 0;
+        for (int r = 0; r < rows; r++) {
+            int tile = board[r * columns + c];
+            if (tile != 0 && (tile - 1) % columns == c) {
+                lineBuffer[length++] = (tile - 1) / columns;
+            }
+        }
+        return length - longestIncreasing(length);
+    }
+
+    /** Length of the longest increasing subsequence of lineBuffer[0..length). */
+    private int longestIncreasing(int length) {
+        int best = 0;
+        for (int i = 0; i < length; i++) {
+            int run = 1;
+            for (int j = 0; j < i; j++) {
+                if (lineBuffer[j] < lineBuffer[i] && lisBuffer[j] + 1 > run) run = lisBuffer[j] + 1;
+            }
+            lisBuffer[i] = run;
+            if (run > best) best = run;
+        }
+        return best;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public boolean wasAborted() {
+        return aborted;
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * Primitive representation of a Sliding Puzzle board.
+ * Cells hold tile numbers as bytes in row-major order (0 is the blank), with a reverse index from tile
+ * to cell so that finding and validating a tile is O(1). The number of cells not holding their goal tile
+ * is kept up to date on every slide, so the win check is a single comparison and nothing is parsed or
+ * allocated while playing. The hash of the transposed board ({@link SlidingPuzzleSymmetry}) is kept up to
+ * date as well, so a board and its transpose can share one canonical hash.
+ */
+public class SlidingPuzzleState {
+    /** Largest board the byte encoding supports (tile numbers must fit in a byte). */
+    public static final int MAX_CELLS = 100;
+
+    // Zobrist keys indexed by tile * MAX_CELLS + cell
+    private static final long[] TILE_KEYS = Zobrist.keys(MAX_CELLS * MAX_CELLS, 0x711E5L);
+
+    private final int rows;
+    private final int columns;
+    private final int size;
+    private final byte[] cells;
+    private final byte[] cellOf;
+    private final SlidingPuzzleSymmetry symmetry;
+    private final int imageTransform;  // the transpose on square boards, otherwise the identity
+    private int misplaced;
+    private long hash;
+    private long imageHash;
+
+    /** Creates a solved board. */
+    public SlidingPuzzleState(int rows, int columns) {
+        if (rows <= 0 || columns <= 0 || rows * columns > MAX_CELLS) {
+            throw new IllegalArgumentException("Board must have between 1 and " + MAX_CELLS + " cells.");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.size = rows * columns;
+        this.cells = new byte[size];
+        this.cellOf = new byte[size];
+        this.symmetry = SlidingPuzzleSymmetry.forBoard(rows, columns);
+        this.imageTransform = symmetry.getTransformCount() - 1;
+        int[] solved = new int[size];
+        for (int i = 0; i < size - 1; i++) solved[i] = i + 1;
+        load(solved);
+    }
+
+    /** Goal tile for a cell: tiles 1..n-1 in order, then the blank in the last cell. */
+    private int goalTile(int cell) {
+        return cell == size - 1 ? 0 : cell + 1;
+    }
+
+    /** Replaces the board with the given row-major tile numbers (a permutation of 0..n-1). */
+    public void load(int[] tiles) {
+        if (tiles.length != size) {
+            throw new IllegalArgumentException("Board must have " + size + " cells.");
+        }
+        misplaced = 0;
+        hash = 0L;
+        imageHash = 0L;
+        for (int cell = 0; cell < size; cell++) {
+            int tile = tiles[cell];
+            cells[cell] = (byte) tile;
+            cellOf[tile] = (byte) cell;
+            if (tile != goalTile(cell)) misplaced++;
+            hash ^= TILE_KEYS[tile * MAX_CELLS + cell];
+            imageHash ^= imageKey(tile, cell);
+        }
+    }
+
+    /**
+     * Decoding support for {@link GameStateCodec}: loads one tile number per cell from the buffer's
+     * current position, which the codec has already checked to be a permutation.
+     */
+    void loadCells(java.nio.ByteBuffer in) {
+        misplaced = 0;
+        hash = 0L;
+        imageHash = 0L;
+        for (int cell = 0; cell < size; cell++) {
+            int tile = in.get();
+            cells[cell] = (byte) tile;
+            cellOf[tile] = (byte) cell;
+            if (tile != goalTile(cell)) misplaced++;
+            hash ^= TILE_KEYS[tile * MAX_CELLS + cell];
+            imageHash ^= imageKey(tile, cell);
+        }
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getTile(int cell) {
+        return cells[cell];
+    }
+
+    public int getCellOf(int tile) {
+        return cellOf[tile];
+    }
+
+    public int getBlankCell() {
+        return cellOf[0];
+    }
+
+    public int getMisplaced() {
+        return misplaced;
+    }
+
+    public boolean isSolved() {
+        return misplaced == 0;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    /** Hash shared by the board and its transpose: the smaller of the two hashes. */
+    public long getCanonicalHash() {
+        return Math.min(hash, imageHash);
+    }
+
+    /**
+     * Transform that takes this board to the one {@link #getCanonicalHash()} describes; tiles and moves
+     * are mapped with {@link SlidingPuzzleSymmetry#mapTile(int, int)}.
+     */
+    public int getCanonicalTransform() {
+        return imageHash < hash ? imageTransform : 0;
+    }
+
+    public SlidingPuzzleSymmetry getSymmetry() {
+        return symmetry;
+    }
+
+    private long imageKey(int tile, int cell) {
+        return TILE_KEYS[symmetry.mapTile(tile, imageTransform) * MAX_CELLS + symmetry.mapCell(cell, imageTransform)];
+    }
+
+    /** True if the tile exists and sits right next to the blank. */
+    public boolean canSlide(int tile) {
+        if (tile <= 0 || tile >= size) return false;
+        int cell = cellOf[tile];
+        int blank = cellOf[0];
+        int dr = cell / columns - blank / columns;
+        int dc = cell % columns - blank % columns;
+        return Math.abs(dr) + Math.abs(dc) == 1;
+    }
+
+    /** Slides a tile into the blank. The caller checks {@link #canSlide(int)} first. */
+    public void slide(int tile) {
+        int from = cellOf[tile];
+        int to = cellOf[0];
+
+        if (tile == goalTile(from)) misplaced++;
+        if (goalTile(from) == 0) misplaced--;
+        if (goalTile(to) == 0) misplaced++;
+        if (tile == goalTile(to)) misplaced--;
+
+        cells[to] = (byte) tile;
+        cells[from] = 0;
+        cellOf[tile] = (byte) to;
+        cellOf[0] = (byte) from;
+        hash ^= TILE_KEYS[tile * MAX_CELLS + from] ^ TILE_KEYS[tile * MAX_CELLS + to]
+                ^ TILE_KEYS[from] ^ TILE_KEYS[to];
+        imageHash ^= imageKey(tile, from) ^ imageKey(tile, to) ^ imageKey(0, from) ^ imageKey(0, to);
+    }
+
+    /** Copies the board into a new array of tile numbers, e.g. for the solver. */
+    public int[] toArray() {
+        int[] tiles = new int[size];
+        for (int cell = 0; cell < size; cell++) {
+            tiles[cell] = cells[cell];
+        }
+        return tiles;
+    }
+}
@@ -0,0 +1,99 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The transpose symmetry of a square Sliding Puzzle board. Reflecting the board in its main diagonal
+ * and relabelling every tile by where its goal cell lands gives a puzzle with the same solution length,
+ * since the blank's goal (the last cell) lies on the diagonal. A solution of the image maps back to the
+ * original tile by tile. Transform 0 is the identity and transform 1 the transpose; boards that are not
+ * square only have the identity. Cells and tiles are mapped through lookup tables, without branches.
+ */
+public class SlidingPuzzleSymmetry {
+    private static final Map<String, SlidingPuzzleSymmetry> CACHE = new ConcurrentHashMap<>();
+
+    private final int rows;
+    private final int columns;
+    private final int size;
+    private final int transformCount;
+    private final int[][] cellImage;
+    private final int[][] tileImage;
+
+    public SlidingPuzzleSymmetry(int rows, int columns) {
+        if (rows <= 0 || columns <= 0 || rows * columns > SlidingPuzzleState.MAX_CELLS) {
+            throw new IllegalArgumentException("Board must have between 1 and " + SlidingPuzzleState.MAX_CELLS + " cells.");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.size = rows * columns;
+        this.transformCount = rows == columns ? 2 : 1;
+        this.cellImage = new int[transformCount][size];
+        this.tileImage = new int[transformCount][size];
+        for (int t = 0; t < transformCount; t++) {
+            for (int cell = 0; cell < size; cell++) {
+                cellImage[t][cell] = t == 0 ? cell : (cell % columns) * columns + cell / columns;
+            }
+            // Tile k belongs in cell k - 1, so its image is the tile that belongs where that cell lands
+            for (int tile = 1; tile < size; tile++) {
+                tileImage[t][tile] = cellImage[t][tile - 1] + 1;
+            }
+        }
+    }
+
+    /** Shared tables for a board size. */
+    public static SlidingPuzzleSymmetry forBoard(int rows, int columns) {
+        return CACHE.computeIfAbsent(rows + "x" + columns, key -> new SlidingPuzzleSymmetry(rows, columns));
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /** 2 for square boards (identity and transpose), otherwise 1. Every transform is its own inverse. */
+    public int getTransformCount() {
+        return transformCount;
+    }
+
+    public int mapCell(int cell, int transform) {
+        return cellImage[transform][cell];
+    }
+
+    /** Image of a tile number (0, the blank, maps to itself); also maps solution moves back. */
+    public int mapTile(int tile, int transform) {
+        return tileImage[transform][tile];
+    }
+
+    /** Writes the image of a row-major board under a transform into out. */
+    public void apply(int[] cells, int transform, int[] out) {
+        int[] cellMap = cellImage[transform];
+        int[] tileMap = tileImage[transform];
+        for (int cell = 0; cell < size; cell++) {
+            out[cellMap[cell]] = tileMap[cells[cell]];
+        }
+    }
+
+    /** Transform that takes a board to its canonical form, the lexicographically smaller image. */
+    public int canonicalTransform(int[] cells) {
+        for (int t = 1; t < transformCount; t++) {
+            for (int cell = 0; cell < size; cell++) {
+                // The image's tile at this cell comes from the mirrored cell
+                int image = tileImage[t][cells[cellImage[t][cell]]];
+                if (image != cells[cell]) {
+                    if (image < cells[cell]) return t;
+                    break;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /** Canonical form of a board: the same for the board and its transpose. */
+    public int[] canonical(int[] cells) {
+        int[] out = new int[size];
+        apply(cells, canonicalTransform(cells), out);
+        return out;
+    }
+}
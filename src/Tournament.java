@@ -0,0 +1,237 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Round-robin self-play tournament between bots on the headless {@link GameRules} API.
+ * Every pair of entrants plays the same number of games, alternating who moves first. Games are split
+ * recursively over a work-stealing fork-join pool, and each worker thread keeps one rules object and
+ * one instance of every bot that it resets and reuses, so a game allocates nothing but the bots' own
+ * search state. Results are reported as games per second, average moves per game and, for each
+ * entrant, a score rate (wins plus half the draws) with a 95% Wilson confidence interval.
+ *
+ * Usage: java Tournament quoridor|dots [games per pairing] [ms per move] [rows columns]
+ */
+public class Tournament {
+    // Games still running after this many moves (e.g. two random Quoridor pawns wandering) are draws,
+    // as are games where the player to move has no legal move
+    private static final int MAX_GAME_MOVES = 1000;
+    private static final double Z_95 = 1.96;
+
+    /** A named way to create a bot; every worker thread creates its own instance. */
+    public static class Entrant {
+        private final String name;
+        private final Function<SplittableRandom, Bot> factory;
+
+        public Entrant(String name, Function<SplittableRandom, Bot> factory) {
+            this.name = name;
+            this.factory = factory;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private final String gameName;
+    private final List<Entrant> entrants;
+    private final int gamesPerPairing;
+    private final ForkJoinPool pool;
+    private final int[][] pairings;
+
+    // Per pairing: wins of the first entrant, wins of the second, draws, and moves played
+    private final LongAdder[] firstWins;
+    private final LongAdder[] secondWins;
+    private final LongAdder[] draws;
+    private final LongAdder moves = new LongAdder();
+    private final long seed = System.nanoTime();
+
+    // Reused per worker thread: the rules and one instance of every entrant's bot
+    private final ThreadLocal<GameRules> workerRules;
+    private final ThreadLocal<Bot[]> workerBots;
+    private long elapsedNanos;
+
+    public Tournament(String gameName, Supplier<GameRules> rulesFactory, List<Entrant> entrants,
+                      int gamesPerPairing, ForkJoinPool pool) {
+        if (entrants.size() < 2) {
+            throw new IllegalArgumentException("A tournament needs at least two entrants.");
+        }
+        this.gameName = gameName;
+        this.entrants = entrants;
+        this.gamesPerPairing = gamesPerPairing;
+        this.pool = pool;
+
+        List<int[]> pairs = new ArrayList<>();
+        for (int a = 0; a < entrants.size(); a++) {
+            for (int b = a + 1; b < entrants.size(); b++) {
+                pairs.add(new int[]{a, b});
+            }
+        }
+        this.pairings = pairs.toArray(new int[0][]);
+        this.firstWins = adders(pairings.length);
+        this.secondWins = adders(pairings.length);
+        this.draws = adders(pairings.length);
+
+        this.workerRules = ThreadLocal.withInitial(rulesFactory);
+        this.workerBots = ThreadLocal.withInitial(() -> {
+            SplittableRandom random = new SplittableRandom(seed ^ Thread.currentThread().getId() * 0x9E3779B97F4A7C15L);
+            Bot[] bots = new Bot[entrants.size()];
+            for (int i = 0; i < bots.length; i++) {
+                bots[i] = entrants.get(i).factory.apply(random.split());
+            }
+            return bots;
+        });
+    }
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) adders[i] = new LongAdder();
+        return adders;
+    }
+
+    /** Plays every game of the tournament and blocks until they are all done. */
+    public void run() {
+        long start = System.nanoTime();
+        pool.invoke(new Games(0, getGameCount()));
+        elapsedNanos = System.nanoTime() - start;
+    }
+
+    public int getGameCount() {
+        return pairings.length * gamesPerPairing;
+    }
+
+    /** Splits a range of game numbers in half until it is small enough to play on one worker. */
+    private class Games extends RecursiveAction {
+        // RecursiveAction is Serializable, but these tasks never leave the pool
+        private static final long serialVersionUID = 1L;
+        private static final int THRESHOLD = 2;
+        private final int from;
+        private final int to;
+
+        Games(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                for (int game = from; game < to; game++) play(game);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Games(from, middle), new Games(middle, to));
+        }
+    }
+
+    /** Game n is game n / pairings of its pairing; the first entrant moves first in even-numbered games. */
+    private void play(int game) {
+        int pairing = game % pairings.length;
+        boolean swapped = (game / pairings.length) % 2 == 1;
+        Bot[] bots = workerBots.get();
+        Bot first = bots[pairings[pairing][swapped ? 1 : 0]];
+        Bot second = bots[pairings[pairing][swapped ? 0 : 1]];
+
+        GameRules rules = workerRules.get();
+        rules.reset();
+        while (!rules.isTerminal() && rules.getMoveCount() < MAX_GAME_MOVES) {
+            Bot bot = rules.getCurrentPlayer() == 0 ? first : second;
+            int move = bot.chooseMove(rules);
+            if (move < 0) break; // no legal move, e.g. a Quoridor pawn walled in behind the other pawn
+            if (rules.apply(move) != GameRules.OK) {
+                throw new IllegalStateException(bot.getName() + " made an illegal move in " + gameName + ".");
+            }
+        }
+        moves.add(rules.getMoveCount());
+
+        int winner = rules.getWinner();
+        if (winner < 0 || !rules.isTerminal()) {
+            draws[pairing].increment();
+        } else if ((winner == 0) != swapped) {
+            firstWins[pairing].increment();
+        } else {
+            secondWins[pairing].increment();
+        }
+    }
+
+    /** Wilson score interval for a proportion, as {low, high}. */
+    public static double[] wilson(double score, long games) {
+        if (games == 0) return new double[]{0, 1};
+        double p = score / games;
+        double z2 = Z_95 * Z_95;
+        double centre = (p + z2 / (2 * games)) / (1 + z2 / games);
+        double half = Z_95 * Math.sqrt(p * (1 - p) / games + z2 / (4.0 * games * games)) / (1 + z2 / games);
+        return new double[]{Math.max(0, centre - half), Math.min(1, centre + half)};
+    }
+
+    /** Prints the per-pairing results, each entrant's score rate and the throughput. */
+    public void report() {
+        System.out.println(gameName + ": " + getGameCount() + " games on " + pool.getParallelism() + " threads");
+        long[] wins = new long[entrants.size()];
+        long[] drawn = new long[entrants.size()];
+        long[] played = new long[entrants.size()];
+        for (int p = 0; p < pairings.length; p++) {
+            int a = pairings[p][0];
+            int b = pairings[p][1];
+            long aWins = firstWins[p].sum();
+            long bWins = secondWins[p].sum();
+            long d = draws[p].sum();
+            System.out.printf("  %-14s vs %-14s %6d - %-6d (%d drawn)%n",
+                    entrants.get(a).getName(), entrants.get(b).getName(), aWins, bWins, d);
+            wins[a] += aWins;
+            wins[b] += bWins;
+            drawn[a] += d;
+            drawn[b] += d;
+            played[a] += aWins + bWins + d;
+            played[b] += aWins + bWins + d;
+        }
+        for (int i = 0; i < entrants.size(); i++) {
+            double score = wins[i] + drawn[i] / 2.0;
+            double[] interval = wilson(score, played[i]);
+            System.out.printf("  %-14s score %5.1f%% (95%% CI %5.1f%% - %5.1f%%) over %d games%n",
+                    entrants.get(i).getName(), played[i] == 0 ? 0 : 100 * score / played[i],
+                    100 * interval[0], 100 * interval[1], played[i]);
+        }
+        double seconds = Math.max(1, elapsedNanos) / 1e9;
+        System.out.printf("  %.1f games/s, %.1f moves per game, %.2f s%n",
+                getGameCount() / seconds, (double) moves.sum() / getGameCount(), seconds);
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: java Tournament quoridor|dots [games per pairing] [ms per move] [rows columns]");
+            return;
+        }
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        long millis = args.length > 2 ? Long.parseLong(args[2]) : 10;
+
+        List<Entrant> entrants = new ArrayList<>();
+        entrants.add(new Entrant("random", RandomBot::new));
+        Supplier<GameRules> rules;
+        String name;
+        if (args[0].equalsIgnoreCase("quoridor")) {
+            name = "Quoridor";
+            rules = QuoridorRules::new;
+            entrants.add(new Entrant("search-1ms", random -> new QuoridorBot(1)));
+            entrants.add(new Entrant("search-" + millis + "ms", random -> new QuoridorBot(millis)));
+        } else if (args[0].equalsIgnoreCase("dots")) {
+            int rows = args.length > 4 ? Integer.parseInt(args[3]) : 4;
+            int columns = args.length > 4 ? Integer.parseInt(args[4]) : 4;
+            name = "DotsAndBoxes " + rows + "x" + columns;
+            rules = () -> new DotsAndBoxesRules(rows, columns);
+            entrants.add(new Entrant("solver-" + millis + "ms", random -> new DotsAndBoxesBot(millis)));
+        } else {
+            System.out.println("Unknown game: " + args[0]);
+            return;
+        }
+
+        Tournament tournament = new Tournament(name, rules, entrants, games, ForkJoinPool.commonPool());
+        tournament.run();
+        tournament.report();
+    }
+}
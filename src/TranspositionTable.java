@@ -0,0 +1,147 @@
+/**
+ * Fixed-size transposition table shared by the game solvers.
+ * Entries live in two primitive arrays (keys and packed data) grouped into two-slot buckets:
+ * the first slot keeps the deepest result of the current search, the second always takes the newest one.
+ * Probes and stores never allocate, and hit/miss counters report how well the table is working.
+ *
+ * Packed entry layout: score in bits 0-31, move + 1 in bits 32-53, depth in bits 54-61, bound in bits 62-63.
+ */
+public class TranspositionTable {
+    public static final int EXACT = 1;
+    public static final int LOWER = 2;
+    public static final int UPPER = 3;
+
+    /** Returned by {@link #probe(long)} when the position is not in the table. */
+    public static final long MISS = 0L;
+
+    private static final int MAX_DEPTH = 0xFF;
+
+    private final long[] keys;
+    private final long[] data;
+    private final byte[] generations;
+    private final int mask;
+    private byte generation;
+
+    private long hits;
+    private long misses;
+    private long stores;
+    private long overwrites;
+
+    /** Creates a table with 2^sizeBits entries. */
+    public TranspositionTable(int sizeBits) {
+        if (sizeBits < 1 || sizeBits > 30) {
+            throw new IllegalArgumentException("Table size must be between 2^1 and 2^30 entries");
+        }
+        int size = 1 << sizeBits;
+        this.keys = new long[size];
+        this.data = new long[size];
+        this.generations = new byte[size];
+        this.mask = size - 2; // bucket start index is always even
+    }
+
+    /** Marks entries from earlier searches as stale so they are replaced first. */
+    public void newSearch() {
+        generation++;
+    }
+
+    public void clear() {
+        java.util.Arrays.fill(keys, 0L);
+        java.util.Arrays.fill(data, 0L);
+        java.util.Arrays.fill(generations, (byte) 0);
+        hits = misses = stores = overwrites = 0;
+    }
+
+    /** Returns the packed entry for the key, or {@link #MISS}. */
+    public long probe(long key) {
+        int i = (int) key & mask;
+        if (keys[i] == key && data[i] != MISS) {
+            hits++;
+            return data[i];
+        }
+        if (keys[i + 1] == key && data[i + 1] != MISS) {
+            hits++;
+            return data[i + 1];
+        }
+        misses++;
+        return MISS;
+    }
+
+    public void store(long key, int score, int move, int depth, int bound) {
+        long packed = pack(score, move, depth, bound);
+        int i = (int) key & mask;
+        stores++;
+
+        if (keys[i] == key) {
+            if (depth >= depth(data[i]) || generations[i] != generation) {
+                data[i] = packed;
+                generations[i] = generation;
+            }
+            return;
+        }
+        if (keys[i + 1] == key) {
+            data[i + 1] = packed;
+            generations[i + 1] = generation;
+            return;
+        }
+
+        // Depth-preferred slot: take it if empty, stale, or shallower than the new result
+        if (data[i] == MISS || generations[i] != generation || depth >= depth(data[i])) {
+            if (data[i] != MISS) overwrites++;
+            keys[i] = key;
+            data[i] = packed;
+            generations[i] = generation;
+            return;
+        }
+
+        // Always-replace slot
+        if (data[i + 1] != MISS) overwrites++;
+        keys[i + 1] = key;
+        data[i + 1] = packed;
+        generations[i + 1] = generation;
+    }
+
+    private static long pack(int score, int move, int depth, int bound) {
+        return (score & 0xFFFFFFFFL)
+                | ((long) ((move + 1) & 0x3FFFFF) << 32)
+                | ((long) Math.min(Math.max(depth, 0), MAX_DEPTH) << 54)
+                | ((long) bound << 62);
+    }
+
+    public static int score(long entry) {
+        return (int) entry;
+    }
+
+    /** Best move stored with the entry, or -1 if none. */
+    public static int move(long entry) {
+        return (int) ((entry >>> 32) & 0x3FFFFF) - 1;
+    }
+
+    public static int depth(long entry) {
+        return (int) ((entry >>> 54) & MAX_DEPTH);
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> 62);
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getStores() {
+        return stores;
+    }
+
+    public long getOverwrites() {
+        return overwrites;
+    }
+
+    public double getHitRate() {
+        long probes = hits + misses;
+        return probes == 0 ? 0.0 : (double) hits / probes;
+    }
+}
@@ -0,0 +1,22 @@
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing of game positions.
+ * Each game XORs one key per occupied feature (pawn square, wall, edge, tile position) into a running
+ * hash and updates it incrementally as moves are applied, so a position's identity costs O(1) per move.
+ * Seeds are fixed so hashes are reproducible between runs and processes.
+ */
+public final class Zobrist {
+    private Zobrist() {
+    }
+
+    /** Returns count pseudo-random 64-bit keys generated from the given seed. */
+    public static long[] keys(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] keys = new long[count];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+        }
+        return keys;
+    }
+}